@@ -6,6 +6,7 @@ import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.mapper.HechoExternoMapper;
 import com.metamapa.mapper.HechoDinamicoMapper;
+import com.metamapa.service.MarcaSincronizacionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -15,8 +16,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Cliente de solo lectura para obtener hechos de la fuente dinámica.
@@ -28,10 +31,13 @@ public class FuenteDinamicaClient implements FuenteDeDatos {
     
     private final RestTemplate restTemplate;
     private final String fuenteDinamicaUrl;
+    private final MarcaSincronizacionService marcaSincronizacionService;
     
-    public FuenteDinamicaClient(@Value("${fuente.dinamica.url:http://localhost:8082}") String fuenteDinamicaUrl) {
+    public FuenteDinamicaClient(@Value("${fuente.dinamica.url:http://localhost:8082}") String fuenteDinamicaUrl,
+                                MarcaSincronizacionService marcaSincronizacionService) {
         this.restTemplate = new RestTemplate();
         this.fuenteDinamicaUrl = fuenteDinamicaUrl.trim();
+        this.marcaSincronizacionService = marcaSincronizacionService;
         log.info("FuenteDinamicaClient inicializado con URL: '{}'", this.fuenteDinamicaUrl);
     }
     
@@ -40,9 +46,14 @@ public class FuenteDinamicaClient implements FuenteDeDatos {
     @Override
     public List<Hecho> obtenerHechos() {
         try {
-            String url = UriComponentsBuilder.fromHttpUrl(fuenteDinamicaUrl)
-                    .path("/api/fuente-dinamica/hechos") //?ultimaActualizacion={ultimaActualizacion}
-                    .toUriString();
+            // Sincronización incremental: solo lo actualizado después de la última marca confirmada
+            LocalDateTime since = marcaSincronizacionService.obtenerMarca(getIdentificador()).orElse(null);
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(fuenteDinamicaUrl)
+                    .path("/api/fuente-dinamica/hechos");
+            if (since != null) {
+                builder.queryParam("since", since);
+            }
+            String url = builder.toUriString();
             
             log.info("🌐 Obteniendo hechos de fuente dinámica: {}", url);
             
@@ -56,6 +67,11 @@ public class FuenteDinamicaClient implements FuenteDeDatos {
             if (response.getStatusCode().is2xxSuccessful()) {
                 List<HechoDinamicoDTO> hechosDTO = response.getBody();
                 if (hechosDTO != null) {
+                    hechosDTO.stream()
+                            .map(HechoDinamicoDTO::getUltimaActualizacion)
+                            .filter(Objects::nonNull)
+                            .max(LocalDateTime::compareTo)
+                            .ifPresent(max -> marcaSincronizacionService.registrarPendiente(getIdentificador(), max));
                     log.info("🌐 Recibidos {} HechoDinamicoDTO de fuente dinámica, convirtiendo a entidades...", hechosDTO.size());
                     List<Hecho> hechos = hechosDTO.stream()
                             .map(HechoDinamicoMapper::toEntity)
@@ -1,13 +1,14 @@
 package com.metamapa.client;
 
+import com.metamapa.dto.AckLoteDTO;
 import com.metamapa.dto.HechoDTO;
+import com.metamapa.dto.LoteHechosDTO;
 import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.mapper.HechoMapper;
+import com.metamapa.service.MarcaSincronizacionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -27,45 +28,58 @@ public class FuenteEstaticaClient implements FuenteDeDatos {
     
     private final RestTemplate restTemplate;
     private final String fuenteEstaticaUrl;
+    private final MarcaSincronizacionService marcaSincronizacionService;
     
-    public FuenteEstaticaClient(@Value("${fuente.estatica.url:http://localhost:8083}") String fuenteEstaticaUrl) {
+    private final int tamanioLote;
+    
+    public FuenteEstaticaClient(@Value("${fuente.estatica.url:http://localhost:8083}") String fuenteEstaticaUrl,
+                                 @Value("${metamapa.fuentes.estatica.tamanio-lote:5000}") int tamanioLote,
+                                 MarcaSincronizacionService marcaSincronizacionService) {
         this.restTemplate = new RestTemplate();
         this.fuenteEstaticaUrl = fuenteEstaticaUrl.trim();
+        this.tamanioLote = tamanioLote;
+        this.marcaSincronizacionService = marcaSincronizacionService;
         log.info("FuenteEstaticaClient inicializado con URL: '{}'", this.fuenteEstaticaUrl);
     }
     
     /**
-     * Obtiene todos los hechos de archivos CSV pendientes.
+     * Obtiene el próximo lote de hechos de archivos CSV pendientes.
      * Este método gatilla el procesamiento en fuente-estática.
+     *
+     * La fuente entrega cada archivo por tramos desde su checkpoint; el ack del lote se registra
+     * como confirmación pendiente y se envía recién después de depurar, así un corte a mitad de
+     * un import grande retoma desde el último lote confirmado.
      */
     @Override
     public List<Hecho> obtenerHechos() {
         try {
             String url = UriComponentsBuilder.fromHttpUrl(fuenteEstaticaUrl)
-                    .path("/api/fuente-estatica/hechos")
+                    .path("/api/fuente-estatica/lotes/siguiente")
+                    .queryParam("tamanio", tamanioLote)
                     .toUriString();
             
-            log.info("📁 Obteniendo hechos de fuente estática: {}", url);
-            
-            ResponseEntity<List<HechoDTO>> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                null, 
-                new ParameterizedTypeReference<List<HechoDTO>>() {}
-            );
+            log.info("📁 Obteniendo lote de fuente estática: {}", url);
             
-            if (response.getStatusCode().is2xxSuccessful()) {
-                List<HechoDTO> hechosDTO = response.getBody();
-                if (hechosDTO != null) {
-                    log.info("📁 Recibidos {} HechoDTO de fuente estática, convirtiendo a entidades...", hechosDTO.size());
-                    List<Hecho> hechos = hechosDTO.stream()
-                            .map(HechoMapper::toEntity)
-                            .collect(Collectors.toList());
-                    log.info("📁 Convertidos {} hechos exitosamente desde archivos CSV", hechos.size());
-                    return hechos;
-                }
+            ResponseEntity<LoteHechosDTO> response = restTemplate.getForEntity(url, LoteHechosDTO.class);
+            LoteHechosDTO lote = response.getBody();
+
+            if (response.getStatusCode().is2xxSuccessful() && lote != null) {
+                List<HechoDTO> hechosDTO = lote.getHechos() != null ? lote.getHechos() : Collections.<HechoDTO>emptyList();
+                log.info("📁 Recibido lote del archivo {} (bytes [{}, {})) con {} HechoDTO, convirtiendo a entidades...",
+                        lote.getArchivoId(), lote.getOffsetInicio(), lote.getOffsetFin(), hechosDTO.size());
+
+                AckLoteDTO ack = AckLoteDTO.de(lote);
+                marcaSincronizacionService.registrarConfirmacion(getIdentificador(), () -> confirmarLote(ack));
+                // Puede haber más tramos de este archivo o más archivos pendientes
+                marcaSincronizacionService.registrarLotesRestantes(getIdentificador());
+
+                List<Hecho> hechos = hechosDTO.stream()
+                        .map(HechoMapper::toEntity)
+                        .collect(Collectors.toList());
+                log.info("📁 Convertidos {} hechos exitosamente desde archivos CSV", hechos.size());
+                return hechos;
             }
-            log.warn("No se recibieron hechos de fuente estática. Status: {}", response.getStatusCode());
+            log.info("No hay lotes pendientes en fuente estática. Status: {}", response.getStatusCode());
             return Collections.emptyList();
             
         } catch (Exception e) {
@@ -73,6 +87,12 @@ public class FuenteEstaticaClient implements FuenteDeDatos {
             return Collections.emptyList();
         }
     }
+
+    private void confirmarLote(AckLoteDTO ack) {
+        String url = fuenteEstaticaUrl + "/api/fuente-estatica/lotes/ack";
+        restTemplate.postForEntity(url, ack, Void.class);
+        log.info("📁 Lote del archivo {} confirmado hasta el byte {}", ack.getArchivoId(), ack.getOffsetFin());
+    }
     
     @Override
     public Hecho obtenerHechoPorId(Long id) {
@@ -1,10 +1,15 @@
 package com.metamapa.config;
 
+import com.metamapa.entities.ubicaciones.GeocodificadorInverso;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 @EnableScheduling
 public class AppConfig {
@@ -13,4 +18,64 @@ public class AppConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    /**
+     * Pool acotado para leer las fuentes en paralelo (ver FuenteService).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor fuentesExecutor(@Value("${metamapa.fuentes.pool-size:8}") int poolSize,
+                                                  @Value("${metamapa.fuentes.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fuente-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool acotado para refrescar colecciones en paralelo (ver ServicioAgregacion).
+     * Con la cola llena, el hilo del scheduler procesa la colección él mismo (backpressure).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor coleccionesExecutor(@Value("${metamapa.agregacion.colecciones.pool-size:4}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("coleccion-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool para normalizar lotes de hechos por tramos (ver NormalizacionService).
+     * Por defecto un hilo por núcleo; con la cola llena, el hilo que encola normaliza el tramo él mismo.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor normalizacionExecutor(@Value("${metamapa.normalizacion.workers:0}") int workers) {
+        int hilos = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos * 16);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("normalizacion-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Geocodificador inverso con los polígonos configurados (vacío = los incluidos en domain).
+     * Los criterios y la normalización lo usan a través de GeocodificadorInverso.getInstancia().
+     */
+    @Bean
+    public GeocodificadorInverso geocodificadorInverso(@Value("${metamapa.geo.provincias:}") String provincias,
+                                                       @Value("${metamapa.geo.municipios:}") String municipios,
+                                                       @Value("${metamapa.geo.cache-size:10000}") int capacidadCache) {
+        return GeocodificadorInverso.configurar(provincias, municipios, capacidadCache);
+    }
 } 
\ No newline at end of file
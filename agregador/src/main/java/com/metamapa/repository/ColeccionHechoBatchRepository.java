@@ -0,0 +1,63 @@
+package com.metamapa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras en lote (JDBC batch) sobre coleccion_hecho usadas al refrescar una colección.
+ * Se aplican solo las diferencias (altas, bajas y flags cambiados) sin cargar entidades.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ColeccionHechoBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param altas id del hecho → consensuado, para hechos que entran a la colección
+     */
+    public void insertar(Long idColeccion, Map<Long, Boolean> altas) {
+        if (altas.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(altas.size());
+        for (Map.Entry<Long, Boolean> e : altas.entrySet()) {
+            args.add(new Object[]{idColeccion, e.getKey(), e.getValue()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO coleccion_hecho (id_coleccion, id_hecho, consensuado) VALUES (?, ?, ?)", args);
+    }
+
+    /**
+     * @param cambios id del hecho → nuevo valor de consensuado
+     */
+    public void actualizarConsensuados(Long idColeccion, Map<Long, Boolean> cambios) {
+        if (cambios.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(cambios.size());
+        for (Map.Entry<Long, Boolean> e : cambios.entrySet()) {
+            args.add(new Object[]{e.getValue(), idColeccion, e.getKey()});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE coleccion_hecho SET consensuado = ? WHERE id_coleccion = ? AND id_hecho = ?", args);
+    }
+
+    /**
+     * @param idsHecho hechos que salen de la colección
+     */
+    public void eliminar(Long idColeccion, Collection<Long> idsHecho) {
+        if (idsHecho.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(idsHecho.size());
+        for (Long idHecho : idsHecho) {
+            args.add(new Object[]{idColeccion, idHecho});
+        }
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM coleccion_hecho WHERE id_coleccion = ? AND id_hecho = ?", args);
+    }
+}
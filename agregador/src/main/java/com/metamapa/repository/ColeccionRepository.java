@@ -1,5 +1,6 @@
 package com.metamapa.repository;
 
+import com.metamapa.entities.colecciones.AlgoritmoDeConsenso;
 import com.metamapa.entities.colecciones.Coleccion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -23,6 +24,24 @@ public interface ColeccionRepository extends JpaRepository<Coleccion, Long> {
     @Query("SELECT c FROM Coleccion c LEFT JOIN FETCH c.fuentesPersistentes WHERE c.identificador = :id")
     Optional<Coleccion> findByIdWithFuentes(@Param("id") Long id);
     
+    /**
+     * Solo el algoritmo de consenso, sin instanciar la colección (no dispara @PostLoad ni carga sus hechos)
+     */
+    @Query("SELECT c.algoritmoDeConsenso FROM Coleccion c WHERE c.identificador = :id")
+    Optional<AlgoritmoDeConsenso> findAlgoritmoDeConsensoById(@Param("id") Long id);
+    
+    /**
+     * Solo el flag de oculta (vacío si la colección no existe), sin instanciar la colección
+     */
+    @Query("SELECT c.oculta FROM Coleccion c WHERE c.identificador = :id")
+    Optional<Boolean> findOcultaById(@Param("id") Long id);
+    
+    /**
+     * IDs de las colecciones visibles (no ocultas), sin instanciarlas (no dispara @PostLoad ni carga sus hechos)
+     */
+    @Query("SELECT c.identificador FROM Coleccion c WHERE c.oculta = false")
+    java.util.List<Long> findIdentificadoresVisibles();
+    
     /**
      * Obtiene todas las colecciones con los hechos precargados
      * Nota: Las etiquetas de los hechos deben cargarse en un paso separado
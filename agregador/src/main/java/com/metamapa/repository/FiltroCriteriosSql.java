@@ -0,0 +1,129 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.colecciones.ColeccionCriterio;
+import com.metamapa.entities.ubicaciones.GeocodificadorInverso;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Traduce los criterios de una colección (filas de coleccion_criterio) a una condición SQL sobre
+ * la tabla hecho (alias {@code h}), para que la hidratación traiga solo los hechos que los cumplen.
+ *
+ * - CATEGORIA            → h.categoria = ?            (índice idx_hecho_categoria_fecha)
+ * - TITULO / DESCRIPCION → h.titulo / h.descripcion LIKE '%valor%'
+ * - FECHA_CARGA          → h.fecha_carga BETWEEN ? AND ?  (índice idx_hecho_fecha_carga)
+ * - FECHA_ACONTECIMIENTO → h.fecha_hecho BETWEEN ? AND ?  (índice idx_hecho_fecha_hecho)
+ *
+ * La comparación de texto queda a cargo de la collation de MySQL (sin distinguir mayúsculas, como los
+ * criterios en memoria). UBICACION depende de los polígonos del geocodificador y no se puede expresar
+ * en SQL: queda como residual y se evalúa sobre latitud/longitud de cada fila ({@link #cumpleResiduales}).
+ * Los tipos desconocidos no restringen, igual que en {@link ColeccionCriterio#toCriterio()}.
+ */
+public final class FiltroCriteriosSql {
+
+    private final List<String> condiciones = new ArrayList<>();
+    private final MapSqlParameterSource parametros = new MapSqlParameterSource();
+    private final List<ColeccionCriterio> ubicaciones = new ArrayList<>();
+
+    private FiltroCriteriosSql() {
+    }
+
+    public static FiltroCriteriosSql de(Collection<ColeccionCriterio> criterios) {
+        FiltroCriteriosSql filtro = new FiltroCriteriosSql();
+        for (ColeccionCriterio cc : criterios) {
+            if (cc == null || cc.getTipoCriterio() == null) continue;
+            String p = "c" + filtro.condiciones.size();
+            switch (cc.getTipoCriterio()) {
+                case "CATEGORIA":
+                    filtro.agregar(cc.getValor() == null ? "1 = 0" : "h.categoria = :" + p, p, cc.getValor());
+                    break;
+                case "TITULO":
+                    filtro.agregarContiene("h.titulo", cc.getValor(), p);
+                    break;
+                case "DESCRIPCION":
+                    filtro.agregarContiene("h.descripcion", cc.getValor(), p);
+                    break;
+                case "FECHA_CARGA":
+                    filtro.agregarRango("h.fecha_carga", cc, p);
+                    break;
+                case "FECHA_ACONTECIMIENTO":
+                    filtro.agregarRango("h.fecha_hecho", cc, p);
+                    break;
+                case "UBICACION":
+                    filtro.ubicaciones.add(cc);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return filtro;
+    }
+
+    /**
+     * Condición para agregar con AND al WHERE, o cadena vacía si no hay criterios traducibles.
+     */
+    public String getCondicion() {
+        return condiciones.isEmpty() ? "" : String.join(" AND ", condiciones);
+    }
+
+    public MapSqlParameterSource getParametros() {
+        return parametros;
+    }
+
+    /**
+     * Si hay criterios que se evalúan en memoria y necesitan latitud/longitud del hecho.
+     */
+    public boolean requiereUbicacion() {
+        return !ubicaciones.isEmpty();
+    }
+
+    /**
+     * Criterios no traducibles (ubicación) sobre las coordenadas de la fila; null = el hecho no tiene ubicación.
+     */
+    public boolean cumpleResiduales(Double latitud, Double longitud) {
+        if (ubicaciones.isEmpty()) return true;
+        if (latitud == null || longitud == null
+                || latitud < -90 || latitud > 90 || longitud < -180 || longitud > 180) {
+            return false;
+        }
+        GeocodificadorInverso geocodificador = GeocodificadorInverso.getInstancia();
+        for (ColeccionCriterio cc : ubicaciones) {
+            if (!geocodificador.coincide(latitud, longitud, cc.getPais(), cc.getProvincia(), cc.getMunicipio())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void agregar(String condicion, String parametro, Object valor) {
+        condiciones.add(condicion);
+        if (valor != null) parametros.addValue(parametro, valor);
+    }
+
+    private void agregarContiene(String columna, String valor, String parametro) {
+        if (valor == null || valor.isEmpty()) {
+            condiciones.add(columna + " IS NOT NULL");
+            return;
+        }
+        agregar(columna + " LIKE :" + parametro, parametro, "%" + escaparLike(valor) + "%");
+    }
+
+    private void agregarRango(String columna, ColeccionCriterio cc, String parametro) {
+        if (cc.getFechaDesde() == null || cc.getFechaHasta() == null) {
+            condiciones.add("1 = 0");
+            return;
+        }
+        condiciones.add(columna + " BETWEEN :" + parametro + "d AND :" + parametro + "h");
+        parametros.addValue(parametro + "d", Timestamp.valueOf(cc.getFechaDesde()));
+        parametros.addValue(parametro + "h", Timestamp.valueOf(cc.getFechaHasta()));
+    }
+
+    // El escape por defecto de LIKE en MySQL es la barra invertida
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,144 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.hechos.FingerprintHecho;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas JDBC del backfill de fingerprints: lee los campos que entran en el fingerprint,
+ * reescribe fingerprint/versión y fusiona duplicados sin cargar entidades.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FingerprintBackfillRepository {
+
+    private static final String INDICE_UNICO = "ux_hecho_fingerprint";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Página (keyset por id) de hechos cuyo fingerprint falta o se calculó con una versión anterior.
+     */
+    public List<FilaFingerprint> buscarDesactualizados(long desdeId, int limite) {
+        return jdbcTemplate.query(
+                "SELECT h.id, h.titulo, h.descripcion, h.categoria, h.id_ubicacion, u.latitud, u.longitud, h.fecha_hecho " +
+                "FROM hecho h LEFT JOIN ubicacion u ON u.id = h.id_ubicacion " +
+                "WHERE h.id > ? AND (h.version_fingerprint IS NULL OR h.version_fingerprint < ?) " +
+                "ORDER BY h.id LIMIT ?",
+                (rs, i) -> {
+                    boolean conUbicacion = rs.getObject("id_ubicacion") != null;
+                    Timestamp fecha = rs.getTimestamp("fecha_hecho");
+                    String fingerprint = FingerprintHecho.calcular(
+                            rs.getString("titulo"), rs.getString("descripcion"), rs.getString("categoria"),
+                            conUbicacion ? rs.getDouble("latitud") : null,
+                            conUbicacion ? rs.getDouble("longitud") : null,
+                            fecha != null ? fecha.toLocalDateTime() : null);
+                    return new FilaFingerprint(rs.getLong("id"), fingerprint);
+                },
+                desdeId, FingerprintHecho.VERSION, limite);
+    }
+
+    /**
+     * fingerprint → id del hecho que ya lo tiene asignado.
+     */
+    public Map<String, Long> buscarIdsPorFingerprint(Collection<String> fingerprints) {
+        Map<String, Long> ids = new HashMap<>();
+        if (fingerprints.isEmpty()) return ids;
+
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                "SELECT id, fingerprint FROM hecho WHERE fingerprint IN (:fingerprints)",
+                new MapSqlParameterSource("fingerprints", fingerprints),
+                rs -> {
+                    ids.put(rs.getString("fingerprint"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    /**
+     * Libera el fingerprint de los hechos que se van a recalcular, para que el índice único
+     * no choque mientras se reasignan dentro de la misma página.
+     */
+    public void limpiarFingerprints(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+
+        new NamedParameterJdbcTemplate(jdbcTemplate).update(
+                "UPDATE hecho SET fingerprint = NULL WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * @param fingerprints id del hecho → fingerprint calculado con la versión actual
+     */
+    public void actualizarFingerprints(Map<Long, String> fingerprints) {
+        if (fingerprints.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(fingerprints.size());
+        for (Map.Entry<Long, String> e : fingerprints.entrySet()) {
+            args.add(new Object[]{e.getValue(), FingerprintHecho.VERSION, e.getKey()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE hecho SET fingerprint = ?, version_fingerprint = ? WHERE id = ?", args);
+    }
+
+    /**
+     * Fusiona un hecho duplicado en el canónico: le pasa las fuentes que no tenía (sumando contador)
+     * y las relaciones con archivos de origen, lo saca de las colecciones y lo marca eliminado.
+     */
+    public void fusionar(long idDuplicado, long idCanonico) {
+        int fuentesNuevas = jdbcTemplate.update(
+                "INSERT INTO hecho_fuentes (hecho_id, fuente) " +
+                "SELECT DISTINCT ?, d.fuente FROM hecho_fuentes d WHERE d.hecho_id = ? AND d.fuente NOT IN " +
+                "(SELECT c.fuente FROM (SELECT fuente FROM hecho_fuentes WHERE hecho_id = ?) c)",
+                idCanonico, idDuplicado, idCanonico);
+        if (fuentesNuevas > 0) {
+            jdbcTemplate.update("UPDATE hecho SET contador = contador + ?, ultima_actualizacion = ? WHERE id = ?",
+                    fuentesNuevas, new Timestamp(System.currentTimeMillis()), idCanonico);
+        }
+        jdbcTemplate.update("UPDATE hecho_origen_archivo SET hecho_id = ? WHERE hecho_id = ?", idCanonico, idDuplicado);
+        jdbcTemplate.update("DELETE FROM hecho_fuentes WHERE hecho_id = ?", idDuplicado);
+        jdbcTemplate.update("DELETE FROM coleccion_hecho WHERE id_hecho = ?", idDuplicado);
+        // ultima_actualizacion para que el gestor descarte los tiles del duplicado
+        jdbcTemplate.update(
+                "UPDATE hecho SET fingerprint = NULL, version_fingerprint = ?, eliminado = TRUE, " +
+                "ultima_actualizacion = ? WHERE id = ?",
+                FingerprintHecho.VERSION, new Timestamp(System.currentTimeMillis()), idDuplicado);
+    }
+
+    /**
+     * Crea el índice único sobre hecho.fingerprint si no existe (ddl-auto no puede crearlo mientras haya duplicados).
+     *
+     * @return true si lo creó
+     */
+    public boolean asegurarIndiceUnico() {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = 'hecho' AND index_name = ?",
+                Integer.class, INDICE_UNICO);
+        if (existentes != null && existentes > 0) return false;
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX " + INDICE_UNICO + " ON hecho (fingerprint)");
+        return true;
+    }
+
+    public static class FilaFingerprint {
+        private final long id;
+        private final String fingerprint;
+
+        FilaFingerprint(long id, String fingerprint) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+        }
+
+        public long getId() { return id; }
+        public String getFingerprint() { return fingerprint; }
+    }
+}
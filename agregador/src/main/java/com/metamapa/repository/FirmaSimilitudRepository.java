@@ -0,0 +1,192 @@
+package com.metamapa.repository;
+
+import com.metamapa.service.similitud.MinHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecturas y escrituras JDBC de firmas MinHash y bandas LSH (tablas hecho_firma_minhash / hecho_banda_lsh).
+ */
+@Repository
+@RequiredArgsConstructor
+public class FirmaSimilitudRepository {
+
+    // Pares (banda, valor) por consulta, para no armar IN gigantes
+    private static final int PARES_POR_CONSULTA = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Hechos que comparten alguna banda con las pedidas. Cada par se resuelve por el índice (banda, valor).
+     * Una banda muy común (títulos genéricos) aporta a lo sumo {@code maxPorBanda} candidatos, los más recientes.
+     *
+     * @param pares pares {banda, valor}
+     * @return (banda, valor) → ids de hechos con esa banda
+     */
+    public Map<ClaveBanda, Set<Long>> buscarPorBandas(Collection<ClaveBanda> pares, int maxPorBanda) {
+        Map<ClaveBanda, Set<Long>> resultado = new HashMap<>();
+        if (pares.isEmpty()) return resultado;
+
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<ClaveBanda> lista = new ArrayList<>(pares);
+        for (int desde = 0; desde < lista.size(); desde += PARES_POR_CONSULTA) {
+            List<Object[]> args = new ArrayList<>();
+            for (ClaveBanda c : lista.subList(desde, Math.min(desde + PARES_POR_CONSULTA, lista.size()))) {
+                args.add(new Object[]{c.getBanda(), c.getValor()});
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource("pares", args)
+                    .addValue("maxPorBanda", maxPorBanda);
+            named.query("SELECT banda, valor, hecho_id FROM (" +
+                            "SELECT banda, valor, hecho_id, " +
+                            "ROW_NUMBER() OVER (PARTITION BY banda, valor ORDER BY hecho_id DESC) AS orden " +
+                            "FROM hecho_banda_lsh WHERE (banda, valor) IN (:pares)) b " +
+                            "WHERE b.orden <= :maxPorBanda",
+                    params,
+                    rs -> {
+                        resultado.computeIfAbsent(new ClaveBanda(rs.getInt("banda"), rs.getLong("valor")),
+                                k -> new HashSet<>()).add(rs.getLong("hecho_id"));
+                    });
+        }
+        return resultado;
+    }
+
+    /**
+     * Firma, ubicación, fecha y fuentes de los candidatos (se omiten los eliminados).
+     */
+    public Map<Long, DatosCandidato> buscarDatos(Collection<Long> ids) {
+        Map<Long, DatosCandidato> datos = new HashMap<>();
+        if (ids.isEmpty()) return datos;
+
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        named.query(
+                "SELECT f.hecho_id, f.firma, h.id_ubicacion, u.latitud, u.longitud, h.fecha_hecho " +
+                "FROM hecho_firma_minhash f JOIN hecho h ON h.id = f.hecho_id " +
+                "LEFT JOIN ubicacion u ON u.id = h.id_ubicacion " +
+                "WHERE f.hecho_id IN (:ids) AND h.eliminado = FALSE",
+                params,
+                rs -> {
+                    boolean conUbicacion = rs.getObject("id_ubicacion") != null;
+                    Timestamp fecha = rs.getTimestamp("fecha_hecho");
+                    long id = rs.getLong("hecho_id");
+                    datos.put(id, new DatosCandidato(id, MinHash.desdeBytes(rs.getBytes("firma")),
+                            conUbicacion ? rs.getDouble("latitud") : null,
+                            conUbicacion ? rs.getDouble("longitud") : null,
+                            fecha != null ? fecha.toLocalDateTime() : null));
+                });
+        if (datos.isEmpty()) return datos;
+
+        named.query("SELECT hecho_id, fuente FROM hecho_fuentes WHERE hecho_id IN (:ids)",
+                new MapSqlParameterSource("ids", datos.keySet()),
+                rs -> {
+                    DatosCandidato candidato = datos.get(rs.getLong("hecho_id"));
+                    if (candidato != null && rs.getString("fuente") != null) {
+                        candidato.getFuentes().add(rs.getString("fuente"));
+                    }
+                });
+        return datos;
+    }
+
+    /**
+     * Inserta firma y bandas ignorando las que ya existen: el backfill del arranque y la ingesta
+     * pueden firmar el mismo hecho a la vez.
+     *
+     * @param firmas id del hecho → firma MinHash
+     */
+    public void guardar(Map<Long, int[]> firmas) {
+        if (firmas.isEmpty()) return;
+
+        List<Object[]> filasFirma = new ArrayList<>(firmas.size());
+        List<Object[]> filasBanda = new ArrayList<>(firmas.size() * MinHash.BANDAS);
+        for (Map.Entry<Long, int[]> e : firmas.entrySet()) {
+            filasFirma.add(new Object[]{e.getKey(), MinHash.aBytes(e.getValue())});
+            long[] bandas = MinHash.bandas(e.getValue());
+            for (int b = 0; b < bandas.length; b++) {
+                filasBanda.add(new Object[]{e.getKey(), b, bandas[b]});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO hecho_firma_minhash (hecho_id, firma) VALUES (?, ?)", filasFirma);
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO hecho_banda_lsh (hecho_id, banda, valor) VALUES (?, ?, ?)", filasBanda);
+    }
+
+    /**
+     * Página (keyset por id) de hechos vigentes que todavía no tienen firma: [id, titulo, descripcion].
+     */
+    public List<Object[]> buscarSinFirma(long desdeId, int limite) {
+        return jdbcTemplate.query(
+                "SELECT h.id, h.titulo, h.descripcion FROM hecho h " +
+                "LEFT JOIN hecho_firma_minhash f ON f.hecho_id = h.id " +
+                "WHERE h.id > ? AND f.hecho_id IS NULL AND h.eliminado = FALSE ORDER BY h.id LIMIT ?",
+                (rs, i) -> new Object[]{rs.getLong("id"), rs.getString("titulo"), rs.getString("descripcion")},
+                desdeId, limite);
+    }
+
+    /**
+     * Clave de una banda LSH: número de banda y su valor.
+     */
+    public static final class ClaveBanda {
+        private final int banda;
+        private final long valor;
+
+        public ClaveBanda(int banda, long valor) {
+            this.banda = banda;
+            this.valor = valor;
+        }
+
+        public int getBanda() { return banda; }
+        public long getValor() { return valor; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClaveBanda)) return false;
+            ClaveBanda otra = (ClaveBanda) o;
+            return banda == otra.banda && valor == otra.valor;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * banda + Long.hashCode(valor);
+        }
+    }
+
+    /**
+     * Lo necesario para verificar un candidato: firma, ubicación, fecha y fuentes conocidas.
+     */
+    public static final class DatosCandidato {
+        private final long id;
+        private final int[] firma;
+        private final Double latitud;
+        private final Double longitud;
+        private final LocalDateTime fecha;
+        private final Set<String> fuentes = new HashSet<>();
+
+        DatosCandidato(long id, int[] firma, Double latitud, Double longitud, LocalDateTime fecha) {
+            this.id = id;
+            this.firma = firma;
+            this.latitud = latitud;
+            this.longitud = longitud;
+            this.fecha = fecha;
+        }
+
+        public long getId() { return id; }
+        public int[] getFirma() { return firma; }
+        public Double getLatitud() { return latitud; }
+        public Double getLongitud() { return longitud; }
+        public LocalDateTime getFecha() { return fecha; }
+        public Set<String> getFuentes() { return fuentes; }
+    }
+}
@@ -0,0 +1,70 @@
+package com.metamapa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras en lote (JDBC batch) usadas por la depuración de hechos.
+ * Evita cargar entidades completas cuando solo hay que sumar fuentes/contador
+ * o registrar la relación con el archivo de origen.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HechoBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Incrementa el contador de cada hecho en la cantidad indicada y actualiza ultima_actualizacion.
+     *
+     * @param incrementosPorHecho id del hecho → cantidad a sumar al contador
+     */
+    public void incrementarContadores(Map<Long, Integer> incrementosPorHecho) {
+        if (incrementosPorHecho.isEmpty()) return;
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(incrementosPorHecho.size());
+        for (Map.Entry<Long, Integer> e : incrementosPorHecho.entrySet()) {
+            args.add(new Object[]{e.getValue(), ahora, e.getKey()});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE hecho SET contador = contador + ?, ultima_actualizacion = ? WHERE id = ?", args);
+    }
+
+    /**
+     * Agrega fuentes nuevas a la colección hecho_fuentes.
+     *
+     * @param fuentesPorHecho pares (id del hecho, fuente) a insertar
+     */
+    public void agregarFuentes(Collection<Object[]> fuentesPorHecho) {
+        if (fuentesPorHecho.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO hecho_fuentes (hecho_id, fuente) VALUES (?, ?)", new ArrayList<>(fuentesPorHecho));
+    }
+
+    /**
+     * Registra la relación N-N entre hechos y archivos de origen.
+     *
+     * @param relaciones pares (id del hecho, id del archivo) que todavía no existen
+     */
+    public void insertarRelacionesOrigenArchivo(Collection<Object[]> relaciones) {
+        if (relaciones.isEmpty()) return;
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(relaciones.size());
+        for (Object[] r : relaciones) {
+            args.add(new Object[]{r[0], r[1], ahora});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO hecho_origen_archivo (hecho_id, archivo_id, fecha_vinculacion) VALUES (?, ?, ?)", args);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,14 @@ public interface HechoRepository extends JpaRepository<Hecho, Long> {
     
     Optional<Hecho> findByFingerprint(String fingerprint);
     
+    /**
+     * Resuelve un lote de fingerprints en una sola consulta.
+     * Devuelve filas [id, fingerprint, fuente] (una por fuente; fuente null si el hecho no tiene fuentes)
+     * sin hidratar la entidad completa.
+     */
+    @Query("SELECT h.id, h.fingerprint, f FROM Hecho h LEFT JOIN h.fuentes f WHERE h.fingerprint IN :fingerprints")
+    List<Object[]> findIdYFuentesByFingerprintIn(@Param("fingerprints") Collection<String> fingerprints);
+    
     /**
      * Busca hechos que pertenecen a una fuente específica
      */
@@ -0,0 +1,81 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.colecciones.ColeccionCriterio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consultas JDBC de la hidratación de colecciones: criterios de la colección (sin cargar la entidad
+ * Coleccion, que en @PostLoad recorre sus hechos) y menciones de los hechos que los cumplen.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HidratacionColeccionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Filas de coleccion_criterio de una colección como ColeccionCriterio sueltos (sin colección asociada).
+     */
+    public List<ColeccionCriterio> buscarCriterios(Long identificadorColeccion) {
+        return jdbcTemplate.query(
+                "SELECT tipo_criterio, valor, fecha_desde, fecha_hasta, pais, provincia, municipio " +
+                "FROM coleccion_criterio WHERE id_coleccion = ? ORDER BY id",
+                (rs, i) -> {
+                    ColeccionCriterio cc = new ColeccionCriterio();
+                    cc.setTipoCriterio(rs.getString("tipo_criterio"));
+                    cc.setValor(rs.getString("valor"));
+                    Timestamp desde = rs.getTimestamp("fecha_desde");
+                    Timestamp hasta = rs.getTimestamp("fecha_hasta");
+                    cc.setFechaDesde(desde != null ? desde.toLocalDateTime() : null);
+                    cc.setFechaHasta(hasta != null ? hasta.toLocalDateTime() : null);
+                    cc.setPais(rs.getString("pais"));
+                    cc.setProvincia(rs.getString("provincia"));
+                    cc.setMunicipio(rs.getString("municipio"));
+                    return cc;
+                },
+                identificadorColeccion);
+    }
+
+    /**
+     * Hidratación ID-only de una colección: una fila [hecho_id, menciones, latitud, longitud]
+     * por hecho reportado por alguna de las fuentes y que cumple la parte SQL de los criterios.
+     * Paginada por keyset (hecho_id mayor a desdeId). Latitud/longitud solo vienen si el filtro tiene residuales.
+     */
+    public List<Object[]> buscarMenciones(Collection<String> fuentes, FiltroCriteriosSql filtro,
+                                          long desdeId, int limite) {
+        boolean conUbicacion = filtro.requiereUbicacion();
+        String condicion = filtro.getCondicion();
+        String sql =
+                "SELECT hf.hecho_id, COUNT(DISTINCT hf.fuente) AS menciones" +
+                (conUbicacion ? ", MAX(u.latitud) AS latitud, MAX(u.longitud) AS longitud " : " ") +
+                "FROM hecho_fuentes hf " +
+                "JOIN hecho h ON h.id = hf.hecho_id " +
+                (conUbicacion ? "LEFT JOIN ubicacion u ON u.id = h.id_ubicacion " : "") +
+                "WHERE hf.fuente IN (:fuentes) AND hf.hecho_id > :desdeId " +
+                (condicion.isEmpty() ? "" : "AND " + condicion + " ") +
+                "GROUP BY hf.hecho_id " +
+                "ORDER BY hf.hecho_id " +
+                "LIMIT :limite";
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValues(filtro.getParametros().getValues())
+                .addValue("fuentes", fuentes)
+                .addValue("desdeId", desdeId)
+                .addValue("limite", limite);
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, params, (rs, i) -> new Object[]{
+                rs.getLong("hecho_id"),
+                rs.getInt("menciones"),
+                conUbicacion ? (Double) rs.getObject("latitud", Double.class) : null,
+                conUbicacion ? (Double) rs.getObject("longitud", Double.class) : null
+        });
+    }
+}
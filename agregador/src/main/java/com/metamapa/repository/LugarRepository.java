@@ -0,0 +1,13 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.ubicaciones.Lugar;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LugarRepository extends JpaRepository<Lugar, Long> {
+
+    Optional<Lugar> findFirstByPaisAndProvinciaAndMunicipio(String pais, String provincia, String municipio);
+}
@@ -0,0 +1,35 @@
+package com.metamapa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura JDBC de la taxonomía de categorías (tabla taxonomia_keyword).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaxonomiaRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return macro → subrama → hoja → keywords, en el orden de carga de las filas
+     */
+    public Map<String, Map<String, Map<String, List<String>>>> cargar() {
+        Map<String, Map<String, Map<String, List<String>>>> taxonomia = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT macro, subrama, hoja, keyword FROM taxonomia_keyword ORDER BY id",
+                rs -> {
+                    taxonomia.computeIfAbsent(rs.getString("macro"), k -> new LinkedHashMap<>())
+                            .computeIfAbsent(rs.getString("subrama"), k -> new LinkedHashMap<>())
+                            .computeIfAbsent(rs.getString("hoja"), k -> new ArrayList<>())
+                            .add(rs.getString("keyword"));
+                });
+        return taxonomia;
+    }
+}
@@ -0,0 +1,117 @@
+package com.metamapa.service;
+
+import com.metamapa.entities.colecciones.AlgoritmoDeConsenso;
+import com.metamapa.entities.colecciones.PorDefecto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de consenso incremental.
+ * Por cada colección guarda cuántas de sus fuentes mencionan cada hecho y el último resultado del algoritmo.
+ * En cada corrida solo re-evalúa los hechos cuya cantidad de menciones cambió desde la corrida anterior
+ * (o que todavía no conocía) y devuelve únicamente los flags que cambiaron. Como el algoritmo decide
+ * solo con las menciones y la cantidad de fuentes, comparar las menciones no depende de marcas de tiempo
+ * (un cambio guardado con la misma ultima_actualizacion, o confirmado tarde, también se ve).
+ *
+ * Si cambian las fuentes seleccionadas o el algoritmo de la colección, el estado se descarta
+ * y se re-evalúa todo una vez.
+ */
+@Service
+@Slf4j
+public class ConsensoIncrementalService {
+
+    private final Map<Long, EstadoConsenso> estados = new ConcurrentHashMap<>();
+
+    /**
+     * Re-evalúa el consenso de los hechos de una colección.
+     *
+     * @param identificadorColeccion colección evaluada
+     * @param algoritmo              algoritmo de la colección (null = todos consensuados)
+     * @param fuentesSeleccionadas   identificadores de las fuentes de la colección
+     * @param hechos                 hechos actuales de la colección con sus menciones (filas ID-only)
+     * @param consensoPersistido     flag guardado en BD por ID de hecho, usado cuando no hay estado previo
+     * @return ID de hecho → nuevo flag, solo para los hechos cuyo flag cambió o que se evaluaron por primera vez
+     */
+    public Map<Long, Boolean> evaluar(Long identificadorColeccion, AlgoritmoDeConsenso algoritmo,
+                                      Set<String> fuentesSeleccionadas, Collection<MencionesHecho> hechos,
+                                      Map<Long, Boolean> consensoPersistido) {
+        AlgoritmoDeConsenso efectivo = algoritmo != null ? algoritmo : new PorDefecto();
+
+        EstadoConsenso estado = estados.get(identificadorColeccion);
+        boolean completa = estado == null || !estado.esCompatible(efectivo, fuentesSeleccionadas);
+        if (completa) {
+            estado = new EstadoConsenso(efectivo, fuentesSeleccionadas);
+            estado.consensuado.putAll(consensoPersistido);
+        }
+
+        Map<Long, Boolean> cambios = new HashMap<>();
+        Set<Long> presentes = new HashSet<>();
+        int evaluados = 0;
+
+        for (MencionesHecho hecho : hechos) {
+            Long id = hecho.getIdHecho();
+            if (id == null) continue;
+            presentes.add(id);
+
+            int menciones = hecho.getMenciones();
+            Integer anteriores = estado.menciones.put(id, menciones);
+            boolean conocido = anteriores != null && consensoPersistido.containsKey(id);
+            if (conocido && !completa && anteriores == menciones) continue;
+            evaluados++;
+
+            boolean nuevo = efectivo.esConsensuado(menciones, fuentesSeleccionadas.size());
+            Boolean anterior = estado.consensuado.put(id, nuevo);
+            if (anterior == null || anterior != nuevo || !consensoPersistido.containsKey(id)) {
+                cambios.put(id, nuevo);
+            }
+        }
+
+        // Hechos que ya no pertenecen a la colección
+        estado.menciones.keySet().retainAll(presentes);
+        estado.consensuado.keySet().retainAll(presentes);
+
+        estados.put(identificadorColeccion, estado);
+
+        log.debug("Consenso colección {}: {} hechos, {} re-evaluados{}, {} cambios",
+                identificadorColeccion, presentes.size(), evaluados, completa ? " (completa)" : "", cambios.size());
+        return cambios;
+    }
+
+    /**
+     * Flags vigentes (ID de hecho → consensuado) según la última evaluación de la colección.
+     */
+    public Map<Long, Boolean> consensoVigente(Long identificadorColeccion) {
+        EstadoConsenso estado = estados.get(identificadorColeccion);
+        return estado != null ? new HashMap<>(estado.consensuado) : new HashMap<>();
+    }
+
+    /**
+     * Descarta el estado de una colección (p. ej. si se eliminó); la próxima evaluación será completa.
+     */
+    public void invalidar(Long identificadorColeccion) {
+        estados.remove(identificadorColeccion);
+    }
+
+    private static class EstadoConsenso {
+        private final Class<?> tipoAlgoritmo;
+        private final Set<String> fuentes;
+        private final Map<Long, Integer> menciones = new HashMap<>();   // ID de hecho → fuentes que lo mencionan
+        private final Map<Long, Boolean> consensuado = new HashMap<>(); // ID de hecho → último resultado
+
+        EstadoConsenso(AlgoritmoDeConsenso algoritmo, Set<String> fuentes) {
+            this.tipoAlgoritmo = algoritmo.getClass();
+            this.fuentes = new HashSet<>(fuentes);
+        }
+
+        boolean esCompatible(AlgoritmoDeConsenso algoritmo, Set<String> fuentesSeleccionadas) {
+            return tipoAlgoritmo.equals(algoritmo.getClass()) && fuentes.equals(fuentesSeleccionadas);
+        }
+    }
+}
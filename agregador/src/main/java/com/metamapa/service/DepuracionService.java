@@ -1,12 +1,18 @@
 package com.metamapa.service;
 
 import com.metamapa.entities.hechos.Hecho;
-import com.metamapa.entities.HechoOrigenArchivo;
 import com.metamapa.entities.rol.Contribuyente;
+import com.metamapa.entities.ubicaciones.Lugar;
+import com.metamapa.repository.HechoBatchRepository;
 import com.metamapa.repository.HechoRepository;
 import com.metamapa.repository.HechoOrigenArchivoRepository;
+import com.metamapa.repository.LugarRepository;
+import com.metamapa.repository.FirmaSimilitudRepository.DatosCandidato;
+import com.metamapa.service.similitud.DeteccionCercanosService;
+import com.metamapa.service.similitud.DeteccionCercanosService.ResultadoCercanos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,12 @@ public class DepuracionService {
     private final HechoRepository hechoRepository;
     private final HechoOrigenArchivoRepository hechoOrigenArchivoRepository;
     private final FingerprintService fingerprintService;
+    private final HechoBatchRepository hechoBatchRepository;
+    private final DeteccionCercanosService deteccionCercanosService;
+    private final LugarRepository lugarRepository;
+
+    @Value("${metamapa.depuracion.chunk-size:500}")
+    private int tamanioLote;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -30,116 +42,288 @@ public class DepuracionService {
      * Depura duplicados usando fingerprint.
      * - Mantiene la información del primer hecho.
      * - Incrementa contador y agrega fuente de duplicados.
+     * - Los que no coinciden por fingerprint se comparan por similitud (MinHash/LSH, ver
+     *   {@link DeteccionCercanosService}) y, si son casi iguales a otro hecho, se fusionan igual.
+     * Procesa la entrada en lotes de {@code metamapa.depuracion.chunk-size}: cada lote resuelve
+     * sus fingerprints con una sola consulta y escribe con JDBC batch.
+     *
+     * @return resumen con los IDs insertados/fusionados y contadores de la corrida
      */
     @Transactional
-    public List<Hecho> depurar(List<Hecho> normalizados) {
-        if (normalizados == null || normalizados.isEmpty()) return Collections.emptyList();
-
-        for (Hecho h : normalizados) {
-            log.info("📝 Procesando hecho: '{}', esAnonimo={}, contribuyente={}", 
-                    h.getTitulo(), h.isEsAnonimo(), h.getContribuyente() != null ? "presente" : "null");
-            
-            // CRÍTICO: Manejar contribuyente INMEDIATAMENTE antes de cualquier operación con el EntityManager
-            if (h.getContribuyente() != null && !h.isEsAnonimo()) {
-                Long contribuyenteId = h.getContribuyente().getId();
-                log.info("🔍 Contribuyente detectado en hecho, ID: {}", contribuyenteId);
-                
-                if (contribuyenteId != null) {
-                    // Usar getReference() para obtener un proxy managed sin hit a BD
-                    // Esto evita el error de "transient instance" porque el proxy ya está managed
-                    try {
-                        Contribuyente contribuyenteManaged = entityManager.getReference(Contribuyente.class, contribuyenteId);
-                        h.setContribuyente(contribuyenteManaged);
-                        log.info("✅ Contribuyente managed asignado al hecho - ID: {}", contribuyenteId);
-                    } catch (javax.persistence.EntityNotFoundException e) {
-                        log.error("❌ Contribuyente con ID {} no encontrado en la base de datos. El hecho será guardado sin contribuyente.", 
-                                contribuyenteId);
-                        h.setContribuyente(null);
-                    }
-                } else {
-                    log.warn("⚠️ Hecho tiene contribuyente pero sin ID. El hecho será guardado sin contribuyente.");
-                    h.setContribuyente(null);
-                }
-            } else {
-                log.info("ℹ️ Hecho sin contribuyente o anónimo, se guardará sin contribuyente");
-            }
+    public ResultadoDepuracion depurar(List<Hecho> normalizados) {
+        ResultadoDepuracion resultado = new ResultadoDepuracion();
+        if (normalizados == null || normalizados.isEmpty()) return resultado;
 
-            String fp = fingerprintService.calcularFingerprint(h);
-            h.setFingerprint(fp);
+        int lote = Math.max(1, tamanioLote);
+        for (int desde = 0; desde < normalizados.size(); desde += lote) {
+            List<Hecho> chunk = normalizados.subList(desde, Math.min(desde + lote, normalizados.size()));
+            depurarLote(chunk, resultado);
+        }
 
-            Optional<Hecho> existente = hechoRepository.findByFingerprint(fp);
-            if (existente.isPresent()) {
-                Hecho e = existente.get();
-                boolean esInformacionNueva = false;
+        return resultado;
+    }
+
+    private void depurarLote(List<Hecho> lote, ResultadoDepuracion resultado) {
+        resultado.sumarRecibidos(lote.size());
+
+        // 1️⃣ Contribuyente managed + fingerprint de cada hecho del lote
+        Set<String> fingerprints = new LinkedHashSet<>();
+        for (Hecho h : lote) {
+            asignarContribuyenteManaged(h);
+            fingerprints.add(fingerprintService.asignarFingerprint(h));
+        }
+
+        // 2️⃣ Una sola consulta WHERE fingerprint IN (...) para todo el lote
+        Map<String, HechoExistente> existentes = buscarExistentes(fingerprints);
+
+        // 2️⃣b Casi-duplicados de los que no coincidieron exacto: contra la BD y dentro del lote
+        List<Hecho> sinCoincidencia = new ArrayList<>();
+        for (Hecho h : lote) {
+            if (!existentes.containsKey(h.getFingerprint())) sinCoincidencia.add(h);
+        }
+        ResultadoCercanos cercanos = deteccionCercanosService.resolver(sinCoincidencia);
+        agregarCercanos(existentes, cercanos.getExistentes());
+        Map<String, String> alias = cercanos.getAlias();
+
+        // 3️⃣ Merge de fuentes/contador en memoria
+        Map<String, Hecho> nuevos = new LinkedHashMap<>();
+        Map<Long, Integer> incrementos = new HashMap<>();
+        List<Object[]> fuentesNuevas = new ArrayList<>();
+        List<RelacionPendiente> relaciones = new ArrayList<>();
 
-                // Verificar fuentes y agregar solo si son nuevas
-                if (h.getFuentes() != null) {
-                    for (String f : h.getFuentes()) {
-                        // Si la fuente NO estaba en la lista, la agregamos y marcamos novedad
-                        if (!e.getFuentes().contains(f)) {
-                            e.getFuentes().add(f);
-                            esInformacionNueva = true;
-                        }
+        for (Hecho h : lote) {
+            // Un casi-duplicado del lote se agrupa bajo el fingerprint de su representante
+            String fp = alias.getOrDefault(h.getFingerprint(), h.getFingerprint());
+            HechoExistente existente = existentes.get(fp);
+
+            if (existente != null) {
+                resultado.registrarFusionado(existente.id);
+                boolean esInformacionNueva = false;
+                for (String f : fuentesDe(h)) {
+                    // Si la fuente NO estaba en la lista, la agregamos y marcamos novedad
+                    if (existente.fuentes.add(f)) {
+                        fuentesNuevas.add(new Object[]{existente.id, f});
+                        esInformacionNueva = true;
                     }
                 }
-
                 // Solo sumamos credibilidad si apareció una fuente DISTINTA
                 if (esInformacionNueva) {
-                    e.incrementarContador();
-                    log.info("📈 Credibilidad aumentada para hecho '{}'. Nueva fuente detectada.", e.getTitulo());
-                } else {
-                    log.info("🔄 Hecho '{}' ya existente. Misma fuente, no se incrementa contador.", e.getTitulo());
-                    // Opcional: Podrías actualizar la fecha de 'ultimaActualizacion' aquí si quisieras
+                    incrementos.merge(existente.id, 1, Integer::sum);
+                    resultado.registrarReforzado(existente.id);
+                    log.debug("📈 Credibilidad aumentada para hecho {}. Nueva fuente detectada.", existente.id);
+                }
+                if (h.getOrigenArchivoId() != null) {
+                    relaciones.add(new RelacionPendiente(null, existente.id, h.getOrigenArchivoId()));
+                }
+            } else if (nuevos.containsKey(fp)) {
+                // Duplicado dentro del mismo lote: se fusiona con el hecho nuevo que lo precede
+                Hecho primero = nuevos.get(fp);
+                resultado.sumarDuplicadoEnLote();
+                boolean esInformacionNueva = false;
+                for (String f : fuentesDe(h)) {
+                    if (!primero.getFuentes().contains(f)) {
+                        primero.getFuentes().add(f);
+                        esInformacionNueva = true;
+                    }
+                }
+                if (esInformacionNueva) {
+                    primero.incrementarContador();
                 }
-
-                hechoRepository.save(e);
-                
-                // CRÍTICO: Guardar relación N-N si este hecho proviene de un archivo
                 if (h.getOrigenArchivoId() != null) {
-                    guardarRelacionOrigenArchivo(e, h.getOrigenArchivoId());
+                    relaciones.add(new RelacionPendiente(primero, null, h.getOrigenArchivoId()));
                 }
             } else {
                 // Es un hecho totalmente nuevo
                 h.setContador(1);
-                Hecho hechoGuardado = hechoRepository.save(h);
-                
-                // CRÍTICO: Guardar relación N-N si este hecho proviene de un archivo
+                if (h.getFuentes() == null) {
+                    h.setFuentes(new ArrayList<>());
+                }
+                nuevos.put(fp, h);
                 if (h.getOrigenArchivoId() != null) {
-                    guardarRelacionOrigenArchivo(hechoGuardado, h.getOrigenArchivoId());
+                    relaciones.add(new RelacionPendiente(h, null, h.getOrigenArchivoId()));
                 }
             }
         }
 
-        // Devuelve todos los hechos actuales en el repositorio (sin duplicados)
-        return hechoRepository.findAll();
+        // 4️⃣ Escritura: inserts de hechos nuevos + updates/inserts en lote para los existentes
+        asignarLugaresManaged(nuevos.values());
+        List<Hecho> guardados = hechoRepository.saveAll(nuevos.values());
+        for (Hecho guardado : guardados) {
+            resultado.registrarInsertado(guardado.getId());
+        }
+        hechoBatchRepository.incrementarContadores(incrementos);
+        hechoBatchRepository.agregarFuentes(fuentesNuevas);
+        hechoRepository.flush();
+
+        // Firmas MinHash de los nuevos, para que las próximas ingestas los encuentren como candidatos
+        deteccionCercanosService.registrarFirmas(guardados, cercanos.getFirmas());
+
+        // CRÍTICO: Guardar relación N-N para los hechos que provienen de un archivo
+        guardarRelacionesOrigenArchivo(relaciones);
+
+        // Liberar el contexto de persistencia para que la memoria dependa del lote, no del total
+        entityManager.clear();
+
+        log.info("Lote depurado: {} hechos recibidos, {} nuevos, {} existentes reforzados",
+                lote.size(), nuevos.size(), incrementos.size());
+    }
+
+    /**
+     * Usar getReference() para obtener un proxy managed sin hit a BD.
+     * Esto evita el error de "transient instance" porque el proxy ya está managed.
+     */
+    private void asignarContribuyenteManaged(Hecho h) {
+        if (h.getContribuyente() == null || h.isEsAnonimo()) {
+            return;
+        }
+        Long contribuyenteId = h.getContribuyente().getId();
+        if (contribuyenteId == null) {
+            log.warn("⚠️ Hecho '{}' tiene contribuyente pero sin ID. El hecho será guardado sin contribuyente.", h.getTitulo());
+            h.setContribuyente(null);
+            return;
+        }
+        try {
+            Contribuyente contribuyenteManaged = entityManager.getReference(Contribuyente.class, contribuyenteId);
+            h.setContribuyente(contribuyenteManaged);
+            log.debug("✅ Contribuyente managed asignado al hecho - ID: {}", contribuyenteId);
+        } catch (javax.persistence.EntityNotFoundException e) {
+            log.error("❌ Contribuyente con ID {} no encontrado en la base de datos. El hecho será guardado sin contribuyente.",
+                    contribuyenteId);
+            h.setContribuyente(null);
+        }
     }
 
     /**
-     * Guarda la relación N-N entre un hecho y el archivo de origen.
-     * Evita duplicados en la tabla intermedia.
+     * Reemplaza el Lugar transitorio que deja la normalización por el Lugar persistido con la misma
+     * provincia/municipio (lo crea si no existe). Una consulta por lugar distinto del lote.
      */
-    private void guardarRelacionOrigenArchivo(Hecho hecho, Long archivoId) {
-        // Verificar si la relación ya existe
-        boolean yaExiste = hechoOrigenArchivoRepository.existsByHechoIdAndArchivoId(hecho.getId(), archivoId);
-        
-        if (!yaExiste) {
-            HechoOrigenArchivo relacion = new HechoOrigenArchivo(hecho, archivoId);
-            hechoOrigenArchivoRepository.save(relacion);
-            log.info("🔗 Relación guardada: Hecho {} ← Archivo {}", hecho.getId(), archivoId);
-        } else {
-            log.info("ℹ️ Relación Hecho {} ← Archivo {} ya existe, no se duplica", hecho.getId(), archivoId);
+    private void asignarLugaresManaged(Collection<Hecho> hechos) {
+        Map<String, Lugar> lugares = new HashMap<>();
+        for (Hecho h : hechos) {
+            if (h.getUbicacion() == null || h.getUbicacion().getLugar() == null) continue;
+            Lugar lugar = h.getUbicacion().getLugar();
+            if (lugar.getIdLugar() != null) continue;
+            String clave = lugar.getPais() + "|" + lugar.getProvincia() + "|" + lugar.getMunicipio();
+            h.getUbicacion().setLugar(lugares.computeIfAbsent(clave, k -> lugarRepository
+                    .findFirstByPaisAndProvinciaAndMunicipio(lugar.getPais(), lugar.getProvincia(), lugar.getMunicipio())
+                    .orElseGet(() -> lugarRepository.save(lugar))));
         }
     }
 
     /**
-     * Genera fingerprint a partir de título y categoría.
-     * Se pueden agregar más campos si es necesario.
+     * Resuelve los fingerprints del lote contra la BD trayendo solo id y fuentes (sin hidratar el Hecho).
+     */
+    private Map<String, HechoExistente> buscarExistentes(Set<String> fingerprints) {
+        Map<String, HechoExistente> existentes = new HashMap<>();
+        if (fingerprints.isEmpty()) return existentes;
 
-    private String buildFingerprint(Hecho h) {
-        String titulo = safe(h.getTitulo());
-        String categoria = safe(h.getCategoria());
-        return titulo + "::" + categoria;
-    }*/
+        for (Object[] fila : hechoRepository.findIdYFuentesByFingerprintIn(fingerprints)) {
+            Long id = (Long) fila[0];
+            String fp = (String) fila[1];
+            String fuente = (String) fila[2];
+
+            HechoExistente existente = existentes.computeIfAbsent(fp, k -> new HechoExistente(id));
+            if (fuente != null && existente.id.equals(id)) {
+                existente.fuentes.add(fuente);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Suma a {@code existentes} los casi-duplicados encontrados en BD. Se usa una única vista por ID
+     * de hecho, así un mismo hecho alcanzado por fingerprint y por similitud comparte sus fuentes.
+     */
+    private static void agregarCercanos(Map<String, HechoExistente> existentes, Map<String, DatosCandidato> cercanos) {
+        if (cercanos.isEmpty()) return;
+        Map<Long, HechoExistente> porId = new HashMap<>();
+        for (HechoExistente e : existentes.values()) {
+            porId.put(e.id, e);
+        }
+        for (Map.Entry<String, DatosCandidato> e : cercanos.entrySet()) {
+            DatosCandidato candidato = e.getValue();
+            HechoExistente existente = porId.computeIfAbsent(candidato.getId(), id -> {
+                HechoExistente nuevo = new HechoExistente(id);
+                nuevo.fuentes.addAll(candidato.getFuentes());
+                return nuevo;
+            });
+            existentes.put(e.getKey(), existente);
+        }
+    }
+
+    /**
+     * Guarda la relación N-N entre hechos y archivos de origen.
+     * Evita duplicados en la tabla intermedia consultando una sola vez por archivo.
+     */
+    private void guardarRelacionesOrigenArchivo(List<RelacionPendiente> relaciones) {
+        if (relaciones.isEmpty()) return;
+
+        // (hechoId, archivoId) únicos del lote
+        Map<Long, Set<Long>> hechosPorArchivo = new LinkedHashMap<>();
+        Map<Long, Set<Long>> existentesPorArchivo = new HashMap<>();
+        for (RelacionPendiente r : relaciones) {
+            Long hechoId = r.hechoId();
+            if (hechoId == null) continue;
+            hechosPorArchivo.computeIfAbsent(r.archivoId, k -> new LinkedHashSet<>()).add(hechoId);
+            if (r.nuevo == null) {
+                existentesPorArchivo.computeIfAbsent(r.archivoId, k -> new HashSet<>()).add(hechoId);
+            }
+        }
+
+        List<Object[]> aInsertar = new ArrayList<>();
+        for (Map.Entry<Long, Set<Long>> e : hechosPorArchivo.entrySet()) {
+            Long archivoId = e.getKey();
+            // Solo los hechos que ya existían pueden tener la relación guardada de antes
+            Set<Long> candidatos = existentesPorArchivo.getOrDefault(archivoId, Collections.emptySet());
+            Set<Long> yaVinculados = candidatos.isEmpty()
+                    ? Collections.emptySet()
+                    : new HashSet<>(hechoOrigenArchivoRepository.findHechoIdsVinculadosAArchivo(archivoId, candidatos));
+
+            for (Long hechoId : e.getValue()) {
+                if (!yaVinculados.contains(hechoId)) {
+                    aInsertar.add(new Object[]{hechoId, archivoId});
+                }
+            }
+        }
+
+        hechoBatchRepository.insertarRelacionesOrigenArchivo(aInsertar);
+        log.debug("🔗 {} relaciones hecho ← archivo guardadas en lote", aInsertar.size());
+    }
+
+    private static List<String> fuentesDe(Hecho h) {
+        return h.getFuentes() != null ? h.getFuentes() : Collections.emptyList();
+    }
+
+    /**
+     * Vista mínima de un hecho ya persistido: id y fuentes conocidas.
+     */
+    private static final class HechoExistente {
+        private final Long id;
+        private final Set<String> fuentes = new HashSet<>();
+
+        private HechoExistente(Long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Relación hecho ← archivo a guardar al final del lote.
+     * Para hechos nuevos el id recién se conoce después del insert.
+     */
+    private static final class RelacionPendiente {
+        private final Hecho nuevo;
+        private final Long hechoExistenteId;
+        private final Long archivoId;
+
+        private RelacionPendiente(Hecho nuevo, Long hechoExistenteId, Long archivoId) {
+            this.nuevo = nuevo;
+            this.hechoExistenteId = hechoExistenteId;
+            this.archivoId = archivoId;
+        }
+
+        private Long hechoId() {
+            return nuevo != null ? nuevo.getId() : hechoExistenteId;
+        }
+    }
 
-    private String safe(String s) { return s == null ? "" : s; }
 }
@@ -0,0 +1,128 @@
+package com.metamapa.service;
+
+import com.metamapa.repository.FingerprintBackfillRepository;
+import com.metamapa.repository.FingerprintBackfillRepository.FilaFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Backfill de fingerprints: recalcula con {@code FingerprintHecho} los hechos sin fingerprint o con una
+ * versión anterior, fusiona los que resultan duplicados (se queda el de menor id) y al final crea el
+ * índice único sobre hecho.fingerprint si todavía no existe.
+ *
+ * Corre al arrancar el agregador, por páginas de {@code metamapa.fingerprint.backfill.page-size} hechos,
+ * cada página en su propia transacción. Es idempotente: una corrida sin pendientes no escribe nada.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FingerprintBackfillService {
+
+    private static final int MAX_REINTENTOS = 3;
+
+    private final FingerprintBackfillRepository backfillRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${metamapa.fingerprint.backfill.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${metamapa.fingerprint.backfill.page-size:1000}")
+    private int tamanioPagina;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!habilitado) return;
+        try {
+            ejecutar();
+        } catch (RuntimeException e) {
+            log.error("Backfill de fingerprints interrumpido: {}", e.getMessage(), e);
+        }
+    }
+
+    public void ejecutar() {
+        long desdeId = 0;
+        int recalculados = 0;
+        int fusionados = 0;
+
+        while (true) {
+            List<FilaFingerprint> pagina = backfillRepository.buscarDesactualizados(desdeId, tamanioPagina);
+            if (pagina.isEmpty()) break;
+
+            int[] resultado = procesarConReintentos(pagina);
+            recalculados += resultado[0];
+            fusionados += resultado[1];
+            desdeId = pagina.get(pagina.size() - 1).getId();
+        }
+
+        if (recalculados > 0 || fusionados > 0) {
+            log.info("Backfill de fingerprints: {} recalculados, {} duplicados fusionados", recalculados, fusionados);
+        }
+        if (backfillRepository.asegurarIndiceUnico()) {
+            log.info("Índice único sobre hecho.fingerprint creado");
+        }
+    }
+
+    /**
+     * Una ingesta concurrente puede insertar un fingerprint de la página entre la lectura y la escritura;
+     * el índice único lo rechaza y la página se vuelve a resolver contra la BD.
+     */
+    private int[] procesarConReintentos(List<FilaFingerprint> pagina) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> procesarPagina(pagina));
+            } catch (DataIntegrityViolationException e) {
+                if (intento >= MAX_REINTENTOS) throw e;
+                log.warn("Conflicto de fingerprint en backfill (intento {}), reintentando página", intento);
+            }
+        }
+    }
+
+    /**
+     * @return {recalculados, fusionados}
+     */
+    private int[] procesarPagina(List<FilaFingerprint> pagina) {
+        // Se liberan los fingerprints viejos de la página; lo que queda en BD son hechos de fuera de ella
+        backfillRepository.limpiarFingerprints(pagina.stream().map(FilaFingerprint::getId).collect(Collectors.toList()));
+        Map<String, Long> existentes = backfillRepository.buscarIdsPorFingerprint(
+                pagina.stream().map(FilaFingerprint::getFingerprint).collect(Collectors.toSet()));
+
+        // Canónico de cada fingerprint: el menor id entre el que ya lo tiene en BD y los de la página
+        Map<String, Long> canonicos = new HashMap<>(existentes);
+        for (FilaFingerprint fila : pagina) {
+            canonicos.merge(fila.getFingerprint(), fila.getId(), Math::min);
+        }
+
+        int fusionados = 0;
+        for (Map.Entry<String, Long> e : existentes.entrySet()) {
+            long canonico = canonicos.get(e.getKey());
+            if (canonico != e.getValue()) {
+                backfillRepository.fusionar(e.getValue(), canonico);
+                fusionados++;
+            }
+        }
+
+        Map<Long, String> actualizaciones = new LinkedHashMap<>();
+        for (FilaFingerprint fila : pagina) {
+            if (canonicos.get(fila.getFingerprint()) == fila.getId()) {
+                actualizaciones.put(fila.getId(), fila.getFingerprint());
+            } else {
+                backfillRepository.fusionar(fila.getId(), canonicos.get(fila.getFingerprint()));
+                fusionados++;
+            }
+        }
+        backfillRepository.actualizarFingerprints(actualizaciones);
+        return new int[]{actualizaciones.size(), fusionados};
+    }
+}
@@ -4,14 +4,31 @@ import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.hechos.Hecho;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Servicio del agregador para obtener hechos de todas las fuentes registradas.
  * Solo lectura - NO maneja CRUD de fuentes (eso es responsabilidad de gestor-solicitudes)
+ *
+ * Las fuentes se leen en paralelo sobre un pool acotado; el ciclo tarda lo que la fuente más lenta
+ * (como máximo el timeout). Cada fuente tiene su bulkhead: si una lectura anterior sigue colgada,
+ * la fuente se omite en vez de ocupar más hilos del pool.
  */
 @Service
 @Slf4j
@@ -19,29 +36,119 @@ import java.util.List;
 public class FuenteService {
 
     private final ServicioAgregacion servicioAgregacion;
+    private final MarcaSincronizacionService marcaSincronizacionService;
+    private final ThreadPoolTaskExecutor fuentesExecutor;
+
+    @Value("${metamapa.fuentes.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${metamapa.fuentes.max-concurrentes-por-fuente:1}")
+    private int maxConcurrentesPorFuente;
+
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
     
     /**
      * Obtiene todos los hechos de todas las fuentes registradas
-     * Lee desde las fuentes usando sus clientes respectivos
+     * Lee desde las fuentes usando sus clientes respectivos, en paralelo,
+     * y va juntando los resultados a medida que llegan.
      */
     public List<Hecho> obtenerHechosDeTodasLasFuentes() {
         log.info("Obteniendo hechos de todas las fuentes");
         
         List<FuenteDeDatos> fuentes = servicioAgregacion.obtenerTodasLasFuentes();
         List<Hecho> todosLosHechos = new ArrayList<>();
-        
+
+        CompletionService<LecturaFuente> lecturas = new ExecutorCompletionService<>(fuentesExecutor);
+        Map<Future<LecturaFuente>, PeticionFuente> enCurso = new IdentityHashMap<>();
+
         for (FuenteDeDatos fuente : fuentes) {
+            Semaphore bulkhead = bulkheads.computeIfAbsent(fuente.getIdentificador(),
+                    id -> new Semaphore(maxConcurrentesPorFuente));
+            if (!bulkhead.tryAcquire()) {
+                log.warn("Fuente '{}' sigue ocupada con una lectura anterior, se omite en este ciclo",
+                        fuente.getIdentificador());
+                continue;
+            }
+            PeticionFuente peticion = new PeticionFuente(fuente, bulkhead);
             try {
-                log.debug("Obteniendo hechos de fuente: {}", fuente.getIdentificador());
-                List<Hecho> hechosDeFuente = fuente.obtenerHechos();
-                todosLosHechos.addAll(hechosDeFuente);
-                log.info("Obtenidos {} hechos de fuente '{}'", hechosDeFuente.size(), fuente.getIdentificador());
-            } catch (Exception e) {
-                log.error("Error al obtener hechos de fuente '{}': {}", fuente.getIdentificador(), e.getMessage());
+                enCurso.put(lecturas.submit(() -> leer(peticion)), peticion);
+            } catch (TaskRejectedException e) {
+                bulkhead.release();
+                log.error("Pool de lectura de fuentes saturado, se omite la fuente '{}'", fuente.getIdentificador());
+            }
+        }
+
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            while (!enCurso.isEmpty()) {
+                long restante = limite - System.nanoTime();
+                Future<LecturaFuente> lista = restante > 0 ? lecturas.poll(restante, TimeUnit.NANOSECONDS) : null;
+                if (lista == null) break;
+
+                FuenteDeDatos fuente = enCurso.remove(lista).fuente;
+                try {
+                    LecturaFuente lectura = lista.get();
+                    todosLosHechos.addAll(lectura.hechos);
+                    marcaSincronizacionService.publicar(lectura.captura);
+                    log.info("Obtenidos {} hechos de fuente '{}'", lectura.hechos.size(), fuente.getIdentificador());
+                } catch (ExecutionException e) {
+                    log.error("Error al obtener hechos de fuente '{}': {}", fuente.getIdentificador(),
+                            e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Lectura de fuentes interrumpida");
+        }
+
+        // Las que no respondieron a tiempo se abandonan; su marca no avanza
+        for (Map.Entry<Future<LecturaFuente>, PeticionFuente> pendiente : enCurso.entrySet()) {
+            PeticionFuente peticion = pendiente.getValue();
+            pendiente.getKey().cancel(true);
+            if (peticion.iniciada.compareAndSet(false, true)) {
+                // Seguía en la cola: nunca va a correr, así que el permiso se devuelve acá
+                peticion.bulkhead.release();
             }
+            log.error("Timeout ({} ms) al obtener hechos de fuente '{}'", timeoutMs, peticion.fuente.getIdentificador());
         }
         
         log.info("Total de hechos obtenidos de todas las fuentes: {}", todosLosHechos.size());
         return todosLosHechos;
     }
+
+    private LecturaFuente leer(PeticionFuente peticion) throws Exception {
+        if (!peticion.iniciada.compareAndSet(false, true)) {
+            throw new IllegalStateException("Lectura cancelada antes de empezar");
+        }
+        FuenteDeDatos fuente = peticion.fuente;
+        try {
+            log.debug("Obteniendo hechos de fuente: {}", fuente.getIdentificador());
+            MarcaSincronizacionService.Captura captura = new MarcaSincronizacionService.Captura();
+            List<Hecho> hechos = marcaSincronizacionService.ejecutarCapturando(fuente::obtenerHechos, captura);
+            return new LecturaFuente(hechos, captura);
+        } finally {
+            peticion.bulkhead.release();
+        }
+    }
+
+    private static class PeticionFuente {
+        private final FuenteDeDatos fuente;
+        private final Semaphore bulkhead;
+        private final AtomicBoolean iniciada = new AtomicBoolean(false);
+
+        PeticionFuente(FuenteDeDatos fuente, Semaphore bulkhead) {
+            this.fuente = fuente;
+            this.bulkhead = bulkhead;
+        }
+    }
+
+    private static class LecturaFuente {
+        private final List<Hecho> hechos;
+        private final MarcaSincronizacionService.Captura captura;
+
+        LecturaFuente(List<Hecho> hechos, MarcaSincronizacionService.Captura captura) {
+            this.hechos = hechos;
+            this.captura = captura;
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.service.normalizacion.NormalizacionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,9 +18,13 @@ public class IngestaOrquestadorService {
     private final DepuracionService depuracionService;
     private final ServicioAgregacion servicioAgregacion;
     private final FuenteService fuenteService; // obtiene hechos de todas las fuentes
+    private final MarcaSincronizacionService marcaSincronizacionService;
 
     private final Long idColeccion = 1L; // Colección por defecto
 
+    @Value("${metamapa.ingesta.max-rondas:100}")
+    private int maxRondas;
+
     /**
      * Orquesta la ingesta de hechos crudos recibidos manualmente
      */
@@ -36,8 +41,8 @@ public class IngestaOrquestadorService {
         log.info("Normalización completada: {} hechos normalizados", hechosNormalizados.size());
 
         // 2️⃣ Depuración / deduplicación
-        List<Hecho> hechosDepurados = depuracionService.depurar(hechosNormalizados);
-        log.info("Depuración completada: {} hechos únicos", hechosDepurados.size());
+        ResultadoDepuracion resultado = depuracionService.depurar(hechosNormalizados);
+        log.info("Depuración completada: {}", resultado);
 
         // 3️⃣ Persistencia en repositorio en memoria (ya dentro de depuracionService)
 
@@ -47,9 +52,23 @@ public class IngestaOrquestadorService {
     }
 
     /**
-     * Orquesta la ingesta automática desde todas las fuentes
+     * Orquesta la ingesta automática desde todas las fuentes.
+     * Si alguna fuente entrega por lotes y avisó que le quedan, se hacen más rondas en el mismo ciclo
+     * (hasta metamapa.ingesta.max-rondas): cada ronda depura un lote y recién después lo confirma.
      */
     public void procesarHechosDeFuentes() {
+        int ronda = 0;
+        do {
+            ronda++;
+            procesarRonda();
+        } while (marcaSincronizacionService.consumirLotesRestantes() && ronda < maxRondas);
+
+        if (ronda > 1) {
+            log.info("Ingesta completada en {} rondas", ronda);
+        }
+    }
+
+    private void procesarRonda() {
         log.info("Iniciando ingesta desde todas las fuentes");
 
         // 1️⃣ Obtener hechos crudos de todas las fuentes
@@ -57,11 +76,22 @@ public class IngestaOrquestadorService {
         log.info("Se obtuvieron {} hechos crudos de todas las fuentes", hechosCrudos.size());
 
         // 2️⃣Procesar con el flujo estándar
-        if (!hechosCrudos.isEmpty()) {
-            procesarYActualizarColeccion(idColeccion, hechosCrudos);
-        } else {
+        if (hechosCrudos.isEmpty()) {
             log.info("No hay hechos para procesar");
+            marcaSincronizacionService.descartarPendientes();
+            return;
         }
+
+        try {
+            procesarYActualizarColeccion(idColeccion, hechosCrudos);
+        } catch (RuntimeException e) {
+            // Sin confirmar la marca: la próxima corrida vuelve a pedir el mismo delta
+            marcaSincronizacionService.descartarPendientes();
+            throw e;
+        }
+
+        // 3️⃣ Recién ahora avanzan las marcas de sincronización incremental
+        marcaSincronizacionService.confirmarPendientes();
     }
 }
 
@@ -0,0 +1,175 @@
+package com.metamapa.service;
+
+import com.metamapa.entities.MarcaSincronizacionFuente;
+import com.metamapa.repository.MarcaSincronizacionFuenteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maneja las marcas de sincronización incremental por fuente.
+ * Los clientes registran la marca como "pendiente" al recibir un delta; recién se persiste
+ * cuando la depuración terminó bien. Si algo falla se descarta y la próxima corrida repite el mismo delta.
+ *
+ * Lo mismo vale para las confirmaciones (acks) de fuentes que entregan por lotes: se ejecutan
+ * recién al confirmar, así un lote no depurado vuelve a pedirse.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MarcaSincronizacionService {
+
+    private final MarcaSincronizacionFuenteRepository marcaRepository;
+
+    private final Map<String, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+    private final List<Runnable> confirmacionesPendientes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean lotesRestantes = new AtomicBoolean(false);
+
+    // Marcas de la lectura en curso de este hilo (ver ejecutarCapturando)
+    private final ThreadLocal<Captura> capturaActual = new ThreadLocal<>();
+
+    /**
+     * Marca confirmada de la fuente, o vacío si nunca se sincronizó (se pide todo).
+     */
+    public Optional<LocalDateTime> obtenerMarca(String identificadorFuente) {
+        return marcaRepository.findByIdentificadorFuente(identificadorFuente)
+                .map(MarcaSincronizacionFuente::getUltimaActualizacion);
+    }
+
+    /**
+     * Registra la mayor ultimaActualizacion recibida de una fuente en esta corrida.
+     */
+    public void registrarPendiente(String identificadorFuente, LocalDateTime ultimaActualizacion) {
+        if (ultimaActualizacion == null) return;
+        Captura captura = capturaActual.get();
+        Map<String, LocalDateTime> destino = captura != null ? captura.marcas : pendientes;
+        destino.merge(identificadorFuente, ultimaActualizacion, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando la ingesta se confirme (p. ej. el ack de un lote).
+     * Si la corrida falla se descarta y la fuente vuelve a entregar el mismo lote.
+     */
+    public void registrarConfirmacion(String identificadorFuente, Runnable confirmacion) {
+        Captura captura = capturaActual.get();
+        if (captura != null) {
+            captura.confirmaciones.add(confirmacion);
+        } else {
+            confirmacionesPendientes.add(confirmacion);
+        }
+        log.debug("Confirmación pendiente registrada para '{}'", identificadorFuente);
+    }
+
+    /**
+     * La fuente entregó un lote y puede tener más: el orquestador hace otra ronda en vez de esperar al próximo ciclo.
+     */
+    public void registrarLotesRestantes(String identificadorFuente) {
+        Captura captura = capturaActual.get();
+        if (captura != null) {
+            captura.lotesRestantes = true;
+        } else {
+            lotesRestantes.set(true);
+        }
+    }
+
+    /**
+     * Devuelve si alguna fuente avisó que le quedan lotes desde la última consulta, y resetea el aviso.
+     */
+    public boolean consumirLotesRestantes() {
+        return lotesRestantes.getAndSet(false);
+    }
+
+    /**
+     * Ejecuta una lectura juntando en {@code destino} lo que registre (marcas, confirmaciones),
+     * sin publicarlo como pendiente. Quien lee en paralelo lo publica con {@link #publicar(Captura)}
+     * solo si acepta el resultado: una lectura que venció su timeout no debe adelantar la marca de su fuente.
+     */
+    public <T> T ejecutarCapturando(Callable<T> lectura, Captura destino) throws Exception {
+        capturaActual.set(destino);
+        try {
+            return lectura.call();
+        } finally {
+            capturaActual.remove();
+        }
+    }
+
+    /**
+     * Publica como pendiente lo capturado por una lectura aceptada.
+     */
+    public void publicar(Captura captura) {
+        captura.marcas.forEach(this::registrarPendiente);
+        confirmacionesPendientes.addAll(captura.confirmaciones);
+        if (captura.lotesRestantes) {
+            lotesRestantes.set(true);
+        }
+    }
+
+    /**
+     * Persiste las marcas pendientes. Llamar solo después de una depuración exitosa.
+     */
+    @Transactional
+    public void confirmarPendientes() {
+        Map<String, LocalDateTime> aConfirmar = new HashMap<>(pendientes);
+        pendientes.keySet().removeAll(aConfirmar.keySet());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Map.Entry<String, LocalDateTime> e : aConfirmar.entrySet()) {
+            MarcaSincronizacionFuente marca = marcaRepository.findByIdentificadorFuente(e.getKey())
+                    .orElseGet(() -> new MarcaSincronizacionFuente(e.getKey()));
+            if (marca.getUltimaActualizacion() == null || e.getValue().isAfter(marca.getUltimaActualizacion())) {
+                marca.setUltimaActualizacion(e.getValue());
+            }
+            marca.setFechaUltimaSincronizacion(ahora);
+            marcaRepository.save(marca);
+            log.info("Marca de sincronización de '{}' avanzada a {}", e.getKey(), marca.getUltimaActualizacion());
+        }
+
+        List<Runnable> confirmaciones = new ArrayList<>(confirmacionesPendientes);
+        confirmacionesPendientes.removeAll(confirmaciones);
+        for (Runnable confirmacion : confirmaciones) {
+            try {
+                confirmacion.run();
+            } catch (RuntimeException e) {
+                // Sin ack la fuente re-entrega el lote; la depuración es idempotente por fingerprint
+                log.warn("No se pudo confirmar un lote a su fuente: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Descarta las marcas pendientes (la ingesta falló o no se procesó nada).
+     */
+    public void descartarPendientes() {
+        if (!pendientes.isEmpty()) {
+            log.warn("Descartando marcas de sincronización sin confirmar: {}", pendientes.keySet());
+        }
+        pendientes.clear();
+        confirmacionesPendientes.clear();
+        lotesRestantes.set(false);
+    }
+
+    /**
+     * Lo registrado por una lectura en curso, todavía sin publicar.
+     */
+    public static class Captura {
+        private final Map<String, LocalDateTime> marcas = new HashMap<>();
+        private final List<Runnable> confirmaciones = new ArrayList<>();
+        private boolean lotesRestantes;
+
+        public Map<String, LocalDateTime> getMarcas() {
+            return marcas;
+        }
+    }
+}
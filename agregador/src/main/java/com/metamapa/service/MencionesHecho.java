@@ -0,0 +1,15 @@
+package com.metamapa.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fila ID-only de la hidratación de una colección: un hecho y cuántas de las fuentes
+ * seleccionadas lo mencionan.
+ */
+@Getter
+@AllArgsConstructor
+public class MencionesHecho {
+    private final Long idHecho;
+    private final int menciones;
+}
@@ -0,0 +1,42 @@
+package com.metamapa.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resumen compacto de una corrida de depuración.
+ * Solo guarda IDs y contadores: su tamaño depende del lote ingerido, no del total de hechos en BD.
+ */
+@Getter
+public class ResultadoDepuracion {
+
+    private int hechosRecibidos;
+    private int duplicadosEnLote;                                  // repetidos dentro de la misma ingesta
+    private final List<Long> idsInsertados = new ArrayList<>();    // hechos nuevos
+    private final Set<Long> idsFusionados = new LinkedHashSet<>(); // hechos existentes que volvieron a llegar
+    private final Set<Long> idsReforzados = new LinkedHashSet<>(); // existentes con al menos una fuente nueva
+
+    void sumarRecibidos(int cantidad) { this.hechosRecibidos += cantidad; }
+    void sumarDuplicadoEnLote() { this.duplicadosEnLote++; }
+    void registrarInsertado(Long id) { if (id != null) idsInsertados.add(id); }
+    void registrarFusionado(Long id) { idsFusionados.add(id); }
+    void registrarReforzado(Long id) { idsReforzados.add(id); }
+
+    public int cantidadInsertados() { return idsInsertados.size(); }
+    public int cantidadFusionados() { return idsFusionados.size(); }
+    public int cantidadReforzados() { return idsReforzados.size(); }
+
+    public boolean huboCambios() {
+        return !idsInsertados.isEmpty() || !idsReforzados.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("recibidos=%d, insertados=%d, fusionados=%d, reforzados=%d, duplicadosEnLote=%d",
+                hechosRecibidos, cantidadInsertados(), cantidadFusionados(), cantidadReforzados(), duplicadosEnLote);
+    }
+}
@@ -4,40 +4,69 @@ import com.metamapa.dto.CrearColeccionDTO;
 import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.MetodoDeNavegacion;
 import com.metamapa.entities.rol.Contribuyente;
-import com.metamapa.entities.colecciones.ColeccionFuente;
 import com.metamapa.entities.colecciones.ColeccionHecho;
+import com.metamapa.repository.ColeccionFuenteRepository;
+import com.metamapa.repository.ColeccionHechoBatchRepository;
+import com.metamapa.repository.ColeccionHechoRepository;
 import com.metamapa.repository.ColeccionRepository;
 import com.metamapa.repository.HechoRepository;
+import com.metamapa.repository.FiltroCriteriosSql;
+import com.metamapa.repository.HidratacionColeccionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.metamapa.entities.colecciones.AlgoritmoDeConsenso;
 import com.metamapa.entities.colecciones.Coleccion;
 import com.metamapa.entities.colecciones.Absoluta;
 import com.metamapa.entities.colecciones.MayoriaSimple;
 import com.metamapa.entities.colecciones.MultiplesMenciones;
 import com.metamapa.entities.colecciones.PorDefecto;
+import com.metamapa.entities.criterioDePertenencia.Criterio;
+import com.metamapa.entities.criterioDePertenencia.CriterioCategoria;
+import com.metamapa.entities.criterioDePertenencia.CriterioCompuesto;
+import com.metamapa.entities.criterioDePertenencia.CriterioTitulo;
 import com.metamapa.entities.hechos.Hecho;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ServicioAgregacion {
     
-    private final Map<Long, Coleccion> colecciones = new HashMap<>();
-    private final Map<String, FuenteDeDatos> fuentes = new HashMap<>();
+    // Registro en memoria: consenso publicado por colección (ID de hecho → consensuado), recién refrescado
+    // y ya confirmado en BD (ver publicarColeccion). Solo IDs: los hechos se cargan al leerlos
+    private final Map<Long, Map<Long, Boolean>> colecciones = new ConcurrentHashMap<>();
+    private final Map<String, FuenteDeDatos> fuentes = new ConcurrentHashMap<>();
+    // Un refresco a la vez por colección (scheduler e ingesta pueden coincidir)
+    private final Map<Long, Object> locksPorColeccion = new ConcurrentHashMap<>();
     private final ColeccionRepository coleccionRepository;
     private final HechoRepository hechoRepository;
+    private final ColeccionHechoRepository coleccionHechoRepository;
+    private final ColeccionFuenteRepository coleccionFuenteRepository;
+    private final ColeccionHechoBatchRepository coleccionHechoBatchRepository;
+    private final ConsensoIncrementalService consensoIncrementalService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor coleccionesExecutor;
+    private final HidratacionColeccionRepository hidratacionColeccionRepository;
+
+    @Value("${metamapa.agregacion.hidratacion.page-size:5000}")
+    private int tamanioPaginaHidratacion;
     
     public void registrarFuente(FuenteDeDatos fuente) {
         fuentes.put(fuente.getIdentificador(), fuente);
@@ -45,12 +74,18 @@ public class ServicioAgregacion {
     }
     
     /**
-     * Registra una colección en el mapa en memoria del agregador.
+     * Registra el consenso de una colección en el mapa en memoria del agregador.
      * NOTA: La creación de colecciones es responsabilidad de gestor-solicitudes.
      * El agregador solo lee y actualiza colecciones existentes.
      */
     public void registrarColeccion(Coleccion coleccion) {
-        colecciones.put(coleccion.getIdentificador(), coleccion);
+        Map<Long, Boolean> consenso = new HashMap<>();
+        for (Map.Entry<Hecho, Boolean> entry : coleccion.getHechos().entrySet()) {
+            if (entry.getKey().getId() != null) {
+                consenso.put(entry.getKey().getId(), Boolean.TRUE.equals(entry.getValue()));
+            }
+        }
+        colecciones.put(coleccion.getIdentificador(), Collections.unmodifiableMap(consenso));
         log.info("Colección registrada en memoria: {}", coleccion.getIdentificador());
     }
     
@@ -79,272 +114,217 @@ public class ServicioAgregacion {
 
     /**
      * Actualiza los hechos de una colección ejecutando:
-     * 1. Carga de fuentes desde entidades persistentes
-     * 2. Filtrado de hechos por criterios
-     * 3. Ejecución del algoritmo de consenso
-     * 4. Persistencia de resultados
+     * 1. Carga de fuentes seleccionadas y algoritmo (proyecciones, sin cargar la colección)
+     * 2. Hidratación ID-only de los hechos de esas fuentes
+     * 3. Ejecución incremental del algoritmo de consenso (solo hechos cuyas fuentes cambiaron)
+     * 4. Persistencia de resultados (solo altas, bajas y flags que cambiaron, en lote)
+     * 5. Publicación del consenso refrescado (solo IDs y flags) en el registro en memoria
+     * Cada colección se refresca en su propia transacción y nunca dos veces en paralelo.
      */
-    @Transactional
     public void actualizarHechosEnColeccion(Long identificadorColeccion) {
-        // Cargar colección con JOIN FETCH para evitar LazyInitializationException
-        Coleccion coleccion = coleccionRepository.findByIdWithFuentes(identificadorColeccion)
-                .orElse(colecciones.get(identificadorColeccion));
-        
-        if (coleccion != null) {
-            log.debug("Actualizando hechos para colección {}", identificadorColeccion);
-            
-            // Obtener hechos desde BD en lugar de llamar a fuentes externas
-            List<Hecho> hechosDesdeDB = obtenerHechosDesdeBD(coleccion);
-            log.info("Obtenidos {} hechos desde BD para colección {}", 
-                    hechosDesdeDB.size(), identificadorColeccion);
-            
-            // Actualizar hechos de la colección con los de BD
-            coleccion.actualizarHechosDesdeListaPersistida(hechosDesdeDB);
-            
-            log.debug("Ejecutando algoritmo de consenso para colección {}", identificadorColeccion);
-            coleccion.ejecutarAlgoritmoDeConsenso();
-            
-            // Sincronizar hechos del Map transitorio a entidades persistentes
-            sincronizarHechosPersistentes(coleccion);
-            
-            // Persistir cambios en BD
-            coleccionRepository.save(coleccion);
-            
-            // También actualizar el mapa en memoria para compatibilidad
-            colecciones.put(identificadorColeccion, coleccion);
-            
-            log.info("Hechos actualizados en colección {}: {} hechos totales, {} consensuados", 
-                    identificadorColeccion, coleccion.verHechos().size(), 
-                    coleccion.cantidadHechosConsensuados());
-        } else {
-            log.warn("No se encontró la colección {} para actualizar", identificadorColeccion);
+        Object lock = locksPorColeccion.computeIfAbsent(identificadorColeccion, id -> new Object());
+        synchronized (lock) {
+            Map<Long, Boolean> consenso = transactionTemplate.execute(status -> refrescarColeccion(identificadorColeccion));
+            publicarColeccion(identificadorColeccion, consenso);
         }
     }
     
     /**
-     * Reemplaza los hechos transitorios (de las fuentes) con las versiones persistidas en BD
-     * Usa el fingerprint para encontrar el hecho correspondiente en la BD
+     * Reemplaza en el registro el consenso recién confirmado de la colección;
+     * si ya no existe o quedó oculta (consenso null), la saca.
      */
-    private void reemplazarHechosConVersionesPersistidas(Coleccion coleccion) {
-        Map<Hecho, Boolean> hechosActualizados = new HashMap<>();
-        
-        for (Map.Entry<Hecho, Boolean> entry : coleccion.getHechos().entrySet()) {
-            Hecho hechoTransitorio = entry.getKey();
-            Boolean consensuado = entry.getValue();
-            
-            // Calcular el fingerprint si no lo tiene (hechos transitorios de fuentes)
-            String fingerprint = hechoTransitorio.getFingerprint();
-            if (fingerprint == null) {
-                fingerprint = buildFingerprint(hechoTransitorio);
-                hechoTransitorio.setFingerprint(fingerprint);
-            }
-            
-            // Buscar el hecho persistido por fingerprint
-            Optional<Hecho> hechoPersistido = hechoRepository.findByFingerprint(fingerprint);
-            if (hechoPersistido.isPresent()) {
-                // Reemplazar con la versión persistida (que tiene ID)
-                hechosActualizados.put(hechoPersistido.get(), consensuado);
-            } else {
-                log.warn("Hecho con fingerprint '{}' no encontrado en BD: '{}'", 
-                    fingerprint, hechoTransitorio.getTitulo());
-            }
+    private void publicarColeccion(Long identificadorColeccion, Map<Long, Boolean> consenso) {
+        if (consenso == null) {
+            colecciones.remove(identificadorColeccion);
+        } else {
+            colecciones.put(identificadorColeccion, Collections.unmodifiableMap(consenso));
         }
-        
-        // Reemplazar el Map completo
-        coleccion.getHechos().clear();
-        coleccion.getHechos().putAll(hechosActualizados);
-        
-        log.info("Reemplazados {} hechos transitorios con versiones persistidas", hechosActualizados.size());
     }
     
     /**
-     * Construye el fingerprint de un hecho (mismo formato que DepuracionService)
+     * @return consenso vigente de la colección (ID de hecho → consensuado), o null si no existe o está oculta
      */
-    private String buildFingerprint(Hecho h) {
-        String titulo = h.getTitulo() != null ? h.getTitulo() : "";
-        String categoria = h.getCategoria() != null ? h.getCategoria() : "";
-        return titulo + "::" + categoria;
+    private Map<Long, Boolean> refrescarColeccion(Long identificadorColeccion) {
+        Optional<Boolean> oculta = coleccionRepository.findOcultaById(identificadorColeccion);
+        if (!oculta.isPresent()) {
+            log.warn("No se encontró la colección {} para actualizar", identificadorColeccion);
+            return null;
+        }
+        log.debug("Actualizando hechos para colección {}", identificadorColeccion);
+        
+        // Obtener hechos desde BD (solo IDs y menciones) en lugar de llamar a fuentes externas
+        Set<String> fuentesSeleccionadas = new HashSet<>(
+                coleccionFuenteRepository.findIdentificadoresFuenteByColeccionId(identificadorColeccion));
+        List<MencionesHecho> hechosDesdeDB = obtenerHechosDesdeBD(identificadorColeccion, fuentesSeleccionadas);
+        log.info("Obtenidos {} hechos desde BD para colección {}", 
+                hechosDesdeDB.size(), identificadorColeccion);
+        
+        log.debug("Ejecutando algoritmo de consenso para colección {}", identificadorColeccion);
+        AlgoritmoDeConsenso algoritmo = coleccionRepository.findAlgoritmoDeConsensoById(identificadorColeccion)
+                .orElse(null);
+        Map<Long, Boolean> consensoPersistido = new HashMap<>();
+        for (Object[] fila : coleccionHechoRepository.findIdHechoYConsensuadoByColeccionId(identificadorColeccion)) {
+            consensoPersistido.put((Long) fila[0], Boolean.TRUE.equals(fila[1]));
+        }
+        try {
+            Map<Long, Boolean> cambios = consensoIncrementalService.evaluar(identificadorColeccion,
+                    algoritmo, fuentesSeleccionadas, hechosDesdeDB, consensoPersistido);
+            log.debug("Consenso colección {}: {} flags nuevos o modificados", identificadorColeccion, cambios.size());
+            
+            // Persistir solo las diferencias contra coleccion_hecho
+            Map<Long, Boolean> vigente = consensoIncrementalService.consensoVigente(identificadorColeccion);
+            sincronizarHechosPersistentes(identificadorColeccion, vigente, consensoPersistido);
+            
+            log.info("Hechos actualizados en colección {}: {} hechos totales, {} consensuados", 
+                    identificadorColeccion, vigente.size(),
+                    vigente.values().stream().filter(Boolean::booleanValue).count());
+            return oculta.get() ? null : vigente;
+        } catch (RuntimeException e) {
+            // Si la transacción se revierte, el estado en memoria del motor ya no coincide con la BD
+            consensoIncrementalService.invalidar(identificadorColeccion);
+            throw e;
+        }
     }
     
     /**
      * Obtiene los hechos desde BD filtrando por las fuentes de la colección
      * IMPORTANTE: Solo incluye hechos que pertenecen a AL MENOS UNA de las fuentes seleccionadas
+     * y que cumplen los criterios de la colección (traducidos a SQL, ver FiltroCriteriosSql).
+     * Una sola consulta (paginada por keyset) sobre hecho_fuentes: trae IDs y menciones, no entidades.
      */
-    private List<Hecho> obtenerHechosDesdeBD(Coleccion coleccion) {
-        Set<String> fuentesSeleccionadas = coleccion.getFuentesPersistentes().stream()
-                .map(ColeccionFuente::getIdentificadorFuente)
-                .collect(java.util.stream.Collectors.toSet());
+    private List<MencionesHecho> obtenerHechosDesdeBD(Long identificadorColeccion, Set<String> fuentesSeleccionadas) {
+        List<MencionesHecho> hechos = new ArrayList<>();
         
         if (fuentesSeleccionadas.isEmpty()) {
-            log.warn("Colección {} no tiene fuentes seleccionadas", coleccion.getIdentificador());
-            return new ArrayList<>();
+            log.warn("Colección {} no tiene fuentes seleccionadas", identificadorColeccion);
+            return hechos;
         }
         
-        Set<Hecho> hechosUnicos = new HashSet<>();
+        FiltroCriteriosSql filtro = FiltroCriteriosSql.de(
+                hidratacionColeccionRepository.buscarCriterios(identificadorColeccion));
         
-        for (String identificadorFuente : fuentesSeleccionadas) {
-            List<Hecho> hechosDeFuente = hechoRepository.findByFuente(identificadorFuente);
-            hechosUnicos.addAll(hechosDeFuente);
-            log.debug("Encontrados {} hechos de fuente '{}' en BD", 
-                    hechosDeFuente.size(), identificadorFuente);
-        }
+        long desdeId = 0L;
+        List<Object[]> pagina;
+        do {
+            pagina = hidratacionColeccionRepository.buscarMenciones(fuentesSeleccionadas, filtro, desdeId, tamanioPaginaHidratacion);
+            for (Object[] fila : pagina) {
+                Long idHecho = ((Number) fila[0]).longValue();
+                desdeId = idHecho;
+                // Criterios que no se pueden expresar en SQL (ubicación)
+                if (!filtro.cumpleResiduales((Double) fila[2], (Double) fila[3])) continue;
+                hechos.add(new MencionesHecho(idHecho, ((Number) fila[1]).intValue()));
+            }
+        } while (pagina.size() == tamanioPaginaHidratacion);
         
-        log.info("Total de {} hechos únicos obtenidos de {} fuentes para colección {}", 
-                hechosUnicos.size(), fuentesSeleccionadas.size(), coleccion.getIdentificador());
+        log.info("Total de {} hechos únicos obtenidos de {} fuentes para colección {}{}", 
+                hechos.size(), fuentesSeleccionadas.size(), identificadorColeccion,
+                filtro.getCondicion().isEmpty() ? "" : " (filtrados por criterios)");
         
-        return new ArrayList<>(hechosUnicos);
+        return hechos;
     }
 
 
     /**
-     * Reconstruye la lista transitoria de fuentes desde las entidades persistentes
+     * Sincroniza el consenso vigente con la tabla coleccion_hecho aplicando solo el diff:
+     * pares (coleccion, hecho) nuevos, eliminados y con flag cambiado, en lote (JDBC batch).
+     * El volumen de escritura es proporcional a lo que cambió, no al tamaño de la colección.
+     *
+     * @param deseados    ID de hecho → consensuado, tal como debe quedar la colección
+     * @param persistidos ID de hecho → consensuado, tal como está hoy en BD
      */
-    private void cargarFuentesTransitorias(Coleccion coleccion) {
-        coleccion.getFuentes().clear();
-        
-        for (ColeccionFuente cf : coleccion.getFuentesPersistentes()) {
-            String identificadorFuente = cf.getIdentificadorFuente();
-            FuenteDeDatos fuente = fuentes.get(identificadorFuente);
-            
-            if (fuente != null) {
-                coleccion.getFuentes().add(fuente);
-                log.debug("Fuente '{}' cargada para colección {}", identificadorFuente, coleccion.getIdentificador());
-            } else {
-                log.warn("Fuente '{}' no encontrada en el registro de fuentes activas", identificadorFuente);
+    private void sincronizarHechosPersistentes(Long identificadorColeccion, Map<Long, Boolean> deseados,
+                                               Map<Long, Boolean> persistidos) {
+        Map<Long, Boolean> altas = new HashMap<>();
+        Map<Long, Boolean> flagsCambiados = new HashMap<>();
+        for (Map.Entry<Long, Boolean> entry : deseados.entrySet()) {
+            Boolean actual = persistidos.get(entry.getKey());
+            if (actual == null) {
+                altas.put(entry.getKey(), entry.getValue());
+            } else if (!actual.equals(entry.getValue())) {
+                flagsCambiados.put(entry.getKey(), entry.getValue());
             }
         }
         
-        log.debug("Cargadas {} fuentes para colección {}", 
-                coleccion.getFuentes().size(), coleccion.getIdentificador());
-    }
-    
-    /**
-     * Sincroniza los hechos del Map transitorio con las entidades persistentes ColeccionHecho
-     * IMPORTANTE: Recarga los hechos desde BD para evitar TransientPropertyValueException
-     */
-    private void sincronizarHechosPersistentes(Coleccion coleccion) {
-        // Limpiar lista de hechos persistentes
-        coleccion.getHechosPersistentes().clear();
-        
-        // Agregar todos los hechos del Map como entidades ColeccionHecho
-        for (Map.Entry<Hecho, Boolean> entry : coleccion.getHechos().entrySet()) {
-            Hecho hechoTransitorio = entry.getKey();
-            Boolean consensuado = entry.getValue();
-            
-            // Validar que el hecho tenga ID (está persistido en BD)
-            if (hechoTransitorio.getId() == null) {
-                log.warn("Hecho sin ID encontrado (no persistido): '{}', se omite de la colección {}", 
-                        hechoTransitorio.getTitulo(), coleccion.getIdentificador());
-                continue;
-            }
-            
-            // Recargar el hecho desde la BD para que esté en el contexto de persistencia
-            Hecho hechoPersistente = hechoRepository.findById(hechoTransitorio.getId())
-                    .orElse(null);
-            
-            if (hechoPersistente != null) {
-                ColeccionHecho ch = new ColeccionHecho(coleccion, hechoPersistente, consensuado);
-                coleccion.getHechosPersistentes().add(ch);
-            } else {
-                log.warn("Hecho con ID {} no encontrado en BD, se omite de la colección {}", 
-                        hechoTransitorio.getId(), coleccion.getIdentificador());
+        List<Long> bajas = new ArrayList<>();
+        for (Long idHecho : persistidos.keySet()) {
+            if (!deseados.containsKey(idHecho)) {
+                bajas.add(idHecho);
             }
         }
         
-        log.debug("Sincronizados {} hechos a entidades persistentes para colección {}", 
-                coleccion.getHechosPersistentes().size(), coleccion.getIdentificador());
+        coleccionHechoBatchRepository.eliminar(identificadorColeccion, bajas);
+        coleccionHechoBatchRepository.actualizarConsensuados(identificadorColeccion, flagsCambiados);
+        coleccionHechoBatchRepository.insertar(identificadorColeccion, altas);
+        
+        log.debug("Sincronizada colección {}: {} altas, {} bajas, {} flags cambiados", 
+                identificadorColeccion, altas.size(), bajas.size(), flagsCambiados.size());
     }
     
     public List<Hecho> obtenerHechosDeColeccion(Long identificadorColeccion, MetodoDeNavegacion modo) {
-        Coleccion coleccion = colecciones.get(identificadorColeccion);
-        if (coleccion != null) {
-            return coleccion.obtenerHechosSegunModo(modo);
+        Map<Long, Boolean> consenso = colecciones.get(identificadorColeccion);
+        if (consenso == null) {
+            return new ArrayList<>();
+        }
+        if (modo != MetodoDeNavegacion.CURADA) {
+            return cargarHechos(consenso.keySet());
+        }
+        List<Long> consensuados = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> entry : consenso.entrySet()) {
+            if (entry.getValue()) consensuados.add(entry.getKey());
         }
-        return new ArrayList<>();
+        return cargarHechos(consensuados);
     }
     
     public List<Hecho> filtrarHechosPorCriterios(Long identificadorColeccion, String categoria, 
                                                  String titulo, boolean soloRecientes) {
-        Coleccion coleccion = colecciones.get(identificadorColeccion);
-        if (coleccion == null) {
+        Map<Long, Boolean> consenso = colecciones.get(identificadorColeccion);
+        if (consenso == null) {
             return new ArrayList<>();
         }
         
-        List<Hecho> hechos = coleccion.verHechos();
-        
+        // Un solo predicado compilado (categoría antes que título) y una sola pasada
+        List<Criterio> criterios = new ArrayList<>();
         if (categoria != null && !categoria.isEmpty()) {
-            hechos = hechos.stream()
-                    .filter(h -> h.getCategoria() != null && h.getCategoria().equalsIgnoreCase(categoria))
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            criterios.add(new CriterioCategoria(categoria));
         }
-        
         if (titulo != null && !titulo.isEmpty()) {
-            hechos = hechos.stream()
-                    .filter(h -> h.getTitulo() != null && h.getTitulo().toLowerCase().contains(titulo.toLowerCase()))
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            criterios.add(new CriterioTitulo(titulo));
         }
-        
         if (soloRecientes) {
-            hechos = hechos.stream()
-                    .filter(Hecho::esReciente)
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            criterios.add(Hecho::esReciente);
+        }
+        CriterioCompuesto filtro = CriterioCompuesto.de(criterios);
+
+        List<Hecho> hechos = new ArrayList<>();
+        for (Hecho h : cargarHechos(consenso.keySet())) {
+            if (filtro.cumpleCriterio(h)) hechos.add(h);
         }
-        
         return hechos;
     }
     
-    public List<Coleccion> obtenerTodasLasColecciones() {
-        return new ArrayList<>(colecciones.values());
+    /**
+     * Consenso publicado de una colección (ID de hecho → consensuado), o null si no está en el registro.
+     */
+    public Map<Long, Boolean> obtenerConsensoDeColeccion(Long identificador) {
+        return colecciones.get(identificador);
     }
     
     /**
-     * Obtiene todas las colecciones con los hechos e inicializa las etiquetas
-     * cargándolas desde la BD con JOIN FETCH para evitar LazyInitializationException
+     * Carga los hechos por ID de a páginas; no quedan retenidos en el registro.
      */
-    @Transactional(readOnly = true)
-    public List<Coleccion> obtenerTodasLasColeccionesConEtiquetas() {
-        List<Coleccion> todasColecciones = new ArrayList<>(colecciones.values());
-        
-        // Para cada colección, cargar los hechos con etiquetas desde la BD
-        for (Coleccion coleccion : todasColecciones) {
-            List<Hecho> hechos = coleccion.verHechos();
-            if (!hechos.isEmpty()) {
-                // Obtener los IDs de los hechos
-                List<Long> hechoIds = hechos.stream()
-                        .map(Hecho::getId)
-                        .filter(id -> id != null)
-                        .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-                
-                if (!hechoIds.isEmpty()) {
-                    // Cargar hechos con etiquetas desde la BD
-                    List<Hecho> hechosConEtiquetas = hechoRepository.findByIdsWithEtiquetas(hechoIds);
-                    
-                    // Crear un mapa para acceso rápido
-                    Map<Long, Hecho> hechoMap = new HashMap<>();
-                    for (Hecho h : hechosConEtiquetas) {
-                        hechoMap.put(h.getId(), h);
-                    }
-                    
-                    // Reemplazar los hechos en la colección con los que tienen etiquetas cargadas
-                    for (int i = 0; i < hechos.size(); i++) {
-                        Hecho hechoOriginal = hechos.get(i);
-                        if (hechoOriginal.getId() != null && hechoMap.containsKey(hechoOriginal.getId())) {
-                            hechos.set(i, hechoMap.get(hechoOriginal.getId()));
-                        }
-                    }
-                }
-            }
+    private List<Hecho> cargarHechos(Collection<Long> ids) {
+        List<Long> pendientes = new ArrayList<>(ids);
+        List<Hecho> hechos = new ArrayList<>(pendientes.size());
+        for (int desde = 0; desde < pendientes.size(); desde += tamanioPaginaHidratacion) {
+            int hasta = Math.min(pendientes.size(), desde + tamanioPaginaHidratacion);
+            hechos.addAll(hechoRepository.findAllById(pendientes.subList(desde, hasta)));
         }
-        
-        return todasColecciones;
-    }
-    
-    public Coleccion obtenerColeccion(Long identificador) {
-        return colecciones.get(identificador);
+        return hechos;
     }
     
     public void eliminarColeccion(Long identificador) {
         colecciones.remove(identificador);
+        consensoIncrementalService.invalidar(identificador);
         log.info("Colección eliminada: {}", identificador);
     }
     
@@ -356,47 +336,41 @@ public class ServicioAgregacion {
         return fuentes.get(identificador);
     }
     
-    public boolean agregarFuenteAColeccion(Long identificadorColeccion, String idFuente) {
-        Coleccion coleccion = colecciones.get(identificadorColeccion);
-        FuenteDeDatos fuente = fuentes.get(idFuente);
-        if (coleccion != null && fuente != null) {
-            List<FuenteDeDatos> fuentesColeccion = coleccion.getFuentes();
-            if (!fuentesColeccion.contains(fuente)) {
-                fuentesColeccion.add(fuente);
-                return true;
-            }
-        }
-        return false;
-    }
-    
     /**
      * Actualiza todas las colecciones registradas
      * MEJORA: Detecta colecciones nuevas o modificadas desde la BD
      */
     public void actualizarTodasLasColecciones() {
-        // Obtener todas las colecciones visibles (no ocultas) desde BD
-        List<Coleccion> coleccionesEnBD = coleccionRepository.findAll().stream()
-                .filter(c -> !c.isOculta())
-                .collect(java.util.stream.Collectors.toList());
+        // Solo los IDs de las colecciones visibles (no ocultas): nunca se instancia la colección
+        List<Long> idsEnBD = coleccionRepository.findIdentificadoresVisibles();
         
-        log.info("Iniciando actualización de {} colecciones desde BD", coleccionesEnBD.size());
+        log.info("Iniciando actualización de {} colecciones desde BD", idsEnBD.size());
         
-        // Actualizar el mapa en memoria con las colecciones de BD
-        colecciones.clear();
-        for (Coleccion col : coleccionesEnBD) {
-            colecciones.put(col.getIdentificador(), col);
+        // Colecciones que se ocultaron o eliminaron desde la última corrida
+        colecciones.keySet().retainAll(new HashSet<>(idsEnBD));
+        
+        // Actualizar hechos de cada colección en paralelo (pool acotado, una transacción por colección);
+        // cada una se publica en el registro apenas termina
+        Map<Long, Future<?>> refrescos = new HashMap<>();
+        for (Long id : idsEnBD) {
+            refrescos.put(id, coleccionesExecutor.submit(() -> {
+                log.info("Actualizando colección {}", id);
+                actualizarHechosEnColeccion(id);
+            }));
         }
         
-        // Actualizar hechos de cada colección
-        coleccionesEnBD.forEach(col -> {
+        for (Map.Entry<Long, Future<?>> refresco : refrescos.entrySet()) {
             try {
-                log.info("Actualizando colección {} (última modificación: {})", 
-                        col.getIdentificador(), col.getFechaUltimaModificacion());
-                actualizarHechosEnColeccion(col.getIdentificador());
-            } catch (Exception e) {
-                log.error("Error al actualizar colección {}: {}", col.getIdentificador(), e.getMessage());
+                refresco.getValue().get();
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                log.error("Error al actualizar colección {}: {}", refresco.getKey(), causa.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Actualización de colecciones interrumpida");
+                break;
             }
-        });
+        }
         
         log.info("Actualización de todas las colecciones completada");
     }
@@ -0,0 +1,166 @@
+package com.metamapa.service.normalizacion;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metamapa.repository.TaxonomiaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Carga la taxonomía de categorías y la mantiene compilada ({@link TaxonomiaCompilada}).
+ *
+ * Origen según {@code metamapa.taxonomia.origen}:
+ * - demo: la taxonomía hardcodeada de abajo
+ * - json: archivo {@code metamapa.taxonomia.archivo} con la forma {"macro": {"subrama": {"hoja": ["keyword", ...]}}}
+ * - bd:   tabla taxonomia_keyword
+ *
+ * Recarga en caliente: cada {@code metamapa.taxonomia.recarga-ms} vuelve a mirar el origen y, si cambió,
+ * compila la nueva versión y la publica de una vez; las clasificaciones en curso terminan con la anterior.
+ * Si la carga falla o viene vacía se mantiene la vigente.
+ */
+@Slf4j
+@Component
+@Profile("demo")
+@RequiredArgsConstructor
+public class CargadorTaxonomia {
+
+    private static final TypeReference<Map<String, Map<String, Map<String, List<String>>>>> TIPO_TAXONOMIA =
+            new TypeReference<Map<String, Map<String, Map<String, List<String>>>>>() {};
+
+    private final TaxonomiaRepository taxonomiaRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${metamapa.taxonomia.origen:demo}")
+    private String origen;
+
+    @Value("${metamapa.taxonomia.archivo:}")
+    private String archivo;
+
+    private volatile TaxonomiaCompilada vigente;
+
+    // Última taxonomía compilada y fecha del archivo leído (solo los toca recargar(), que es synchronized)
+    private Map<String, Map<String, Map<String, List<String>>>> fuenteVigente;
+    private long modificacionArchivo = Long.MIN_VALUE;
+
+    @PostConstruct
+    void inicializar() {
+        recargar();
+        if (vigente == null) {
+            log.warn("Taxonomía '{}' no disponible, se usa la demo hasta que se pueda cargar", origen);
+            vigente = TaxonomiaCompilada.compilar(taxonomiaDemo());
+        }
+    }
+
+    /**
+     * Taxonomía compilada vigente.
+     */
+    public TaxonomiaCompilada getTaxonomia() {
+        return vigente;
+    }
+
+    @Scheduled(fixedDelayString = "${metamapa.taxonomia.recarga-ms:60000}",
+            initialDelayString = "${metamapa.taxonomia.recarga-ms:60000}")
+    public synchronized void recargar() {
+        try {
+            Map<String, Map<String, Map<String, List<String>>>> taxonomia;
+            switch (origen) {
+                case "json":
+                    Path ruta = Paths.get(archivo);
+                    long modificacion = Files.getLastModifiedTime(ruta).toMillis();
+                    if (modificacion == modificacionArchivo) return;
+                    taxonomia = objectMapper.readValue(ruta.toFile(), TIPO_TAXONOMIA);
+                    // Recién con el archivo leído: si estaba a medio escribir, la próxima vuelta lo reintenta
+                    modificacionArchivo = modificacion;
+                    break;
+                case "bd":
+                    taxonomia = taxonomiaRepository.cargar();
+                    break;
+                default:
+                    if (fuenteVigente != null) return;
+                    taxonomia = taxonomiaDemo();
+            }
+
+            if (taxonomia == null || taxonomia.isEmpty()) {
+                log.warn("Taxonomía '{}' vacía, se mantiene la vigente", origen);
+                return;
+            }
+            if (taxonomia.equals(fuenteVigente)) return;
+
+            TaxonomiaCompilada compilada = TaxonomiaCompilada.compilar(taxonomia);
+            vigente = compilada;
+            fuenteVigente = taxonomia;
+            log.info("Taxonomía '{}' cargada: {} hojas, {} keywords", origen, compilada.cantidadHojas(), compilada.cantidadKeywords());
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo cargar la taxonomía '{}': {}. Se mantiene la vigente.", origen, e.getMessage());
+        }
+    }
+
+    static Map<String, Map<String, Map<String, List<String>>>> taxonomiaDemo() {
+        // Para Java 8, construir explícitamente sin double-brace initialization pesado.
+        Map<String, Map<String, Map<String, List<String>>>> tax = new LinkedHashMap<String, Map<String, Map<String, List<String>>>>();
+
+        // ── AMBIENTAL
+        Map<String, Map<String, List<String>>> ambiental = new LinkedHashMap<String, Map<String, List<String>>>();
+        // sub: FUEGO
+        Map<String, List<String>> fuego = new LinkedHashMap<String, List<String>>();
+        fuego.put("incendio_forestal", Arrays.asList(
+                "incendio forestal", "fuego forestal", "bosque", "brigadista", "columna de humo"
+        ));
+        fuego.put("incendio_urbano", Arrays.asList(
+                "incendio", "edificio", "departamento", "barrio", "bomberos"
+        ));
+        fuego.put("quema_controlada", Arrays.asList(
+                "quema controlada", "quema autorizada", "contrafuego"
+        ));
+        ambiental.put("fuego", fuego);
+
+        // sub: HIDROMETEO
+        Map<String, List<String>> hidrometeo = new LinkedHashMap<String, List<String>>();
+        hidrometeo.put("inundacion", Arrays.asList(
+                "inundacion", "anegamiento", "crecida", "desborde"
+        ));
+        hidrometeo.put("tormenta_severa", Arrays.asList(
+                "tormenta", "granizo", "vientos fuertes", "alerta meteorologica"
+        ));
+        ambiental.put("hidrometeo", hidrometeo);
+
+        tax.put("ambiental", ambiental);
+
+        // ── SEGURIDAD
+        Map<String, Map<String, List<String>>> seguridad = new LinkedHashMap<String, Map<String, List<String>>>();
+        // sub: ACCIDENTE_VIAL
+        Map<String, List<String>> accVial = new LinkedHashMap<String, List<String>>();
+        accVial.put("choque_multiple", Arrays.asList(
+                "choque multiple", "colision vehicular", "autopista", "pile up"
+        ));
+        accVial.put("vuelco", Arrays.asList(
+                "vuelco", "accidente vehicular", "camion volcado"
+        ));
+        seguridad.put("accidente_vial", accVial);
+
+        // sub: DELITOS
+        Map<String, List<String>> delitos = new LinkedHashMap<String, List<String>>();
+        delitos.put("robo", Arrays.asList(
+                "robo", "asalto", "arma de fuego", "arrebatador"
+        ));
+        delitos.put("homicidio", Arrays.asList(
+                "homicidio", "asesinato"
+        ));
+        seguridad.put("delitos", delitos);
+
+        tax.put("seguridad", seguridad);
+
+        return tax;
+    }
+}
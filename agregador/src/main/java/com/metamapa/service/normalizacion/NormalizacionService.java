@@ -1,25 +1,37 @@
 package com.metamapa.service.normalizacion;
 
 import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.ubicaciones.GeocodificadorInverso;
 import com.metamapa.entities.ubicaciones.Ubicacion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Normaliza:
  * - Fecha → "aa/MM/dd" (dos dígitos de año)
- * - Ubicación → lat/lon redondeados
+ * - Ubicación → lat/lon redondeados + lugar (provincia/municipio) por geocodificación inversa
  * - Categoría → vía taxonomía (resolver)
  * - Título → texto básico canónico
+ *
+ * Patrones y formatters se compilan una sola vez; el texto ASCII (el caso común) se normaliza en una
+ * pasada sin descomposición NFD. Los lotes grandes se normalizan en paralelo por tramos sobre
+ * {@code normalizacionExecutor}: cada hecho se normaliza de forma independiente y el orden se conserva.
  */
 @Slf4j
 @Service
@@ -28,12 +40,52 @@ public class NormalizacionService {
 
     private static final int DECIMALES_COORDENADAS = 5;
     private static final DateTimeFormatter YY_MM_DD = DateTimeFormatter.ofPattern("yy/MM/dd");
+    private static final DateTimeFormatter YYYY_MM_DD_BARRAS = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final Pattern FECHA_GUIONES = Pattern.compile("^(\\d{4})-(\\d{1,2})-(\\d{1,2})$");
+    private static final Pattern FECHA_BARRAS = Pattern.compile("^(\\d{4})/(\\d{1,2})/(\\d{1,2})$");
 
     // Resolver de taxonomía: devuelve ruta canónica, p.ej. "ambiental/fuego/incendio_forestal"
     private final CategoriaResolverTaxonomico categoriaResolver;
 
+    private final ThreadPoolTaskExecutor normalizacionExecutor;
+
+    @Value("${metamapa.normalizacion.chunk-size:500}")
+    private int tamanioTramo;
+
     public List<Hecho> normalizar(List<Hecho> hechos) {
-        return hechos.stream().map(this::normalizarHecho).collect(Collectors.toList());
+        int tramo = Math.max(1, tamanioTramo);
+        if (hechos.size() <= tramo) {
+            List<Hecho> normalizados = new ArrayList<>(hechos.size());
+            for (Hecho h : hechos) normalizados.add(normalizarHecho(h));
+            return normalizados;
+        }
+
+        // Cada tramo escribe su propia porción del arreglo: el resultado queda en el orden de entrada
+        Hecho[] normalizados = new Hecho[hechos.size()];
+        List<CompletableFuture<Void>> tramos = new ArrayList<>();
+        for (int desde = 0; desde < hechos.size(); desde += tramo) {
+            int inicio = desde;
+            int fin = Math.min(desde + tramo, hechos.size());
+            tramos.add(CompletableFuture.runAsync(() -> {
+                for (int i = inicio; i < fin; i++) {
+                    normalizados[i] = normalizarHecho(hechos.get(i));
+                }
+            }, normalizacionExecutor));
+        }
+        try {
+            CompletableFuture.allOf(tramos.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+
+        List<Hecho> resultado = new ArrayList<>(normalizados.length);
+        for (Hecho h : normalizados) resultado.add(h);
+        return resultado;
     }
 
     private Hecho normalizarHecho(Hecho h) {
@@ -80,33 +132,26 @@ public class NormalizacionService {
         } else if (fecha instanceof LocalDateTime) {
             ld = ((LocalDateTime) fecha).toLocalDate();
         } else if (fecha instanceof java.util.Date) {
-            ld = ((java.util.Date) fecha).toInstant().atZone(java.time.ZoneId.of("UTC")).toLocalDate();
+            ld = ((java.util.Date) fecha).toInstant().atZone(UTC).toLocalDate();
         } else {
             // String u otro objeto → parse básico
             String s = String.valueOf(fecha).trim();
 
-            // ISO yyyy-MM-dd
-            try {
-                ld = LocalDate.parse(s, DateTimeFormatter.ISO_LOCAL_DATE);
-            } catch (Exception ignored) {
-                // yyyy/MM/dd
+            Matcher m;
+            if ((m = FECHA_GUIONES.matcher(s)).matches()) {
+                // yyyy-MM-dd / yyyy-M-d (estricto, como ISO_LOCAL_DATE)
+                ld = LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
+            } else if ((m = FECHA_BARRAS.matcher(s)).matches()) {
+                // yyyy/MM/dd / yyyy/M/d
+                ld = LocalDate.parse(m.group(1) + "/" + dosDigitos(m.group(2)) + "/" + dosDigitos(m.group(3)), YYYY_MM_DD_BARRAS);
+            } else {
+                // Formatos menos comunes que igual aceptan los parsers (p. ej. años de más de 4 dígitos)
                 try {
-                    ld = LocalDate.parse(s, DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-                } catch (Exception ignored2) {
-                    // yyyy-M-d
-                    if (s.matches("^\\d{4}-\\d{1,2}-\\d{1,2}$")) {
-                        String[] p = s.split("-");
-                        String y = p[0];
-                        String m = String.format("%02d", Integer.parseInt(p[1]));
-                        String d = String.format("%02d", Integer.parseInt(p[2]));
-                        ld = LocalDate.parse(y + "-" + m + "-" + d, DateTimeFormatter.ISO_LOCAL_DATE);
-                    } else if (s.matches("^\\d{4}/\\d{1,2}/\\d{1,2}$")) {
-                        String[] p = s.split("/");
-                        String y = p[0];
-                        String m = String.format("%02d", Integer.parseInt(p[1]));
-                        String d = String.format("%02d", Integer.parseInt(p[2]));
-                        ld = LocalDate.parse(y + "/" + m + "/" + d, DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-                    } else {
+                    ld = LocalDate.parse(s, DateTimeFormatter.ISO_LOCAL_DATE);
+                } catch (Exception ignored) {
+                    try {
+                        ld = LocalDate.parse(s, YYYY_MM_DD_BARRAS);
+                    } catch (Exception ignored2) {
                         throw new IllegalArgumentException("Formato de fecha no soportado: " + s);
                     }
                 }
@@ -116,6 +161,10 @@ public class NormalizacionService {
         return ld.atStartOfDay();
     }
 
+    private static String dosDigitos(String s) {
+        return s.length() == 1 ? "0" + s : s;
+    }
+
 
     // ─────────────────────────────────────────────────────────────────────────────
     // UBICACIÓN → redondeo lat/lon
@@ -123,6 +172,10 @@ public class NormalizacionService {
         Ubicacion out = new Ubicacion();
         out.setLatitud(roundTo(u.getLatitud(), DECIMALES_COORDENADAS));
         out.setLongitud(roundTo(u.getLongitud(), DECIMALES_COORDENADAS));
+        // Lugar transitorio: DepuracionService lo reemplaza por el Lugar persistido equivalente
+        if (out.esValida()) {
+            out.setLugar(GeocodificadorInverso.getInstancia().resolver(out.getLatitud(), out.getLongitud()));
+        }
         // Si tu Ubicacion tiene otros campos, copialos acá si corresponde.
         return out;
     }
@@ -135,37 +188,53 @@ public class NormalizacionService {
     // ─────────────────────────────────────────────────────────────────────────────
     // Normaliza acentos, espacios, mayúsculas → string “canónico” para comparar
     public static String normalizarTextoBasico(String s) {
-        String t = s.trim().toLowerCase(Locale.ROOT);
-        t = Normalizer.normalize(t, Normalizer.Form.NFD).replaceAll("\\p{M}", ""); // saca acentos
-        t = t.replaceAll("\\s+", " "); // colapsa espacios
+        String t = s.trim();
+        if (esAscii(t)) {
+            return normalizarAscii(t);
+        }
+        t = t.toLowerCase(Locale.ROOT);
+        t = MARCAS.matcher(Normalizer.normalize(t, Normalizer.Form.NFD)).replaceAll(""); // saca acentos
+        t = ESPACIOS.matcher(t).replaceAll(" "); // colapsa espacios
         return t;
     }
 
-
-    // Construye el fingerprint a partir de los campos ya normalizados
-    private String buildFingerprint(Hecho h) {
-        // Evitamos NPE con valores nulos y normalizamos
-        final String titulo = h.getTitulo() != null ? normalizarTextoBasico(h.getTitulo()) : "";
-        final String categoria = h.getCategoria() != null ? normalizarTextoBasico(h.getCategoria()) : "";
-
-        String fecha = "";
-        if (h.getFechaHecho() != null) {
-            // Usamos sólo la fecha (sin hora), con formato "yy/MM/dd"
-            fecha = h.getFechaHecho().format(DateTimeFormatter.ofPattern("yy/MM/dd"));
+    private static boolean esAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) return false;
         }
+        return true;
+    }
 
-        String lat = "";
-        String lon = "";
-        if (h.getUbicacion() != null) {
-            lat = String.format(Locale.ROOT, "%.3f", h.getUbicacion().getLatitud());
-            lon = String.format(Locale.ROOT, "%.3f", h.getUbicacion().getLongitud());
+    // Sin acentos posibles: minúsculas y espacios colapsados en una pasada (s ya viene sin espacios en los extremos)
+    private static String normalizarAscii(String s) {
+        StringBuilder sb = null;
+        boolean enEspacio = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char salida;
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B) {
+                if (enEspacio) {
+                    if (sb == null) sb = new StringBuilder(s.length()).append(s, 0, i);
+                    continue;
+                }
+                enEspacio = true;
+                salida = ' ';
+            } else {
+                enEspacio = false;
+                salida = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+            }
+            if (sb != null) {
+                sb.append(salida);
+            } else if (salida != c) {
+                sb = new StringBuilder(s.length()).append(s, 0, i).append(salida);
+            }
         }
-
-        // Concatenamos en orden canónico → facilita comparación
-        return titulo + "|" + categoria + "|" + fecha + "|" + lat + "|" + lon;
+        return sb != null ? sb.toString() : s;
     }
 
 
+
+
 }
 
 
@@ -0,0 +1,332 @@
+package com.metamapa.service.normalizacion;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Taxonomía macro → subrama → hoja compilada en un autómata Aho-Corasick.
+ *
+ * Todos los keywords (normalizados: minúsculas, sin tildes, espacios colapsados) van a un único
+ * autómata; cada keyword sabe a qué hojas pertenece. Clasificar es una sola pasada sobre el texto
+ * que normaliza carácter a carácter, marca los keywords encontrados y suma el puntaje de cada hoja;
+ * el de subramas y macros sale de sumar el de sus hojas.
+ *
+ * Inmutable: se arma una vez por versión de la taxonomía y se comparte entre hilos.
+ */
+final class TaxonomiaCompilada {
+
+    static final String OTROS_GLOBAL = "otros/desconocido";
+
+    private static final int UMBRAL_MACRO = 1;  // mínimo de coincidencias para macro
+    private static final int UMBRAL_SUB   = 1;  // mínimo para subrama/hoja
+
+    // Plegado (minúsculas + sin marcas) precalculado para el rango latino más usado
+    private static final int LIMITE_PLEGADO = 0x250;
+    private static final String[] PLEGADO = new String[LIMITE_PLEGADO];
+
+    static {
+        for (char c = 0; c < LIMITE_PLEGADO; c++) {
+            PLEGADO[c] = plegarLento(c);
+        }
+    }
+
+    // ── Árbol de la taxonomía (orden de declaración, define los desempates)
+    private final String[] macros;
+    private final int[][] subramasPorMacro;
+    private final String[] subramas;
+    private final int[][] hojasPorSubrama;
+    private final String[] hojas;
+
+    // ── Autómata
+    private final char[][] etiquetas;      // estado → caracteres de salida, ordenados
+    private final int[][] destinos;        // estado → estado destino de cada etiqueta
+    private final int[] falla;
+    private final int[][] salidas;         // estado → keywords que terminan acá (incluye sufijos)
+    private final int[][] hojasPorKeyword; // keyword → hojas que lo listan (con repetición)
+
+    private TaxonomiaCompilada(String[] macros, int[][] subramasPorMacro, String[] subramas,
+                               int[][] hojasPorSubrama, String[] hojas,
+                               char[][] etiquetas, int[][] destinos, int[] falla,
+                               int[][] salidas, int[][] hojasPorKeyword) {
+        this.macros = macros;
+        this.subramasPorMacro = subramasPorMacro;
+        this.subramas = subramas;
+        this.hojasPorSubrama = hojasPorSubrama;
+        this.hojas = hojas;
+        this.etiquetas = etiquetas;
+        this.destinos = destinos;
+        this.falla = falla;
+        this.salidas = salidas;
+        this.hojasPorKeyword = hojasPorKeyword;
+    }
+
+    /**
+     * @param taxonomia macro → subrama → hoja → keywords
+     */
+    static TaxonomiaCompilada compilar(Map<String, Map<String, Map<String, List<String>>>> taxonomia) {
+        List<String> macros = new ArrayList<>();
+        List<int[]> subramasPorMacro = new ArrayList<>();
+        List<String> subramas = new ArrayList<>();
+        List<int[]> hojasPorSubrama = new ArrayList<>();
+        List<String> hojas = new ArrayList<>();
+
+        Map<String, Integer> idKeyword = new LinkedHashMap<>();
+        List<List<Integer>> hojasDeKeyword = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> m : taxonomia.entrySet()) {
+            macros.add(m.getKey());
+            Map<String, Map<String, List<String>>> subs = m.getValue() != null ? m.getValue() : new LinkedHashMap<>();
+            int[] idsSub = new int[subs.size()];
+            int i = 0;
+            for (Map.Entry<String, Map<String, List<String>>> s : subs.entrySet()) {
+                idsSub[i++] = subramas.size();
+                subramas.add(s.getKey());
+                Map<String, List<String>> hs = s.getValue() != null ? s.getValue() : new LinkedHashMap<>();
+                int[] idsHoja = new int[hs.size()];
+                int j = 0;
+                for (Map.Entry<String, List<String>> h : hs.entrySet()) {
+                    int hoja = hojas.size();
+                    idsHoja[j++] = hoja;
+                    hojas.add(h.getKey());
+                    if (h.getValue() == null) continue;
+                    for (String k : h.getValue()) {
+                        String normalizado = normalizar(k);
+                        if (normalizado == null || normalizado.isEmpty()) continue;
+                        Integer id = idKeyword.get(normalizado);
+                        if (id == null) {
+                            id = idKeyword.size();
+                            idKeyword.put(normalizado, id);
+                            hojasDeKeyword.add(new ArrayList<>());
+                        }
+                        hojasDeKeyword.get(id).add(hoja);
+                    }
+                }
+                hojasPorSubrama.add(idsHoja);
+            }
+            subramasPorMacro.add(idsSub);
+        }
+
+        // Trie
+        List<TreeMap<Character, Integer>> hijos = new ArrayList<>();
+        List<List<Integer>> terminales = new ArrayList<>();
+        hijos.add(new TreeMap<>());
+        terminales.add(new ArrayList<>());
+        for (Map.Entry<String, Integer> e : idKeyword.entrySet()) {
+            int estado = 0;
+            String k = e.getKey();
+            for (int p = 0; p < k.length(); p++) {
+                Integer siguiente = hijos.get(estado).get(k.charAt(p));
+                if (siguiente == null) {
+                    siguiente = hijos.size();
+                    hijos.add(new TreeMap<>());
+                    terminales.add(new ArrayList<>());
+                    hijos.get(estado).put(k.charAt(p), siguiente);
+                }
+                estado = siguiente;
+            }
+            terminales.get(estado).add(e.getValue());
+        }
+
+        int estados = hijos.size();
+        char[][] etiquetas = new char[estados][];
+        int[][] destinos = new int[estados][];
+        for (int s = 0; s < estados; s++) {
+            TreeMap<Character, Integer> h = hijos.get(s);
+            etiquetas[s] = new char[h.size()];
+            destinos[s] = new int[h.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> e : h.entrySet()) {
+                etiquetas[s][i] = e.getKey();
+                destinos[s][i++] = e.getValue();
+            }
+        }
+
+        // Enlaces de falla y salidas por BFS (cada estado se resuelve después de sus prefijos)
+        int[] falla = new int[estados];
+        int[][] salidas = new int[estados][];
+        salidas[0] = aArreglo(terminales.get(0));
+        Deque<Integer> cola = new ArrayDeque<>();
+        for (int d : destinos[0]) {
+            falla[d] = 0;
+            cola.add(d);
+        }
+        while (!cola.isEmpty()) {
+            int s = cola.poll();
+            List<Integer> propias = new ArrayList<>(terminales.get(s));
+            for (int k : salidas[falla[s]]) propias.add(k);
+            salidas[s] = aArreglo(propias);
+
+            for (int i = 0; i < etiquetas[s].length; i++) {
+                char c = etiquetas[s][i];
+                int hijo = destinos[s][i];
+                int f = falla[s];
+                while (f != 0 && hijo(etiquetas, destinos, f, c) < 0) f = falla[f];
+                int destino = hijo(etiquetas, destinos, f, c);
+                falla[hijo] = (destino >= 0 && destino != hijo) ? destino : 0;
+                cola.add(hijo);
+            }
+        }
+
+        int[][] hojasPorKeyword = new int[hojasDeKeyword.size()][];
+        for (int k = 0; k < hojasPorKeyword.length; k++) {
+            hojasPorKeyword[k] = aArreglo(hojasDeKeyword.get(k));
+        }
+
+        return new TaxonomiaCompilada(
+                macros.toArray(new String[0]), subramasPorMacro.toArray(new int[0][]),
+                subramas.toArray(new String[0]), hojasPorSubrama.toArray(new int[0][]),
+                hojas.toArray(new String[0]),
+                etiquetas, destinos, falla, salidas, hojasPorKeyword);
+    }
+
+    /**
+     * Clasifica el texto formado por las partes no vacías (separadas por un espacio).
+     *
+     * @return ruta canónica "macro/subrama/hoja", con "otros" en el primer nivel que no alcanza el umbral
+     */
+    String clasificar(String... partes) {
+        boolean[] visto = new boolean[hojasPorKeyword.length];
+        int[] puntajeHoja = new int[hojas.length];
+
+        int estado = 0;
+        boolean hayTexto = false;
+        boolean espacioPendiente = false;
+        for (String parte : partes) {
+            if (parte == null) continue;
+            if (hayTexto) espacioPendiente = true;
+            for (int i = 0; i < parte.length(); i++) {
+                char c = parte.charAt(i);
+                if (esEspacio(c)) {
+                    if (hayTexto) espacioPendiente = true;
+                    continue;
+                }
+                String plegado = c < LIMITE_PLEGADO ? PLEGADO[c] : plegarLento(c);
+                for (int p = 0; p < plegado.length(); p++) {
+                    if (espacioPendiente) {
+                        estado = avanzar(estado, ' ', visto, puntajeHoja);
+                        espacioPendiente = false;
+                    }
+                    estado = avanzar(estado, plegado.charAt(p), visto, puntajeHoja);
+                    hayTexto = true;
+                }
+            }
+        }
+        if (!hayTexto) return OTROS_GLOBAL;
+
+        int[] puntajeSubrama = new int[subramas.length];
+        for (int s = 0; s < subramas.length; s++) {
+            for (int h : hojasPorSubrama[s]) puntajeSubrama[s] += puntajeHoja[h];
+        }
+
+        int macro = -1;
+        int mejorMacro = Integer.MIN_VALUE;
+        for (int m = 0; m < macros.length; m++) {
+            int puntaje = 0;
+            for (int s : subramasPorMacro[m]) puntaje += puntajeSubrama[s];
+            if (puntaje > mejorMacro) {
+                mejorMacro = puntaje;
+                macro = m;
+            }
+        }
+        if (macro < 0 || mejorMacro < UMBRAL_MACRO) return OTROS_GLOBAL;
+
+        int sub = mejor(subramasPorMacro[macro], puntajeSubrama);
+        if (sub < 0 || puntajeSubrama[sub] < UMBRAL_SUB) {
+            return macros[macro] + "/otros";
+        }
+
+        int hoja = mejor(hojasPorSubrama[sub], puntajeHoja);
+        if (hoja < 0 || puntajeHoja[hoja] < UMBRAL_SUB) {
+            return macros[macro] + "/" + subramas[sub] + "/otros";
+        }
+        return macros[macro] + "/" + subramas[sub] + "/" + hojas[hoja];
+    }
+
+    int cantidadKeywords() {
+        return hojasPorKeyword.length;
+    }
+
+    int cantidadHojas() {
+        return hojas.length;
+    }
+
+    private int avanzar(int estado, char c, boolean[] visto, int[] puntajeHoja) {
+        int destino;
+        while ((destino = hijo(etiquetas, destinos, estado, c)) < 0 && estado != 0) {
+            estado = falla[estado];
+        }
+        estado = destino < 0 ? 0 : destino;
+        for (int k : salidas[estado]) {
+            // Cada keyword suma una vez aunque aparezca varias veces en el texto
+            if (visto[k]) continue;
+            visto[k] = true;
+            for (int h : hojasPorKeyword[k]) puntajeHoja[h]++;
+        }
+        return estado;
+    }
+
+    // Primer índice con el mayor puntaje (desempata el orden de declaración)
+    private static int mejor(int[] candidatos, int[] puntajes) {
+        int mejor = -1;
+        int mejorPuntaje = Integer.MIN_VALUE;
+        for (int c : candidatos) {
+            if (puntajes[c] > mejorPuntaje) {
+                mejorPuntaje = puntajes[c];
+                mejor = c;
+            }
+        }
+        return mejor;
+    }
+
+    private static int hijo(char[][] etiquetas, int[][] destinos, int estado, char c) {
+        int i = Arrays.binarySearch(etiquetas[estado], c);
+        return i >= 0 ? destinos[estado][i] : -1;
+    }
+
+    /**
+     * Misma normalización que aplica {@link #clasificar} al texto: minúsculas, sin tildes, espacios colapsados.
+     */
+    static String normalizar(String s) {
+        if (s == null) return null;
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean espacioPendiente = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (esEspacio(c)) {
+                if (sb.length() > 0) espacioPendiente = true;
+                continue;
+            }
+            String plegado = c < LIMITE_PLEGADO ? PLEGADO[c] : plegarLento(c);
+            if (plegado.isEmpty()) continue;
+            if (espacioPendiente) {
+                sb.append(' ');
+                espacioPendiente = false;
+            }
+            sb.append(plegado);
+        }
+        return sb.toString();
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private static String plegarLento(char c) {
+        String t = String.valueOf(c).toLowerCase(Locale.ROOT);
+        return Normalizer.normalize(t, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    private static int[] aArreglo(List<Integer> valores) {
+        int[] arr = new int[valores.size()];
+        for (int i = 0; i < arr.length; i++) arr[i] = valores.get(i);
+        return arr;
+    }
+}
@@ -0,0 +1,237 @@
+package com.metamapa.service.similitud;
+
+import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.repository.FirmaSimilitudRepository;
+import com.metamapa.repository.FirmaSimilitudRepository.ClaveBanda;
+import com.metamapa.repository.FirmaSimilitudRepository.DatosCandidato;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detección de casi-duplicados para la depuración: hechos que no coinciden por fingerprint pero
+ * cuentan lo mismo ("Incendio forestal en Bariloche" / "incendio forestal Bariloche").
+ *
+ * Candidatos por LSH sobre firmas MinHash de título + descripción: cada hecho consulta sus
+ * {@value MinHash#BANDAS} bandas en el índice (banda, valor), así el costo no depende del tamaño de la tabla.
+ * Cada banda aporta a lo sumo {@code max-candidatos-banda} candidatos.
+ * Un candidato se acepta si la similitud estimada supera el umbral y, cuando ambos tienen esos datos,
+ * está dentro del radio (km) y de la ventana temporal configurados.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DeteccionCercanosService {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+
+    private final FirmaSimilitudRepository firmaRepository;
+
+    @Value("${metamapa.depuracion.similitud.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${metamapa.depuracion.similitud.umbral:0.7}")
+    private double umbral;
+
+    @Value("${metamapa.depuracion.similitud.radio-km:5}")
+    private double radioKm;
+
+    @Value("${metamapa.depuracion.similitud.ventana-horas:48}")
+    private long ventanaHoras;
+
+    // Candidatos por banda LSH: una banda compartida por miles de hechos no aporta y explota las comparaciones
+    @Value("${metamapa.depuracion.similitud.max-candidatos-banda:50}")
+    private int maxCandidatosBanda;
+
+    @Value("${metamapa.depuracion.similitud.backfill.page-size:1000}")
+    private int tamanioPagina;
+
+    /**
+     * Busca casi-duplicados de hechos que no tuvieron coincidencia exacta: contra la BD y dentro del mismo lote.
+     */
+    public ResultadoCercanos resolver(List<Hecho> hechos) {
+        ResultadoCercanos resultado = new ResultadoCercanos();
+        if (!habilitado || hechos.isEmpty()) return resultado;
+
+        Map<Hecho, long[]> bandasPorHecho = new IdentityHashMap<>();
+        Set<ClaveBanda> pares = new HashSet<>();
+        for (Hecho h : hechos) {
+            int[] firma = MinHash.firma(h.getTitulo(), h.getDescripcion());
+            if (firma == null) continue;
+            long[] bandas = MinHash.bandas(firma);
+            resultado.firmas.put(h, firma);
+            bandasPorHecho.put(h, bandas);
+            for (int b = 0; b < bandas.length; b++) {
+                pares.add(new ClaveBanda(b, bandas[b]));
+            }
+        }
+
+        // Una consulta por bandas y otra por los datos de los candidatos, para todo el lote
+        Map<ClaveBanda, Set<Long>> enBD = firmaRepository.buscarPorBandas(pares, maxCandidatosBanda);
+        Set<Long> ids = new HashSet<>();
+        enBD.values().forEach(ids::addAll);
+        Map<Long, DatosCandidato> datos = firmaRepository.buscarDatos(ids);
+
+        // Índice LSH en memoria de los representantes del lote (primer hecho de cada grupo)
+        Map<ClaveBanda, List<Hecho>> enLote = new HashMap<>();
+
+        for (Hecho h : hechos) {
+            long[] bandas = bandasPorHecho.get(h);
+            if (bandas == null) continue;
+            int[] firma = resultado.firmas.get(h);
+
+            DatosCandidato mejor = null;
+            double mejorSimilitud = 0;
+            Hecho representante = null;
+            double mejorEnLote = 0;
+            for (int b = 0; b < bandas.length; b++) {
+                ClaveBanda clave = new ClaveBanda(b, bandas[b]);
+                for (Long id : enBD.getOrDefault(clave, new HashSet<>())) {
+                    DatosCandidato d = datos.get(id);
+                    if (d == null) continue;
+                    double s = MinHash.similitud(firma, d.getFirma());
+                    if (s >= umbral && s > mejorSimilitud
+                            && proximos(h, d.getLatitud(), d.getLongitud(), d.getFecha())) {
+                        mejor = d;
+                        mejorSimilitud = s;
+                    }
+                }
+                for (Hecho otro : enLote.getOrDefault(clave, new ArrayList<>())) {
+                    if (otro.getFingerprint() != null && otro.getFingerprint().equals(h.getFingerprint())) continue;
+                    double s = MinHash.similitud(firma, resultado.firmas.get(otro));
+                    if (s >= umbral && s > mejorEnLote && proximos(h, latitud(otro), longitud(otro), otro.getFechaHecho())) {
+                        representante = otro;
+                        mejorEnLote = s;
+                    }
+                }
+            }
+
+            if (mejor != null) {
+                resultado.existentes.put(h.getFingerprint(), mejor);
+            } else if (representante != null) {
+                resultado.alias.put(h.getFingerprint(), representante.getFingerprint());
+                continue;
+            }
+            for (int b = 0; b < bandas.length; b++) {
+                List<Hecho> enBanda = enLote.computeIfAbsent(new ClaveBanda(b, bandas[b]), k -> new ArrayList<>());
+                if (enBanda.size() < maxCandidatosBanda) {
+                    enBanda.add(h);
+                }
+            }
+        }
+
+        if (!resultado.existentes.isEmpty() || !resultado.alias.isEmpty()) {
+            log.info("Casi-duplicados: {} contra hechos existentes, {} dentro del lote ({} candidatos LSH)",
+                    resultado.existentes.size(), resultado.alias.size(), datos.size());
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda firma y bandas de los hechos recién insertados para que las próximas ingestas los encuentren.
+     */
+    public void registrarFirmas(Collection<Hecho> insertados, Map<Hecho, int[]> firmasCalculadas) {
+        if (!habilitado) return;
+        Map<Long, int[]> firmas = new HashMap<>();
+        for (Hecho h : insertados) {
+            if (h.getId() == null) continue;
+            int[] firma = firmasCalculadas.get(h);
+            if (firma == null) {
+                firma = MinHash.firma(h.getTitulo(), h.getDescripcion());
+            }
+            if (firma != null) {
+                firmas.put(h.getId(), firma);
+            }
+        }
+        firmaRepository.guardar(firmas);
+    }
+
+    /**
+     * Firma los hechos existentes que todavía no la tienen (corre una vez al arrancar).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarFirmasFaltantes() {
+        if (!habilitado) return;
+        try {
+            long desdeId = 0;
+            int firmados = 0;
+            while (true) {
+                List<Object[]> pagina = firmaRepository.buscarSinFirma(desdeId, tamanioPagina);
+                if (pagina.isEmpty()) break;
+
+                Map<Long, int[]> firmas = new HashMap<>();
+                for (Object[] fila : pagina) {
+                    int[] firma = MinHash.firma((String) fila[1], (String) fila[2]);
+                    if (firma != null) {
+                        firmas.put((Long) fila[0], firma);
+                    }
+                }
+                firmaRepository.guardar(firmas);
+                firmados += firmas.size();
+                desdeId = (Long) pagina.get(pagina.size() - 1)[0];
+            }
+            if (firmados > 0) {
+                log.info("Firmas MinHash generadas para {} hechos existentes", firmados);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudieron completar las firmas MinHash: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean proximos(Hecho h, Double latitud, Double longitud, LocalDateTime fecha) {
+        Double lat = latitud(h);
+        Double lon = longitud(h);
+        if (lat != null && lon != null && latitud != null && longitud != null
+                && distanciaKm(lat, lon, latitud, longitud) > radioKm) {
+            return false;
+        }
+        return h.getFechaHecho() == null || fecha == null
+                || Math.abs(Duration.between(h.getFechaHecho(), fecha).toHours()) <= ventanaHoras;
+    }
+
+    private static Double latitud(Hecho h) {
+        return h.getUbicacion() != null ? h.getUbicacion().getLatitud() : null;
+    }
+
+    private static Double longitud(Hecho h) {
+        return h.getUbicacion() != null ? h.getUbicacion().getLongitud() : null;
+    }
+
+    // Haversine
+    static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(a));
+    }
+
+    /**
+     * Resultado de la búsqueda para un lote.
+     */
+    public static class ResultadoCercanos {
+        // fingerprint del hecho entrante → hecho existente casi igual
+        private final Map<String, DatosCandidato> existentes = new HashMap<>();
+        // fingerprint del hecho entrante → fingerprint del hecho del mismo lote con el que se fusiona
+        private final Map<String, String> alias = new HashMap<>();
+        private final Map<Hecho, int[]> firmas = new IdentityHashMap<>();
+
+        public Map<String, DatosCandidato> getExistentes() { return existentes; }
+        public Map<String, String> getAlias() { return alias; }
+        public Map<Hecho, int[]> getFirmas() { return firmas; }
+    }
+}
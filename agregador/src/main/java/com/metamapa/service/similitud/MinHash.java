@@ -0,0 +1,142 @@
+package com.metamapa.service.similitud;
+
+import com.metamapa.service.normalizacion.NormalizacionService;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Firmas MinHash sobre los tokens normalizados de un texto y sus bandas LSH.
+ *
+ * Con {@value #FUNCIONES} funciones en {@value #BANDAS} bandas de {@value #FILAS_POR_BANDA} filas,
+ * dos textos con Jaccard s comparten al menos una banda con probabilidad 1 - (1 - s^4)^16:
+ * ~0.99 para s = 0.8, ~0.64 para s = 0.5, ~0.03 para s = 0.2.
+ */
+public final class MinHash {
+
+    public static final int FUNCIONES = 64;
+    public static final int FILAS_POR_BANDA = 4;
+    public static final int BANDAS = FUNCIONES / FILAS_POR_BANDA;
+
+    // Palabras de 3+ letras que no aportan al contenido (las de 1-2 letras se descartan siempre)
+    private static final Set<String> VACIAS = new HashSet<>(Arrays.asList(
+            "los", "las", "del", "por", "con", "una", "uno", "para", "que", "sus", "sobre", "entre",
+            "the", "and", "for"));
+
+    private static final long[] SEMILLAS = new long[FUNCIONES];
+
+    static {
+        long x = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < FUNCIONES; i++) {
+            x = mezclar(x + 0x9E3779B97F4A7C15L);
+            SEMILLAS[i] = x;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Firma de los textos dados (título, descripción...) tomados como un único conjunto de tokens.
+     *
+     * @return la firma, o null si no hay tokens útiles
+     */
+    public static int[] firma(String... textos) {
+        int[] firma = new int[FUNCIONES];
+        Arrays.fill(firma, Integer.MAX_VALUE);
+        boolean hayTokens = false;
+
+        for (String texto : textos) {
+            if (texto == null || texto.isEmpty()) continue;
+            String normalizado = NormalizacionService.normalizarTextoBasico(texto);
+            int inicio = -1;
+            for (int i = 0; i <= normalizado.length(); i++) {
+                boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+                if (letra && inicio < 0) {
+                    inicio = i;
+                } else if (!letra && inicio >= 0) {
+                    if (i - inicio >= 3) {
+                        String token = normalizado.substring(inicio, i);
+                        if (!VACIAS.contains(token)) {
+                            acumular(firma, hashToken(token));
+                            hayTokens = true;
+                        }
+                    }
+                    inicio = -1;
+                }
+            }
+        }
+        return hayTokens ? firma : null;
+    }
+
+    /**
+     * Estimación de Jaccard: fracción de funciones con el mismo mínimo.
+     */
+    public static double similitud(int[] a, int[] b) {
+        int iguales = 0;
+        for (int i = 0; i < FUNCIONES; i++) {
+            if (a[i] == b[i]) iguales++;
+        }
+        return (double) iguales / FUNCIONES;
+    }
+
+    /**
+     * Valor de cada banda (hash de sus {@value #FILAS_POR_BANDA} mínimos).
+     */
+    public static long[] bandas(int[] firma) {
+        long[] bandas = new long[BANDAS];
+        for (int b = 0; b < BANDAS; b++) {
+            long h = b;
+            for (int r = 0; r < FILAS_POR_BANDA; r++) {
+                h = mezclar(h * 31 + firma[b * FILAS_POR_BANDA + r]);
+            }
+            bandas[b] = h;
+        }
+        return bandas;
+    }
+
+    public static byte[] aBytes(int[] firma) {
+        byte[] bytes = new byte[firma.length * 4];
+        for (int i = 0; i < firma.length; i++) {
+            bytes[i * 4] = (byte) (firma[i] >>> 24);
+            bytes[i * 4 + 1] = (byte) (firma[i] >>> 16);
+            bytes[i * 4 + 2] = (byte) (firma[i] >>> 8);
+            bytes[i * 4 + 3] = (byte) firma[i];
+        }
+        return bytes;
+    }
+
+    public static int[] desdeBytes(byte[] bytes) {
+        int[] firma = new int[bytes.length / 4];
+        for (int i = 0; i < firma.length; i++) {
+            firma[i] = ((bytes[i * 4] & 0xFF) << 24) | ((bytes[i * 4 + 1] & 0xFF) << 16)
+                    | ((bytes[i * 4 + 2] & 0xFF) << 8) | (bytes[i * 4 + 3] & 0xFF);
+        }
+        return firma;
+    }
+
+    private static void acumular(int[] firma, long hashToken) {
+        for (int i = 0; i < FUNCIONES; i++) {
+            int h = (int) (mezclar(hashToken ^ SEMILLAS[i]) >>> 33);
+            if (h < firma[i]) firma[i] = h;
+        }
+    }
+
+    // FNV-1a de 64 bits sobre los chars del token
+    private static long hashToken(String token) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            h ^= token.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Finalizador de splitmix64
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,133 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.colecciones.ColeccionCriterio;
+import com.metamapa.entities.ubicaciones.GeocodificadorInverso;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroCriteriosSqlTest {
+
+    private static final Pattern PARAMETRO = Pattern.compile(":(\\w+)");
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2024, 12, 31, 23, 59);
+
+    private static ColeccionCriterio criterio(String tipo, String valor) {
+        return new ColeccionCriterio(null, tipo, valor);
+    }
+
+    private static ColeccionCriterio rango(String tipo, LocalDateTime desde, LocalDateTime hasta) {
+        return new ColeccionCriterio(null, tipo, desde, hasta);
+    }
+
+    private static ColeccionCriterio ubicacion(String pais, String provincia, String municipio) {
+        return new ColeccionCriterio(null, "UBICACION", pais, provincia, municipio);
+    }
+
+    private static Set<String> parametrosUsados(String condicion) {
+        Set<String> nombres = new HashSet<>();
+        Matcher m = PARAMETRO.matcher(condicion);
+        while (m.find()) nombres.add(m.group(1));
+        return nombres;
+    }
+
+    @DisplayName("TITULO y DESCRIPCION escapan los comodines de LIKE y la barra invertida")
+    @Test
+    void de_EscapaComodinesLike() {
+        FiltroCriteriosSql filtro = FiltroCriteriosSql.de(Arrays.asList(
+                criterio("TITULO", "50%_off"),
+                criterio("DESCRIPCION", "C:\\temp")));
+
+        assertEquals("h.titulo LIKE :c0 AND h.descripcion LIKE :c1", filtro.getCondicion());
+        assertEquals("%50\\%\\_off%", filtro.getParametros().getValue("c0"), "% y _ son literales");
+        assertEquals("%C:\\\\temp%", filtro.getParametros().getValue("c1"), "La barra invertida se duplica");
+    }
+
+    @DisplayName("Los valores nulos o vacíos se traducen igual que los criterios en memoria")
+    @Test
+    void de_ValoresNulosOVacios() {
+        FiltroCriteriosSql filtro = FiltroCriteriosSql.de(Arrays.asList(
+                criterio("CATEGORIA", null),
+                criterio("TITULO", ""),
+                criterio("DESCRIPCION", null),
+                rango("FECHA_CARGA", DESDE, null),
+                rango("FECHA_ACONTECIMIENTO", null, HASTA)));
+
+        assertEquals("1 = 0 AND h.titulo IS NOT NULL AND h.descripcion IS NOT NULL AND 1 = 0 AND 1 = 0",
+                filtro.getCondicion());
+        assertEquals(0, filtro.getParametros().getParameterNames().length, "No se agregan parámetros sin valor");
+    }
+
+    @DisplayName("Sin criterios traducibles la condición queda vacía; tipos nulos o desconocidos no restringen")
+    @Test
+    void de_SinCriteriosTraducibles() {
+        ColeccionCriterio sinTipo = criterio(null, "x");
+        FiltroCriteriosSql filtro = FiltroCriteriosSql.de(Arrays.asList(null, sinTipo, criterio("OTRO", "x")));
+
+        assertEquals("", filtro.getCondicion());
+        assertFalse(filtro.requiereUbicacion());
+        assertTrue(filtro.cumpleResiduales(null, null), "Sin residuales todo hecho cumple");
+        assertEquals("", FiltroCriteriosSql.de(Collections.emptyList()).getCondicion());
+    }
+
+    @DisplayName("Los nombres de parámetro no se pisan aunque haya criterios de ubicación intercalados")
+    @Test
+    void de_ParametrosConUbicacionIntercalada() {
+        FiltroCriteriosSql filtro = FiltroCriteriosSql.de(Arrays.asList(
+                ubicacion("Argentina", null, null),
+                criterio("CATEGORIA", "incendio"),
+                ubicacion(null, "Río Negro", null),
+                criterio("TITULO", ""),
+                criterio("TITULO", "ruta"),
+                ubicacion(null, null, "General Roca"),
+                rango("FECHA_ACONTECIMIENTO", DESDE, HASTA),
+                criterio("DESCRIPCION", "humo")));
+
+        String condicion = filtro.getCondicion();
+        assertEquals("h.categoria = :c0 AND h.titulo IS NOT NULL AND h.titulo LIKE :c2"
+                + " AND h.fecha_hecho BETWEEN :c3d AND :c3h AND h.descripcion LIKE :c4", condicion);
+        assertEquals(parametrosUsados(condicion), new HashSet<>(Arrays.asList(filtro.getParametros().getParameterNames())),
+                "Cada parámetro de la condición tiene su valor y no sobra ninguno");
+        assertEquals("incendio", filtro.getParametros().getValue("c0"));
+        assertEquals("%ruta%", filtro.getParametros().getValue("c2"));
+        assertEquals(Timestamp.valueOf(DESDE), filtro.getParametros().getValue("c3d"));
+        assertEquals(Timestamp.valueOf(HASTA), filtro.getParametros().getValue("c3h"));
+        assertEquals("%humo%", filtro.getParametros().getValue("c4"));
+        assertTrue(filtro.requiereUbicacion());
+    }
+
+    @DisplayName("UBICACION queda como residual sobre las coordenadas de cada fila")
+    @Test
+    void cumpleResiduales_Ubicacion() {
+        // Polígonos del classpath, por si otro test reemplazó la instancia compartida
+        GeocodificadorInverso.configurar(null, null, 0);
+
+        FiltroCriteriosSql rioNegro = FiltroCriteriosSql.de(Arrays.asList(
+                ubicacion("Argentina", null, null),
+                ubicacion(null, "Río Negro", null)));
+        assertEquals("", rioNegro.getCondicion(), "La ubicación no se traduce a SQL");
+        assertTrue(rioNegro.requiereUbicacion());
+
+        assertTrue(rioNegro.cumpleResiduales(-40.8135, -62.9967), "Viedma está en Río Negro");
+        assertFalse(rioNegro.cumpleResiduales(-40.798, -62.9817), "Carmen de Patagones está en Buenos Aires");
+        assertFalse(rioNegro.cumpleResiduales(-32.9468, -60.6393), "Rosario está en Santa Fe");
+        assertFalse(rioNegro.cumpleResiduales(null, -62.9967), "Sin latitud no cumple");
+        assertFalse(rioNegro.cumpleResiduales(-40.8135, null), "Sin longitud no cumple");
+        assertFalse(rioNegro.cumpleResiduales(-91.0, -62.9967), "Latitud fuera de rango");
+        assertFalse(rioNegro.cumpleResiduales(-40.8135, 181.0), "Longitud fuera de rango");
+
+        FiltroCriteriosSql otroPais = FiltroCriteriosSql.de(Collections.singletonList(ubicacion("Chile", null, null)));
+        assertFalse(otroPais.cumpleResiduales(-40.8135, -62.9967), "Todos los hechos se geocodifican en Argentina");
+    }
+}
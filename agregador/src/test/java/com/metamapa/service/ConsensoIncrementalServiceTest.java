@@ -0,0 +1,65 @@
+package com.metamapa.service;
+
+import com.metamapa.entities.colecciones.MayoriaSimple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsensoIncrementalServiceTest {
+
+    private static final Long COLECCION = 1L;
+    private static final Set<String> FUENTES = new HashSet<>(Arrays.asList("estatica", "dinamica", "proxy"));
+
+    private final ConsensoIncrementalService service = new ConsensoIncrementalService();
+
+    @DisplayName("La primera evaluación decide todos los hechos")
+    @Test
+    void evaluar_PrimeraVezCompleta() {
+        Map<Long, Boolean> cambios = evaluar(new HashMap<>(), new MencionesHecho(10L, 2), new MencionesHecho(11L, 1));
+
+        assertEquals(Boolean.TRUE, cambios.get(10L));
+        assertEquals(Boolean.FALSE, cambios.get(11L));
+    }
+
+    @DisplayName("Un cambio de menciones se re-evalúa aunque no haya ninguna marca de tiempo nueva")
+    @Test
+    void evaluar_CambioDeMenciones() {
+        Map<Long, Boolean> persistido = new HashMap<>(evaluar(new HashMap<>(), new MencionesHecho(10L, 1)));
+
+        Map<Long, Boolean> cambios = evaluar(persistido, new MencionesHecho(10L, 2));
+
+        assertEquals(Collections.singletonMap(10L, true), cambios);
+        assertTrue(service.consensoVigente(COLECCION).get(10L));
+    }
+
+    @DisplayName("Sin cambios de menciones no hay flags nuevos")
+    @Test
+    void evaluar_SinCambios() {
+        Map<Long, Boolean> persistido = new HashMap<>(evaluar(new HashMap<>(), new MencionesHecho(10L, 2)));
+
+        assertTrue(evaluar(persistido, new MencionesHecho(10L, 2)).isEmpty());
+    }
+
+    @DisplayName("Los hechos que salen de la colección dejan el consenso vigente")
+    @Test
+    void evaluar_HechoQueSale() {
+        Map<Long, Boolean> persistido = new HashMap<>(
+                evaluar(new HashMap<>(), new MencionesHecho(10L, 2), new MencionesHecho(11L, 2)));
+
+        evaluar(persistido, new MencionesHecho(10L, 2));
+
+        assertEquals(Collections.singleton(10L), service.consensoVigente(COLECCION).keySet());
+    }
+
+    private Map<Long, Boolean> evaluar(Map<Long, Boolean> persistido, MencionesHecho... hechos) {
+        return service.evaluar(COLECCION, new MayoriaSimple(), FUENTES, Arrays.asList(hechos), persistido);
+    }
+}
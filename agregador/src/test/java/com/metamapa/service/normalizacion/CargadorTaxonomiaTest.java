@@ -0,0 +1,67 @@
+package com.metamapa.service.normalizacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metamapa.repository.TaxonomiaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CargadorTaxonomiaTest {
+
+    private static final String TAXONOMIA_JSON =
+            "{\"servicios\": {\"cortes\": {\"corte_de_luz\": [\"corte de luz\", \"apagon\"]}}}";
+
+    @DisplayName("Un archivo que no se pudo leer se vuelve a intentar aunque su fecha no cambie")
+    @Test
+    void recargar_ReintentaArchivoInvalidoConLaMismaFecha(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("taxonomia.json");
+        FileTime fecha = FileTime.fromMillis(1_700_000_000_000L);
+        escribir(archivo, "{\"servicios\": {\"cortes\":", fecha);
+
+        CargadorTaxonomia cargador = cargador(archivo);
+        cargador.inicializar();
+        assertEquals(TaxonomiaCompilada.OTROS_GLOBAL, cargador.getTaxonomia().clasificar("Apagón en el centro"),
+                "Con el archivo a medio escribir queda la demo");
+
+        // Terminó de escribirse con la misma fecha de modificación (resolución gruesa del file system)
+        escribir(archivo, TAXONOMIA_JSON, fecha);
+        cargador.recargar();
+
+        assertEquals("servicios/cortes/corte_de_luz", cargador.getTaxonomia().clasificar("Apagón en el centro"));
+    }
+
+    @DisplayName("Sin cambios en el archivo no se recompila la taxonomía")
+    @Test
+    void recargar_ArchivoSinCambios(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("taxonomia.json");
+        escribir(archivo, TAXONOMIA_JSON, FileTime.fromMillis(1_700_000_000_000L));
+
+        CargadorTaxonomia cargador = cargador(archivo);
+        cargador.inicializar();
+        TaxonomiaCompilada cargada = cargador.getTaxonomia();
+        cargador.recargar();
+
+        assertSame(cargada, cargador.getTaxonomia());
+    }
+
+    private static CargadorTaxonomia cargador(Path archivo) {
+        CargadorTaxonomia cargador = new CargadorTaxonomia(mock(TaxonomiaRepository.class), new ObjectMapper());
+        ReflectionTestUtils.setField(cargador, "origen", "json");
+        ReflectionTestUtils.setField(cargador, "archivo", archivo.toString());
+        return cargador;
+    }
+
+    private static void escribir(Path archivo, String contenido, FileTime fecha) throws Exception {
+        Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(archivo, fecha);
+    }
+}
@@ -0,0 +1,162 @@
+package com.metamapa.service.normalizacion;
+
+import com.metamapa.entities.hechos.Hecho;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizacionServiceTest {
+
+    // Implementaciones anteriores (regex y formatters por llamada), como referencia de equivalencia
+    private static String textoConNfd(String s) {
+        String t = s.trim().toLowerCase(Locale.ROOT);
+        t = Normalizer.normalize(t, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return t.replaceAll("\\s+", " ");
+    }
+
+    private static LocalDate fechaAnterior(String s) {
+        try {
+            return LocalDate.parse(s, DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (Exception ignored) {
+            try {
+                return LocalDate.parse(s, DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+            } catch (Exception ignored2) {
+                if (s.matches("^\\d{4}-\\d{1,2}-\\d{1,2}$")) {
+                    String[] p = s.split("-");
+                    return LocalDate.parse(p[0] + "-" + String.format("%02d", Integer.parseInt(p[1])) + "-"
+                            + String.format("%02d", Integer.parseInt(p[2])), DateTimeFormatter.ISO_LOCAL_DATE);
+                } else if (s.matches("^\\d{4}/\\d{1,2}/\\d{1,2}$")) {
+                    String[] p = s.split("/");
+                    return LocalDate.parse(p[0] + "/" + String.format("%02d", Integer.parseInt(p[1])) + "/"
+                            + String.format("%02d", Integer.parseInt(p[2])), DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+                }
+                throw new IllegalArgumentException("Formato de fecha no soportado: " + s);
+            }
+        }
+    }
+
+    // Fecha resultante, o "error" si el parseo falla, para comparar ambas implementaciones
+    private static String resultado(ThrowingSupplier fecha) {
+        try {
+            return String.valueOf(fecha.get());
+        } catch (Exception e) {
+            return "error";
+        }
+    }
+
+    private interface ThrowingSupplier {
+        Object get() throws Exception;
+    }
+
+    private static NormalizacionService servicio(CategoriaResolverTaxonomico resolver,
+                                                 ThreadPoolTaskExecutor executor, int tamanioTramo) {
+        NormalizacionService servicio = new NormalizacionService(resolver, executor);
+        ReflectionTestUtils.setField(servicio, "tamanioTramo", tamanioTramo);
+        return servicio;
+    }
+
+    @DisplayName("El camino ASCII da lo mismo que la normalización NFD con regex")
+    @Test
+    void normalizarTextoBasico_AsciiIgualQueNfd() {
+        List<String> casos = new ArrayList<>(Arrays.asList(
+                "", " ", "\t\u000B\f\r\n", "Incendio", "  INCENDIO Forestal  ", "corte\tde\u000Bluz",
+                "uno\f\fdos\r\ntres", "\tTabulado al inicio", "al final\u000B", "a  \t b", "ya normalizado",
+                "Ruta 3 - km 45", "\u0001control\u001Finterno\u0001", "Apagón en el Centro", "  ÑANDÚ\tÁrbol  "));
+
+        // Mezcla aleatoria (semilla fija) de letras, blancos ASCII, controles y algún acento
+        char[] alfabeto = {'a', 'Z', 'q', '9', '.', ' ', '\t', '\n', '\r', '\f', '\u000B', '\u0001', '\u001F', 'é', 'Ü'};
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            char[] texto = new char[random.nextInt(12)];
+            for (int j = 0; j < texto.length; j++) texto[j] = alfabeto[random.nextInt(alfabeto.length)];
+            casos.add(new String(texto));
+        }
+
+        for (String caso : casos) {
+            assertEquals(textoConNfd(caso), NormalizacionService.normalizarTextoBasico(caso),
+                    "Distinta normalización para \"" + caso + "\"");
+        }
+    }
+
+    @DisplayName("Los patrones de fecha precompilados aceptan y rechazan lo mismo que ISO_LOCAL_DATE / yyyy/MM/dd")
+    @Test
+    void normalizarFecha_IgualQueParseoAnterior() {
+        NormalizacionService servicio = servicio((t, d, c) -> c, null, 500);
+        List<String> casos = new ArrayList<>(Arrays.asList(
+                "", "abc", "2024-03-05T10:00", "05/03/2024", "2024.03.05", "+2024-03-05", "20240-01-01",
+                "2024-003-05", "2024-03-5-", "24-03-05", "2024-02-29", "2023-02-29", "2024/02/30", "2023/04/31"));
+        for (String anio : new String[]{"0000", "1999", "2023", "2024"}) {
+            for (String separador : new String[]{"-", "/"}) {
+                for (int mes = 0; mes <= 13; mes++) {
+                    for (int dia = 0; dia <= 32; dia++) {
+                        casos.add(anio + separador + mes + separador + dia);
+                        casos.add(anio + separador + String.format("%02d", mes) + separador + String.format("%02d", dia));
+                    }
+                }
+            }
+        }
+
+        for (String caso : casos) {
+            String esperado = resultado(() -> fechaAnterior(caso.trim()).atStartOfDay());
+            String obtenido = resultado(() -> ReflectionTestUtils.invokeMethod(servicio, "normalizarFecha_aaMMdd", caso));
+            assertEquals(esperado, obtenido, "Distinto resultado para \"" + caso + "\"");
+        }
+    }
+
+    @DisplayName("Con tramos en paralelo el resultado conserva el orden de entrada")
+    @Test
+    void normalizar_TramosEnParaleloConservanOrden() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.initialize();
+        try {
+            // Los primeros tramos tardan más, así terminan después que los últimos
+            CategoriaResolverTaxonomico resolver = (titulo, descripcion, categoria) -> {
+                int numero = Integer.parseInt(titulo.substring(titulo.lastIndexOf(' ') + 1));
+                if (numero % 7 == 0 && numero < 50) {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return "categoria/" + numero;
+            };
+            NormalizacionService servicio = servicio(resolver, executor, 7);
+
+            List<Hecho> hechos = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Hecho hecho = new Hecho();
+                hecho.setTitulo("  HECHO\t" + i + " ");
+                hecho.setFechaHecho(LocalDateTime.of(2024, 3, 5, 10, 30));
+                hechos.add(hecho);
+            }
+
+            List<Hecho> normalizados = servicio.normalizar(hechos);
+
+            assertEquals(100, normalizados.size());
+            for (int i = 0; i < 100; i++) {
+                assertSame(hechos.get(i), normalizados.get(i), "El hecho " + i + " quedó fuera de lugar");
+                assertEquals("hecho " + i, normalizados.get(i).getTitulo());
+                assertEquals("categoria/" + i, normalizados.get(i).getCategoria());
+                assertEquals(LocalDateTime.of(2024, 3, 5, 0, 0), normalizados.get(i).getFechaHecho());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.metamapa.service.normalizacion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaxonomiaCompiladaTest {
+
+    private final TaxonomiaCompilada demo = TaxonomiaCompilada.compilar(CargadorTaxonomia.taxonomiaDemo());
+
+    @DisplayName("Clasifica en la hoja con más keywords encontrados")
+    @Test
+    void clasificar_HojaConMasCoincidencias() {
+        // "incendio forestal" + "bosque" (incendio_forestal) le ganan a "incendio" (incendio_urbano)
+        assertEquals("ambiental/fuego/incendio_forestal", demo.clasificar("Incendio forestal en el bosque"));
+        assertEquals("ambiental/fuego/incendio_urbano", demo.clasificar("Incendio en un edificio del barrio"));
+    }
+
+    @DisplayName("Ignora mayúsculas, tildes y espacios repetidos del texto")
+    @Test
+    void clasificar_NormalizaElTexto() {
+        assertEquals("ambiental/hidrometeo/inundacion", demo.clasificar("INUNDACIÓN por la Crecida del río"));
+        assertEquals("ambiental/hidrometeo/tormenta_severa", demo.clasificar("Alerta   meteorológica\tpor granizo"));
+    }
+
+    @DisplayName("Un keyword puede quedar repartido entre dos partes del texto")
+    @Test
+    void clasificar_KeywordEntrePartes() {
+        assertEquals("seguridad/accidente_vial/choque_multiple", demo.clasificar("Choque", null, "múltiple en ruta 2"));
+    }
+
+    @DisplayName("Cada keyword suma una sola vez aunque se repita en el texto")
+    @Test
+    void clasificar_KeywordRepetidoSumaUnaVez() {
+        assertEquals("seguridad/delitos/homicidio", demo.clasificar("robo robo robo", "homicidio", "asesinato"));
+    }
+
+    @DisplayName("Sin texto o sin coincidencias devuelve la categoría global de otros")
+    @Test
+    void clasificar_SinCoincidencias() {
+        assertEquals(TaxonomiaCompilada.OTROS_GLOBAL, demo.clasificar());
+        assertEquals(TaxonomiaCompilada.OTROS_GLOBAL, demo.clasificar(null, "   "));
+        assertEquals(TaxonomiaCompilada.OTROS_GLOBAL, demo.clasificar("Corte de calle por una feria"));
+    }
+
+    @DisplayName("Encuentra keywords solapados y que son sufijo de otros (enlaces de falla)")
+    @Test
+    void clasificar_KeywordsSolapados() {
+        Map<String, List<String>> hojas = new LinkedHashMap<>();
+        hojas.put("uno", Arrays.asList("his"));
+        hojas.put("tres", Arrays.asList("she", "he", "hers"));
+        TaxonomiaCompilada t = TaxonomiaCompilada.compilar(taxonomia("macro", "sub", hojas));
+
+        // "ushers" contiene she, he y hers; his no aparece
+        assertEquals("macro/sub/tres", t.clasificar("ushers"));
+        assertEquals("macro/sub/uno", t.clasificar("this"));
+        assertEquals(TaxonomiaCompilada.OTROS_GLOBAL, t.clasificar("hi"));
+    }
+
+    @DisplayName("Ante un empate gana la primera hoja declarada")
+    @Test
+    void clasificar_EmpateDefinePorOrden() {
+        Map<String, List<String>> hojas = new LinkedHashMap<>();
+        hojas.put("primera", Arrays.asList("alfa"));
+        hojas.put("segunda", Arrays.asList("beta"));
+        TaxonomiaCompilada t = TaxonomiaCompilada.compilar(taxonomia("macro", "sub", hojas));
+
+        assertEquals("macro/sub/primera", t.clasificar("beta y alfa"));
+    }
+
+    @DisplayName("Un keyword repetido en varias hojas se compila una vez y puntúa en todas")
+    @Test
+    void compilar_KeywordCompartido() {
+        Map<String, List<String>> hojas = new LinkedHashMap<>();
+        hojas.put("a", Arrays.asList("Corte", "luz"));
+        hojas.put("b", Arrays.asList("corte", "agua", "  "));
+        TaxonomiaCompilada t = TaxonomiaCompilada.compilar(taxonomia("servicios", "cortes", hojas));
+
+        assertEquals(3, t.cantidadKeywords());
+        assertEquals(2, t.cantidadHojas());
+        assertEquals("servicios/cortes/b", t.clasificar("corte de agua"));
+    }
+
+    @DisplayName("La normalización de keywords coincide con la del texto")
+    @Test
+    void normalizar_MinusculasSinTildesEspaciosColapsados() {
+        assertEquals("senal area norte", TaxonomiaCompilada.normalizar("  Señal   ÁREA\tnorte "));
+        assertNull(TaxonomiaCompilada.normalizar(null));
+    }
+
+    private static Map<String, Map<String, Map<String, List<String>>>> taxonomia(
+            String macro, String subrama, Map<String, List<String>> hojas) {
+        Map<String, Map<String, List<String>>> subramas = new LinkedHashMap<>();
+        subramas.put(subrama, hojas);
+        Map<String, Map<String, Map<String, List<String>>>> tax = new LinkedHashMap<>();
+        tax.put(macro, subramas);
+        return tax;
+    }
+}
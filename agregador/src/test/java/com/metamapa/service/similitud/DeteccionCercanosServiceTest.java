@@ -0,0 +1,113 @@
+package com.metamapa.service.similitud;
+
+import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.ubicaciones.Ubicacion;
+import com.metamapa.repository.FirmaSimilitudRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeteccionCercanosServiceTest {
+
+    @Mock
+    private FirmaSimilitudRepository firmaRepository;
+
+    @InjectMocks
+    private DeteccionCercanosService service;
+
+    @BeforeEach
+    void configurar() {
+        ReflectionTestUtils.setField(service, "habilitado", true);
+        ReflectionTestUtils.setField(service, "umbral", 0.7);
+        ReflectionTestUtils.setField(service, "radioKm", 5.0);
+        ReflectionTestUtils.setField(service, "ventanaHoras", 48L);
+        ReflectionTestUtils.setField(service, "maxCandidatosBanda", 50);
+    }
+
+    @DisplayName("Dos hechos casi iguales del mismo lote se fusionan con el primero")
+    @Test
+    void resolver_FusionaCasiDuplicadosDelLote() {
+        sinCandidatosEnBD();
+        Hecho a = hecho("fp-a", "Incendio forestal en Bariloche", -41.13, -71.30, 10);
+        Hecho b = hecho("fp-b", "incendio forestal Bariloche", -41.14, -71.31, 12);
+
+        DeteccionCercanosService.ResultadoCercanos resultado = service.resolver(Arrays.asList(a, b));
+
+        assertEquals("fp-a", resultado.getAlias().get("fp-b"));
+        assertFalse(resultado.getAlias().containsKey("fp-a"));
+        assertNotNull(resultado.getFirmas().get(a), "La firma calculada se reutiliza al registrar los insertados");
+    }
+
+    @DisplayName("No se fusionan hechos parecidos fuera del radio o de la ventana temporal")
+    @Test
+    void resolver_RespetaRadioYVentana() {
+        sinCandidatosEnBD();
+        Hecho a = hecho("fp-a", "Incendio forestal en Bariloche", -41.13, -71.30, 10);
+        Hecho lejos = hecho("fp-b", "Incendio forestal en Bariloche", -34.60, -58.38, 10);
+        Hecho tarde = hecho("fp-c", "Incendio forestal en Bariloche", -41.13, -71.30, 24 * 5);
+
+        DeteccionCercanosService.ResultadoCercanos resultado = service.resolver(Arrays.asList(a, lejos, tarde));
+
+        assertTrue(resultado.getAlias().isEmpty());
+    }
+
+    @DisplayName("Textos distintos no se fusionan aunque estén en el mismo lugar y fecha")
+    @Test
+    void resolver_NoFusionaTextosDistintos() {
+        sinCandidatosEnBD();
+        Hecho a = hecho("fp-a", "Incendio forestal en Bariloche", -41.13, -71.30, 10);
+        Hecho b = hecho("fp-b", "Corte de luz en el centro", -41.13, -71.30, 10);
+
+        assertTrue(service.resolver(Arrays.asList(a, b)).getAlias().isEmpty());
+    }
+
+    @DisplayName("La búsqueda en BD limita los candidatos por banda al máximo configurado")
+    @Test
+    void resolver_LimitaCandidatosPorBanda() {
+        ReflectionTestUtils.setField(service, "maxCandidatosBanda", 7);
+        sinCandidatosEnBD();
+
+        service.resolver(Arrays.asList(hecho("fp-a", "Incendio forestal en Bariloche", -41.13, -71.30, 10)));
+
+        verify(firmaRepository).buscarPorBandas(anyCollection(), eq(7));
+    }
+
+    @DisplayName("Con la detección deshabilitada no se consulta la BD")
+    @Test
+    void resolver_Deshabilitado() {
+        ReflectionTestUtils.setField(service, "habilitado", false);
+
+        service.resolver(Arrays.asList(hecho("fp-a", "Incendio forestal en Bariloche", -41.13, -71.30, 10)));
+
+        verifyNoInteractions(firmaRepository);
+    }
+
+    private void sinCandidatosEnBD() {
+        when(firmaRepository.buscarPorBandas(anyCollection(), anyInt())).thenReturn(new HashMap<>());
+        when(firmaRepository.buscarDatos(anyCollection())).thenReturn(new HashMap<>());
+    }
+
+    private static Hecho hecho(String fingerprint, String titulo, double latitud, double longitud, int hora) {
+        Hecho h = new Hecho(titulo, null, "Incendio");
+        h.setFingerprint(fingerprint);
+        h.setUbicacion(new Ubicacion(latitud, longitud));
+        h.setFechaHecho(LocalDateTime.of(2025, 3, 1, 0, 0).plusHours(hora));
+        return h;
+    }
+}
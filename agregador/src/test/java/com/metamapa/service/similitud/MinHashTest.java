@@ -0,0 +1,79 @@
+package com.metamapa.service.similitud;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashTest {
+
+    @DisplayName("Textos sin tokens útiles (cortos o palabras vacías) no tienen firma")
+    @Test
+    void firma_NullSinTokensUtiles() {
+        assertNull(MinHash.firma((String) null));
+        assertNull(MinHash.firma("", "  "));
+        assertNull(MinHash.firma("de la en", "los para"));
+    }
+
+    @DisplayName("La firma no depende de mayúsculas, acentos ni del orden de los tokens")
+    @Test
+    void firma_IgualParaElMismoConjuntoDeTokens() {
+        int[] a = MinHash.firma("Incendio forestal en Bariloche");
+        int[] b = MinHash.firma("BARILOCHE: incendio FORESTAL");
+        int[] c = MinHash.firma("incendio", "forestal bariloche");
+
+        assertArrayEquals(a, b);
+        assertArrayEquals(a, c, "Título y descripción se toman como un único conjunto de tokens");
+        assertEquals(1.0, MinHash.similitud(a, b));
+    }
+
+    @DisplayName("La similitud estimada se acerca al Jaccard de los tokens")
+    @Test
+    void similitud_AproximaJaccard() {
+        // 8 tokens en común de 10 distintos: Jaccard 0.8
+        int[] a = MinHash.firma("alfa bravo charlie delta echo foxtrot golf hotel india");
+        int[] b = MinHash.firma("alfa bravo charlie delta echo foxtrot golf hotel juliet");
+        double s = MinHash.similitud(a, b);
+        assertTrue(s > 0.6 && s < 0.95, "Estimación fuera de rango: " + s);
+
+        int[] distinto = MinHash.firma("granizo tormenta mendoza vendimia");
+        assertTrue(MinHash.similitud(a, distinto) < 0.2);
+    }
+
+    @DisplayName("Textos casi iguales comparten alguna banda LSH; textos distintos no")
+    @Test
+    void bandas_CasiDuplicadosComparten() {
+        long[] a = MinHash.bandas(MinHash.firma("Incendio forestal en Bariloche", "Focos activos cerca del cerro Otto"));
+        long[] b = MinHash.bandas(MinHash.firma("incendio forestal Bariloche", "focos activos cerca cerro Otto"));
+        long[] c = MinHash.bandas(MinHash.firma("Corte de luz en Rosario", "Sin suministro eléctrico en zona centro"));
+
+        assertEquals(MinHash.BANDAS, a.length);
+        assertTrue(compartenBanda(a, b));
+        assertFalse(compartenBanda(a, c));
+    }
+
+    @DisplayName("Bandas con el mismo valor en posiciones distintas no se confunden")
+    @Test
+    void bandas_DependenDelNumeroDeBanda() {
+        int[] firma = new int[MinHash.FUNCIONES];
+        long[] bandas = MinHash.bandas(firma);
+        assertNotEquals(bandas[0], bandas[1]);
+    }
+
+    @DisplayName("La firma se guarda y se recupera de bytes sin perder información")
+    @Test
+    void bytes_IdaYVuelta() {
+        int[] firma = MinHash.firma("Inundación en La Plata", "Calles anegadas en el casco urbano");
+        byte[] bytes = MinHash.aBytes(firma);
+
+        assertEquals(MinHash.FUNCIONES * 4, bytes.length);
+        assertArrayEquals(firma, MinHash.desdeBytes(bytes));
+    }
+
+    private static boolean compartenBanda(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.metamapa.benchmarks;
+
+import com.metamapa.entities.hechos.Hecho;
+
+import java.util.Objects;
+
+/**
+ * Envoltorio con la igualdad que generaba Lombok @Data para Hecho antes de la identidad por
+ * ID/fingerprint: compara y hashea todos los campos, incluidas las listas de etiquetas,
+ * multimedias y fuentes. Solo existe como línea de base del benchmark.
+ */
+final class ClavePorCampos {
+
+    private final Hecho hecho;
+
+    ClavePorCampos(Hecho hecho) {
+        this.hecho = hecho;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClavePorCampos)) return false;
+        Hecho a = hecho;
+        Hecho b = ((ClavePorCampos) o).hecho;
+        return a.isEliminado() == b.isEliminado()
+                && a.isEsAnonimo() == b.isEsAnonimo()
+                && a.getContador() == b.getContador()
+                && Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getTitulo(), b.getTitulo())
+                && Objects.equals(a.getDescripcion(), b.getDescripcion())
+                && Objects.equals(a.getCategoria(), b.getCategoria())
+                && Objects.equals(a.getUbicacion(), b.getUbicacion())
+                && Objects.equals(a.getEtiquetas(), b.getEtiquetas())
+                && Objects.equals(a.getFechaHecho(), b.getFechaHecho())
+                && Objects.equals(a.getFechaCarga(), b.getFechaCarga())
+                && Objects.equals(a.getUltimaActualizacion(), b.getUltimaActualizacion())
+                && Objects.equals(a.getOrigen(), b.getOrigen())
+                && Objects.equals(a.getContribuyente(), b.getContribuyente())
+                && Objects.equals(a.getMultimedias(), b.getMultimedias())
+                && Objects.equals(a.getEstadoRevision(), b.getEstadoRevision())
+                && Objects.equals(a.getSugerenciaDeCambio(), b.getSugerenciaDeCambio())
+                && Objects.equals(a.getFingerprint(), b.getFingerprint())
+                && Objects.equals(a.getVersionFingerprint(), b.getVersionFingerprint())
+                && Objects.equals(a.getFuentes(), b.getFuentes())
+                && Objects.equals(a.getOrigenArchivoId(), b.getOrigenArchivoId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hecho.getId(), hecho.getTitulo(), hecho.getDescripcion(), hecho.getCategoria(),
+                hecho.getUbicacion(), hecho.getEtiquetas(), hecho.getFechaHecho(), hecho.getFechaCarga(),
+                hecho.getUltimaActualizacion(), hecho.getOrigen(), hecho.getContribuyente(),
+                hecho.getMultimedias(), hecho.isEliminado(), hecho.getEstadoRevision(),
+                hecho.getSugerenciaDeCambio(), hecho.isEsAnonimo(), hecho.getContador(),
+                hecho.getFingerprint(), hecho.getVersionFingerprint(), hecho.getFuentes(),
+                hecho.getOrigenArchivoId());
+    }
+}
@@ -0,0 +1,69 @@
+package com.metamapa.benchmarks;
+
+import com.metamapa.entities.hechos.FingerprintHecho;
+import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.hechos.Huella;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por hecho del fingerprint: {@link FingerprintHecho} (digest por hilo, sin String intermedio)
+ * contra el cálculo histórico, y la huella binaria de 128 bits.
+ * Correr con -prof gc para ver también los bytes asignados por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FingerprintHechoBenchmark {
+
+    private static final int CANTIDAD = 1024; // potencia de 2: el índice se recorta con una máscara
+
+    @Param({"false", "true"})
+    public boolean acentos;
+
+    private Hecho[] hechos;
+    private int indice;
+
+    @Setup
+    public void preparar() {
+        hechos = HechosDePrueba.generar(CANTIDAD, acentos, 42L);
+        for (Hecho hecho : hechos) {
+            if (!FingerprintHecho.calcular(hecho).equals(FingerprintHistorico.calcular(hecho))) {
+                throw new IllegalStateException("El fingerprint actual difiere del histórico: " + hecho.getTitulo());
+            }
+        }
+    }
+
+    private Hecho siguiente() {
+        return hechos[indice++ & (CANTIDAD - 1)];
+    }
+
+    @Benchmark
+    public String fingerprintActual() {
+        return FingerprintHecho.calcular(siguiente());
+    }
+
+    @Benchmark
+    public String fingerprintHistorico() {
+        return FingerprintHistorico.calcular(siguiente());
+    }
+
+    @Benchmark
+    public Huella huella() {
+        return FingerprintHecho.calcularHuella(siguiente());
+    }
+}
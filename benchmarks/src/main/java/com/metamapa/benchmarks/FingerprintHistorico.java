@@ -0,0 +1,61 @@
+package com.metamapa.benchmarks;
+
+import com.metamapa.entities.hechos.Hecho;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Copia del cálculo de fingerprint anterior a {@link com.metamapa.entities.hechos.FingerprintHecho}
+ * (String intermedio, MessageDigest nuevo por llamada, hex con Integer.toHexString).
+ * Solo existe como línea de base del benchmark; produce el mismo resultado.
+ */
+final class FingerprintHistorico {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private FingerprintHistorico() {
+    }
+
+    static String calcular(Hecho hecho) {
+        StringBuilder sb = new StringBuilder();
+        if (hecho.getTitulo() != null) {
+            sb.append(hecho.getTitulo().toLowerCase().trim());
+        }
+        sb.append("|");
+        if (hecho.getDescripcion() != null) {
+            sb.append(hecho.getDescripcion().toLowerCase().trim());
+        }
+        sb.append("|");
+        if (hecho.getCategoria() != null) {
+            sb.append(hecho.getCategoria());
+        }
+        sb.append("|");
+        if (hecho.getUbicacion() != null) {
+            sb.append(hecho.getUbicacion().getLatitud()).append(",");
+            sb.append(hecho.getUbicacion().getLongitud());
+        }
+        sb.append("|");
+        if (hecho.getFechaHecho() != null) {
+            sb.append(hecho.getFechaHecho().format(FORMATTER));
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
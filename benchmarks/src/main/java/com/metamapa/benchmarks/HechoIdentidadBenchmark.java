@@ -0,0 +1,93 @@
+package com.metamapa.benchmarks;
+
+import com.metamapa.entities.hechos.FingerprintHecho;
+import com.metamapa.entities.hechos.Hecho;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hecho como clave de HashMap (como en Coleccion.hechos): identidad por ID/fingerprint de
+ * {@link Hecho#equals}/{@link Hecho#hashCode} contra la igualdad campo a campo de Lombok
+ * ({@link ClavePorCampos}). Cada operación arma el mapa con todos los hechos y busca cada uno.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HechoIdentidadBenchmark {
+
+    @Param({"1000", "10000"})
+    public int cantidad;
+
+    // true: hechos con ID (persistidos); false: transitorios, se comparan por fingerprint
+    @Param({"true", "false"})
+    public boolean persistidos;
+
+    private Hecho[] hechos;
+    private ClavePorCampos[] clavesPorCampos;
+
+    @Setup
+    public void preparar() {
+        hechos = HechosDePrueba.generar(cantidad, false, 7L);
+        clavesPorCampos = new ClavePorCampos[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            FingerprintHecho.asignar(hechos[i]);
+            if (persistidos) {
+                hechos[i].setId((long) i + 1);
+            }
+            clavesPorCampos[i] = new ClavePorCampos(hechos[i]);
+        }
+    }
+
+    @Benchmark
+    public void mapaPorIdentidad(Blackhole bh) {
+        Map<Hecho, Boolean> mapa = new HashMap<>();
+        for (Hecho hecho : hechos) {
+            mapa.put(hecho, Boolean.FALSE);
+        }
+        for (Hecho hecho : hechos) {
+            bh.consume(mapa.get(hecho));
+        }
+    }
+
+    @Benchmark
+    public void mapaPorCampos(Blackhole bh) {
+        Map<ClavePorCampos, Boolean> mapa = new HashMap<>();
+        for (ClavePorCampos clave : clavesPorCampos) {
+            mapa.put(clave, Boolean.FALSE);
+        }
+        for (ClavePorCampos clave : clavesPorCampos) {
+            bh.consume(mapa.get(clave));
+        }
+    }
+
+    @Benchmark
+    public void hashCodePorIdentidad(Blackhole bh) {
+        for (Hecho hecho : hechos) {
+            bh.consume(hecho.hashCode());
+        }
+    }
+
+    @Benchmark
+    public void hashCodePorCampos(Blackhole bh) {
+        for (ClavePorCampos clave : clavesPorCampos) {
+            bh.consume(clave.hashCode());
+        }
+    }
+}
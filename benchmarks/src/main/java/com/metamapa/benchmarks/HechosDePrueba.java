@@ -0,0 +1,66 @@
+package com.metamapa.benchmarks;
+
+import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.hechos.OrigenHecho;
+import com.metamapa.entities.ubicaciones.Ubicacion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hechos sintéticos, con semilla fija, para que las corridas sean comparables entre sí.
+ */
+final class HechosDePrueba {
+
+    private static final String[] CATEGORIAS = {
+            "Incendio forestal", "Inundación", "Accidente vial", "Derrame químico", "Corte de energía"
+    };
+    private static final String[] PALABRAS_ASCII = {
+            "fuego", "ruta", "camion", "vecinos", "rio", "crecida", "puente", "corte", "zona", "norte"
+    };
+    private static final String[] PALABRAS_ACENTOS = {
+            "incendio", "Córdoba", "inundación", "Neuquén", "camión", "evacuación", "río", "daño", "zona", "güemes"
+    };
+
+    private HechosDePrueba() {
+    }
+
+    /**
+     * @param acentos si los textos incluyen caracteres no ASCII (camino lento del fingerprint)
+     */
+    static Hecho[] generar(int cantidad, boolean acentos, long semilla) {
+        Random random = new Random(semilla);
+        String[] palabras = acentos ? PALABRAS_ACENTOS : PALABRAS_ASCII;
+        Hecho[] hechos = new Hecho[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            Hecho hecho = new Hecho(
+                    "  " + frase(random, palabras, 6) + " ",
+                    frase(random, palabras, 40),
+                    CATEGORIAS[random.nextInt(CATEGORIAS.length)],
+                    new Ubicacion(-55 + random.nextDouble() * 33, -73 + random.nextDouble() * 20),
+                    LocalDateTime.of(2020, 1, 1, 0, 0).plusSeconds(random.nextInt(150_000_000)),
+                    OrigenHecho.values()[random.nextInt(OrigenHecho.values().length)],
+                    new ArrayList<>(Arrays.asList("etiqueta-" + random.nextInt(50), "etiqueta-" + random.nextInt(50))),
+                    null);
+            List<String> fuentes = new ArrayList<>();
+            for (int f = 0; f < 3; f++) {
+                fuentes.add("fuente-" + random.nextInt(10));
+            }
+            hecho.setFuentes(fuentes);
+            hechos[i] = hecho;
+        }
+        return hechos;
+    }
+
+    private static String frase(Random random, String[] palabras, int largo) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < largo; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(palabras[random.nextInt(palabras.length)]);
+        }
+        return sb.toString();
+    }
+}
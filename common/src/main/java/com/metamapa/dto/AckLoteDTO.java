@@ -0,0 +1,28 @@
+package com.metamapa.dto;
+
+import lombok.Data;
+
+// Confirmación del agregador: el lote [offsetInicio, offsetFin) ya quedó depurado y persistido.
+
+@Data
+public class AckLoteDTO {
+    private Long archivoId;
+    private long offsetInicio;
+    private long offsetFin;
+    private long filaFin;
+    private int cantidadHechos;
+    private int filasSalteadas;
+    private boolean ultimo;
+
+    public static AckLoteDTO de(LoteHechosDTO lote) {
+        AckLoteDTO ack = new AckLoteDTO();
+        ack.setArchivoId(lote.getArchivoId());
+        ack.setOffsetInicio(lote.getOffsetInicio());
+        ack.setOffsetFin(lote.getOffsetFin());
+        ack.setFilaFin(lote.getFilaFin());
+        ack.setCantidadHechos(lote.getHechos() != null ? lote.getHechos().size() : 0);
+        ack.setFilasSalteadas(lote.getFilasSalteadas());
+        ack.setUltimo(lote.isUltimo());
+        return ack;
+    }
+}
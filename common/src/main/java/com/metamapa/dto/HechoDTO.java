@@ -29,6 +29,7 @@ public class HechoDTO {
     private List<String> etiquetas;
     private LocalDateTime fechaHecho;
     private LocalDateTime fechaCarga;
+    private LocalDateTime ultimaActualizacion; // cursor de sincronización incremental
     private OrigenHecho origen;
     private Contribuyente contribuyente;
     private List<Multimedia> multimedias;
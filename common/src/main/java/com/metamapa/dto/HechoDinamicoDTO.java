@@ -19,6 +19,7 @@ public class HechoDinamicoDTO {
     private List<String> etiquetas;
     private LocalDateTime fechaHecho;
     private LocalDateTime fechaCarga;
+    private LocalDateTime ultimaActualizacion; // cursor de sincronización incremental
     private EstadoRevision estadoRevision; // PENDIENTE, ACEPTADO, RECHAZADO
     private String sugerenciaDeCambio;
     private boolean esAnonimo;
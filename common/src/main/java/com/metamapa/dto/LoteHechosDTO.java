@@ -0,0 +1,21 @@
+package com.metamapa.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Tramo de un archivo CSV que la fuente estática entrega al agregador.
+// Los offsets son bytes del archivo (siempre en límite de registro); el checkpoint del archivo
+// recién avanza a offsetFin cuando el agregador confirma el lote con un AckLoteDTO.
+
+@Data
+public class LoteHechosDTO {
+    private Long archivoId;
+    private long offsetInicio;
+    private long offsetFin;
+    private long filaFin;        // última fila leída (la cabecera es la fila 1)
+    private int filasSalteadas;  // filas inválidas dentro del tramo
+    private boolean ultimo;      // true si el lote llega hasta el final del archivo
+    private List<HechoDTO> hechos = new ArrayList<>();
+}
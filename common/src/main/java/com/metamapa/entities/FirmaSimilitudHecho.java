@@ -0,0 +1,50 @@
+package com.metamapa.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Firma MinHash de título + descripción de un hecho y sus bandas LSH, usadas por la
+ * detección de casi-duplicados del agregador. Las bandas se consultan por el índice
+ * (banda, valor): buscar candidatos son B lecturas puntuales, no un recorrido de la tabla hecho.
+ * El agregador las lee y escribe por JDBC; la entidad define el esquema.
+ */
+@Entity
+@Table(name = "hecho_firma_minhash")
+@Data
+@NoArgsConstructor
+public class FirmaSimilitudHecho {
+
+    @Id
+    @Column(name = "hecho_id")
+    private Long hechoId;
+
+    /**
+     * Mínimos de cada función hash, 4 bytes big-endian por función.
+     */
+    @Column(name = "firma", nullable = false, length = 256)
+    private byte[] firma;
+
+    @ElementCollection
+    @CollectionTable(name = "hecho_banda_lsh", joinColumns = @JoinColumn(name = "hecho_id"),
+            indexes = @Index(name = "idx_hecho_banda_lsh", columnList = "banda, valor"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_hecho_banda_lsh", columnNames = {"hecho_id", "banda"}))
+    private List<BandaLsh> bandas = new ArrayList<>();
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BandaLsh {
+        @Column(name = "banda", nullable = false)
+        private int banda;
+
+        @Column(name = "valor", nullable = false)
+        private long valor;
+    }
+}
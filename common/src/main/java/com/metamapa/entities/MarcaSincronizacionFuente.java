@@ -0,0 +1,45 @@
+package com.metamapa.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua (watermark) de la sincronización incremental con cada fuente.
+ * Guarda el mayor ultimaActualizacion recibido de la fuente y ya depurado,
+ * para pedir en la próxima corrida solo los hechos posteriores ({@code ?since=}).
+ */
+@Entity
+@Table(name = "marca_sincronizacion_fuente")
+@Data
+@NoArgsConstructor
+public class MarcaSincronizacionFuente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identificador de la fuente (FuenteDeDatos.getIdentificador()).
+     */
+    @Column(name = "identificador_fuente", nullable = false, unique = true)
+    private String identificadorFuente;
+
+    /**
+     * Mayor ultimaActualizacion confirmada para esta fuente.
+     */
+    @Column(name = "ultima_actualizacion")
+    private LocalDateTime ultimaActualizacion;
+
+    /**
+     * Momento en que se confirmó la marca por última vez.
+     */
+    @Column(name = "fecha_ultima_sincronizacion")
+    private LocalDateTime fechaUltimaSincronizacion;
+
+    public MarcaSincronizacionFuente(String identificadorFuente) {
+        this.identificadorFuente = identificadorFuente;
+    }
+}
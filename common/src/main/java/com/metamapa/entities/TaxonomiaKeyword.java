@@ -0,0 +1,34 @@
+package com.metamapa.entities;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Keyword de la taxonomía de categorías: una fila por (macro, subrama, hoja, keyword).
+ * El orden de las filas (id) define el orden de desempate entre nodos.
+ * El agregador la lee por JDBC cuando {@code metamapa.taxonomia.origen=bd}; la entidad define el esquema.
+ */
+@Entity
+@Table(name = "taxonomia_keyword")
+@Data
+@NoArgsConstructor
+public class TaxonomiaKeyword {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String macro;
+
+    @Column(nullable = false)
+    private String subrama;
+
+    @Column(nullable = false)
+    private String hoja;
+
+    @Column(nullable = false)
+    private String keyword;
+}
@@ -36,6 +36,7 @@ public class HechoMapper {
         dto.setEtiquetas(h.getEtiquetas() != null ? new ArrayList<>(h.getEtiquetas()) : new ArrayList<>());
         dto.setFechaHecho(h.getFechaHecho());
         dto.setFechaCarga(h.getFechaCarga());
+        dto.setUltimaActualizacion(h.getUltimaActualizacion());
         dto.setOrigen(h.getOrigen());
 
         // Contribuyente
@@ -15,6 +15,9 @@ public interface ColeccionFuenteRepository extends JpaRepository<ColeccionFuente
     @Query("SELECT cf FROM ColeccionFuente cf WHERE cf.coleccion.identificador = :coleccionId")
     List<ColeccionFuente> findByColeccionId(@Param("coleccionId") Long coleccionId);
     
+    @Query("SELECT cf.identificadorFuente FROM ColeccionFuente cf WHERE cf.coleccion.identificador = :coleccionId")
+    List<String> findIdentificadoresFuenteByColeccionId(@Param("coleccionId") Long coleccionId);
+    
     @Query("SELECT cf FROM ColeccionFuente cf WHERE cf.identificadorFuente = :identificadorFuente")
     List<ColeccionFuente> findByIdentificadorFuente(@Param("identificadorFuente") String identificadorFuente);
     
@@ -15,6 +15,12 @@ public interface ColeccionHechoRepository extends JpaRepository<ColeccionHecho,
     @Query("SELECT ch FROM ColeccionHecho ch WHERE ch.coleccion.identificador = :coleccionId")
     List<ColeccionHecho> findByColeccionId(@Param("coleccionId") Long coleccionId);
     
+    /**
+     * Flags persistidos de una colección como filas [id_hecho, consensuado], sin hidratar hechos.
+     */
+    @Query("SELECT ch.hecho.id, ch.consensuado FROM ColeccionHecho ch WHERE ch.coleccion.identificador = :coleccionId")
+    List<Object[]> findIdHechoYConsensuadoByColeccionId(@Param("coleccionId") Long coleccionId);
+    
     @Query("SELECT ch FROM ColeccionHecho ch WHERE ch.coleccion.identificador = :coleccionId AND ch.consensuado = :consensuado")
     List<ColeccionHecho> findByColeccionIdAndConsensuado(@Param("coleccionId") Long coleccionId, @Param("consensuado") Boolean consensuado);
     
@@ -2,8 +2,11 @@ package com.metamapa.repository;
 
 import com.metamapa.entities.HechoOrigenArchivo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,4 +29,12 @@ public interface HechoOrigenArchivoRepository extends JpaRepository<HechoOrigenA
      * Evita duplicados en la tabla intermedia.
      */
     boolean existsByHechoIdAndArchivoId(Long hechoId, Long archivoId);
+    
+    /**
+     * Versión en lote de existsByHechoIdAndArchivoId: de los hechos indicados,
+     * devuelve los que ya están vinculados al archivo.
+     */
+    @Query("SELECT r.hecho.id FROM HechoOrigenArchivo r WHERE r.archivoId = :archivoId AND r.hecho.id IN :hechoIds")
+    List<Long> findHechoIdsVinculadosAArchivo(@Param("archivoId") Long archivoId,
+                                              @Param("hechoIds") Collection<Long> hechoIds);
 }
@@ -0,0 +1,13 @@
+package com.metamapa.repository;
+
+import com.metamapa.entities.MarcaSincronizacionFuente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MarcaSincronizacionFuenteRepository extends JpaRepository<MarcaSincronizacionFuente, Long> {
+
+    Optional<MarcaSincronizacionFuente> findByIdentificadorFuente(String identificadorFuente);
+}
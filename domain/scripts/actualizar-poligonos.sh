@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Regenera domain/src/main/resources/geo/{provincias,municipios}.geojson con los polígonos
+# oficiales del IGN (capas WFS ign:provincia e ign:municipio), en el formato que lee
+# GeocodificadorInverso: FeatureCollection con "nombre" y, en municipios, "provincia".
+#
+# Uso: domain/scripts/actualizar-poligonos.sh
+# Requiere curl y python3. Las URLs se pueden cambiar con IGN_PROVINCIAS_URL / IGN_MUNICIPIOS_URL.
+set -euo pipefail
+
+WFS="https://wms.ign.gob.ar/geoserver/ows?service=WFS&version=1.0.0&request=GetFeature&outputFormat=application/json&srsName=EPSG:4326"
+PROVINCIAS_URL="${IGN_PROVINCIAS_URL:-$WFS&typeName=ign:provincia}"
+MUNICIPIOS_URL="${IGN_MUNICIPIOS_URL:-$WFS&typeName=ign:municipio}"
+
+DESTINO="$(cd "$(dirname "$0")/.." && pwd)/src/main/resources/geo"
+TEMPORAL="$(mktemp -d)"
+trap 'rm -rf "$TEMPORAL"' EXIT
+
+echo "Descargando provincias: $PROVINCIAS_URL"
+curl -fsSL "$PROVINCIAS_URL" -o "$TEMPORAL/provincias.json"
+echo "Descargando municipios: $MUNICIPIOS_URL"
+curl -fsSL "$MUNICIPIOS_URL" -o "$TEMPORAL/municipios.json"
+
+python3 - "$TEMPORAL" "$DESTINO" <<'PY'
+import json, sys
+
+origen, destino = sys.argv[1], sys.argv[2]
+
+def leer(nombre):
+    with open(f"{origen}/{nombre}.json", encoding="utf-8") as f:
+        return json.load(f)["features"]
+
+def redondear(coordenadas):
+    # 5 decimales (~1 m) alcanzan para resolver provincia/municipio y achican el archivo
+    if isinstance(coordenadas[0], (int, float)):
+        return [round(coordenadas[0], 5), round(coordenadas[1], 5)]
+    return [redondear(c) for c in coordenadas]
+
+def nombre(propiedades):
+    for campo in ("nombre", "nam", "fna", "name"):
+        if propiedades.get(campo):
+            return propiedades[campo].strip()
+    return None
+
+def feature(nombre_region, geometria, provincia=None):
+    propiedades = {"nombre": nombre_region}
+    if provincia:
+        propiedades["provincia"] = provincia
+    return {"type": "Feature", "properties": propiedades,
+            "geometry": {"type": geometria["type"], "coordinates": redondear(geometria["coordinates"])}}
+
+def escribir(archivo, features):
+    with open(f"{destino}/{archivo}", "w", encoding="utf-8") as f:
+        json.dump({"type": "FeatureCollection", "features": features}, f, ensure_ascii=False, separators=(",", ":"))
+    print(f"{archivo}: {len(features)} regiones")
+
+validas = lambda fs: [f for f in fs if f.get("geometry") and f["geometry"]["type"] in ("Polygon", "MultiPolygon")]
+
+provincias = validas(leer("provincias"))
+# Código INDEC de provincia (in1, 2 dígitos) → nombre; los municipios empiezan con ese código
+provincia_por_codigo = {p["properties"].get("in1"): nombre(p["properties"]) for p in provincias}
+escribir("provincias.geojson", [feature(nombre(p["properties"]), p["geometry"]) for p in provincias])
+
+municipios = []
+for m in validas(leer("municipios")):
+    codigo = str(m["properties"].get("in1") or "")
+    municipios.append(feature(nombre(m["properties"]), m["geometry"], provincia_por_codigo.get(codigo[:2])))
+escribir("municipios.geojson", municipios)
+PY
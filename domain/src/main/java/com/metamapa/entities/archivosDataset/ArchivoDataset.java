@@ -34,10 +34,21 @@ public class ArchivoDataset {
     @Column(nullable = false)
     private LocalDateTime fechaCarga;
     
+    // Momento en que pasó a PROCESADO; cursor de sincronización incremental del agregador
+    private LocalDateTime fechaProcesamiento;
+    
     // Estadísticas del procesamiento
     private Integer filasProcesadas = 0;
     private Integer hechoInsertados = 0;
     private Integer filasSalteadas = 0;
+
+    // Checkpoint de lectura: byte (inicio de registro) y fila hasta donde el agregador confirmó.
+    // Un archivo PENDIENTE con offset > 0 está a medio importar y se retoma desde ahí.
+    @Column(name = "offset_checkpoint")
+    private Long offsetCheckpoint = 0L;
+
+    @Column(name = "fila_checkpoint")
+    private Long filaCheckpoint = 0L;
     
     @Column(length = 5000)
     private String errores;
@@ -2,8 +2,6 @@ package com.metamapa.entities.colecciones;
 
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
-import com.metamapa.entities.hechos.Hecho;
-import java.util.List;
 
 @JsonTypeInfo(
     use = JsonTypeInfo.Id.NAME,
@@ -17,5 +15,12 @@ import java.util.List;
     @JsonSubTypes.Type(value = PorDefecto.class, name = "por_defecto")
 })
 public interface AlgoritmoDeConsenso {
-    List<Hecho> filtrarConsensuados(List<Hecho> hechos, List<List<Hecho>> hechosPorFuente);
-}
\ No newline at end of file
+    /**
+     * Decide el consenso de un único hecho a partir de sus menciones.
+     * Permite re-evaluar solo los hechos cuyas fuentes cambiaron, sin recorrer toda la colección.
+     *
+     * @param menciones    cantidad de fuentes de la colección que reportaron el hecho
+     * @param totalFuentes cantidad de fuentes seleccionadas en la colección
+     */
+    boolean esConsensuado(int menciones, int totalFuentes);
+}
@@ -5,14 +5,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.MetodoDeNavegacion;
 import com.metamapa.entities.criterioDePertenencia.Criterio;
+import com.metamapa.entities.criterioDePertenencia.CriterioCompuesto;
 import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.entities.rol.Contribuyente;
-import com.metamapa.entities.ubicaciones.Lugar;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.persistence.*;
@@ -83,6 +82,8 @@ public class Coleccion {
     @Transient private Map<Hecho, Boolean> hechos = new HashMap<>();
     @JsonIgnore // Ignorar el campo transitorio de criterios, usar criteriosPersistentes
     @Transient private List<Criterio> criterios = new ArrayList<>();
+    @JsonIgnore // Conjunción compilada de `criterios` (se recompila si la lista cambia)
+    @Transient private CriterioCompuesto criterioCompilado;
     
    /* @OneToMany(mappedBy = "coleccion", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ColeccionFuente> fuentesPersistentes = new ArrayList<>();
@@ -141,6 +142,7 @@ public class Coleccion {
                 Criterio criterio = cc.toCriterio();
                 if (criterio != null) criterios.add(criterio);
             }
+            criterioCompilado = null;
         }
         //cargarHechosDesdeEntidadesPersistentes();
         //cargarCriteriosDesdeEntidadesPersistentes();
@@ -156,70 +158,12 @@ public class Coleccion {
     private void cargarCriteriosDesdeEntidadesPersistentes() {
         criterios.clear();
         for (ColeccionCriterio cc : criteriosPersistentes) {
-            Criterio criterio = crearCriterioDesdeEntidad(cc);
+            Criterio criterio = cc.toCriterio();
             if (criterio != null) {
                 criterios.add(criterio);
             }
         }
-    }
-
-    /**
-     * Factory method mejorado para crear criterios desde entidades persistentes
-     * Este método maneja todos los tipos de criterios existentes
-     */
-
-    private Criterio crearCriterioDesdeEntidad(ColeccionCriterio cc) {
-        // Factory method para crear criterios desde entidades persistentes
-        switch (cc.getTipoCriterio()) {
-            case "CATEGORIA":
-                return hecho -> hecho.getCategoria() != null && hecho.getCategoria().equalsIgnoreCase(cc.getValor());
-            case "TITULO":
-                return hecho -> hecho.getTitulo() != null && hecho.getTitulo().toLowerCase().contains(cc.getValor().toLowerCase());
-            case "DESCRIPCION":
-                return hecho -> hecho.getDescripcion() != null && hecho.getDescripcion().toLowerCase().contains(cc.getValor().toLowerCase());
-            case "FECHA_CARGA":
-                return hecho -> {
-                    if (hecho.getFechaCarga() == null || cc.getFechaDesde() == null || cc.getFechaHasta() == null) {
-                        return false;
-                    }
-                    LocalDateTime fecha = hecho.getFechaCarga();
-                    return (fecha.isEqual(cc.getFechaDesde()) || fecha.isAfter(cc.getFechaDesde())) &&
-                           (fecha.isEqual(cc.getFechaHasta()) || fecha.isBefore(cc.getFechaHasta()));
-                };
-            case "FECHA_ACONTECIMIENTO":
-                return hecho -> {
-                    if (hecho.getFechaHecho() == null || cc.getFechaDesde() == null || cc.getFechaHasta() == null) {
-                        return false;
-                    }
-                    LocalDateTime fecha = hecho.getFechaHecho();
-                    return (fecha.isEqual(cc.getFechaDesde()) || fecha.isAfter(cc.getFechaDesde())) &&
-                           (fecha.isEqual(cc.getFechaHasta()) || fecha.isBefore(cc.getFechaHasta()));
-                };
-            case "UBICACION":
-                return hecho -> {
-                    if (hecho.getUbicacion() == null) {
-                        return false;
-                    }
-                    try {
-                        Lugar lugarHecho = hecho.getUbicacion().convertirALugar();
-
-                        if (cc.getPais() != null && !cc.getPais().equalsIgnoreCase(lugarHecho.getPais())) {
-                            return false;
-                        }
-                        if (cc.getProvincia() != null && !cc.getProvincia().equalsIgnoreCase(lugarHecho.getProvincia())) {
-                            return false;
-                        }
-                        if (cc.getMunicipio() != null && !cc.getMunicipio().equalsIgnoreCase(lugarHecho.getMunicipio())) {
-                            return false;
-                        }
-                        return true;
-                    } catch (Exception e) {
-                        return false; // Si hay error al convertir ubicación
-                    }
-                };
-            default:
-                return null;
-        }
+        criterioCompilado = null;
     }
 
     // Métodos para sincronizar datos transitorios a entidades persistentes
@@ -291,30 +235,6 @@ public class Coleccion {
         }
     }
 
-    /**
-     * Ejecuta el algoritmo de consenso para marcar los hechos como consensuados
-     */
-    public void ejecutarAlgoritmoDeConsenso() {
-        List<Hecho> todosLosHechos = new ArrayList<>(hechos.keySet());
-
-        if (algoritmoDeConsenso == null) {
-            // Sin algoritmo, todos los hechos se consideran consensuados
-            hechos.replaceAll((hecho, consensuado) -> true);
-        } else {
-            List<List<Hecho>> hechosPorFuente = new ArrayList<>();
-            for (FuenteDeDatos fuente : fuentes) {
-                hechosPorFuente.add(fuente.obtenerHechos());
-            }
-            List<Hecho> hechosConsensuadosResultado = algoritmoDeConsenso
-                    .filtrarConsensuados(todosLosHechos, hechosPorFuente);
-
-            // Marcar hechos como consensuados según el resultado del algoritmo
-            for (Hecho hecho : hechos.keySet()) {
-                hechos.put(hecho, hechosConsensuadosResultado.contains(hecho));
-            }
-        }
-    }
-
     /**
      * Devuelve los hechos según el modo de navegación elegido
      */
@@ -330,14 +250,27 @@ public class Coleccion {
     }
 
     public List<Hecho> obtenerHechosFiltradosPorCriterios() {
-        return hechos.keySet().stream()
-                .filter(this::cumpleTodosLosCriterios)
-                .collect(Collectors.toList());
+        CriterioCompuesto filtro = criterioCompilado();
+        if (filtro.esVacio()) {
+            return new ArrayList<>(hechos.keySet());
+        }
+        List<Hecho> filtrados = new ArrayList<>();
+        for (Hecho hecho : hechos.keySet()) {
+            if (filtro.cumpleCriterio(hecho)) filtrados.add(hecho);
+        }
+        return filtrados;
     }
 
-    private boolean cumpleTodosLosCriterios(Hecho hecho) {
-        return criterios == null || criterios.isEmpty()
-                || criterios.stream().allMatch(c -> c.cumpleCriterio(hecho));
+    /**
+     * Criterios compilados en un solo predicado; se recompila si se reemplazó o modificó la lista.
+     */
+    private CriterioCompuesto criterioCompilado() {
+        CriterioCompuesto compilado = criterioCompilado;
+        if (compilado == null || !compilado.compiladoDe(criterios)) {
+            compilado = CriterioCompuesto.de(criterios);
+            criterioCompilado = compilado;
+        }
+        return compilado;
     }
 
     public void agregarHecho(Hecho hecho) {
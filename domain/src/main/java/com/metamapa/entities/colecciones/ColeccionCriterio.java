@@ -2,8 +2,7 @@ package com.metamapa.entities.colecciones;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.metamapa.entities.criterioDePertenencia.Criterio;
-import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.criterioDePertenencia.*;
 import com.metamapa.entities.ubicaciones.Lugar;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -76,53 +75,29 @@ public class ColeccionCriterio {
         this.municipio = municipio;
     }
 
+    /**
+     * Criterio compilado para esta fila: constantes ya normalizadas y costo conocido
+     * (ver {@link CriterioCompuesto}).
+     */
     public Criterio toCriterio() {
         switch (this.tipoCriterio) {
             case "CATEGORIA":
-                return hecho -> hecho.getCategoria() != null &&
-                        hecho.getCategoria().equalsIgnoreCase(this.valor);
+                return new CriterioCategoria(this.valor);
 
             case "TITULO":
-                return hecho -> hecho.getTitulo() != null &&
-                        hecho.getTitulo().toLowerCase().contains(this.valor.toLowerCase());
+                return new CriterioTitulo(this.valor);
 
             case "DESCRIPCION":
-                return hecho -> hecho.getDescripcion() != null &&
-                        hecho.getDescripcion().toLowerCase().contains(this.valor.toLowerCase());
+                return new CriterioDescripcion(this.valor);
 
             case "FECHA_CARGA":
-                return hecho -> {
-                    if (hecho.getFechaCarga() == null || this.fechaDesde == null || this.fechaHasta == null)
-                        return false;
-                    LocalDateTime fecha = hecho.getFechaCarga();
-                    return (fecha.isEqual(this.fechaDesde) || fecha.isAfter(this.fechaDesde))
-                            && (fecha.isEqual(this.fechaHasta) || fecha.isBefore(this.fechaHasta));
-                };
+                return new CriterioFechaCarga(this.fechaDesde, this.fechaHasta);
 
             case "FECHA_ACONTECIMIENTO":
-                return hecho -> {
-                    if (hecho.getFechaHecho() == null || this.fechaDesde == null || this.fechaHasta == null)
-                        return false;
-                    LocalDateTime fecha = hecho.getFechaHecho();
-                    return (fecha.isEqual(this.fechaDesde) || fecha.isAfter(this.fechaDesde))
-                            && (fecha.isEqual(this.fechaHasta) || fecha.isBefore(this.fechaHasta));
-                };
+                return new CriterioFechaAcontecimiento(this.fechaDesde, this.fechaHasta);
 
             case "UBICACION":
-                return hecho -> {
-                    if (hecho.getUbicacion() == null) return false;
-                    try {
-                        Lugar lugarHecho = hecho.getUbicacion().convertirALugar();
-
-                        if (this.pais != null && !this.pais.equalsIgnoreCase(lugarHecho.getPais())) return false;
-                        if (this.provincia != null && !this.provincia.equalsIgnoreCase(lugarHecho.getProvincia())) return false;
-                        if (this.municipio != null && !this.municipio.equalsIgnoreCase(lugarHecho.getMunicipio())) return false;
-
-                        return true;
-                    } catch (Exception e) {
-                        return false;
-                    }
-                };
+                return new CriterioUbicacion(new Lugar(this.pais, this.provincia, this.municipio));
 
             default:
                 return hecho -> true; // si no se reconoce el tipo, acepta todos los hechos
@@ -1,8 +1,5 @@
 package com.metamapa.entities.colecciones;
 
-import com.metamapa.entities.hechos.Hecho;
-import java.util.List;
-
 /**
  * Algoritmo de consenso por defecto
  * Acepta todos los hechos sin aplicar ningún filtro
@@ -11,9 +8,8 @@ import java.util.List;
 public class PorDefecto implements AlgoritmoDeConsenso {
     
     @Override
-    public List<Hecho> filtrarConsensuados(List<Hecho> hechos, List<List<Hecho>> hechosPorFuente) {
-        // Retorna todos los hechos sin filtrar
-        return hechos;
+    public boolean esConsensuado(int menciones, int totalFuentes) {
+        return true;
     }
     
     @Override
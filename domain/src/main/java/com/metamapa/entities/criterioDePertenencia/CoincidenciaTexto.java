@@ -0,0 +1,31 @@
+package com.metamapa.entities.criterioDePertenencia;
+
+/**
+ * Búsqueda de subcadena sin distinguir mayúsculas y sin crear strings: el patrón viene ya en minúsculas
+ * y el texto se pasa a minúsculas carácter a carácter mientras se compara.
+ */
+final class CoincidenciaTexto {
+
+    private CoincidenciaTexto() {
+    }
+
+    static String enMinusculas(String patron) {
+        return patron != null ? patron.toLowerCase() : "";
+    }
+
+    static boolean contiene(String texto, String patronEnMinusculas) {
+        int m = patronEnMinusculas.length();
+        if (m == 0) return true;
+        char primero = patronEnMinusculas.charAt(0);
+        int ultimoInicio = texto.length() - m;
+        siguiente:
+        for (int i = 0; i <= ultimoInicio; i++) {
+            if (Character.toLowerCase(texto.charAt(i)) != primero) continue;
+            for (int j = 1; j < m; j++) {
+                if (Character.toLowerCase(texto.charAt(i + j)) != patronEnMinusculas.charAt(j)) continue siguiente;
+            }
+            return true;
+        }
+        return false;
+    }
+}
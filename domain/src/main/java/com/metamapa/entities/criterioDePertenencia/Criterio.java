@@ -5,4 +5,11 @@ import com.metamapa.entities.hechos.Hecho;
 @FunctionalInterface
 public interface Criterio {
     boolean cumpleCriterio(Hecho hecho);
+
+    /**
+     * Costo relativo de evaluarlo: {@link CriterioCompuesto} evalúa primero los más baratos.
+     */
+    default int costo() {
+        return 100;
+    }
 }
@@ -15,6 +15,11 @@ public class CriterioCategoria implements Criterio {
         return hecho.getCategoria() != null && hecho.getCategoria().equalsIgnoreCase(categoria);
     }
 
+    @Override
+    public int costo() {
+        return 1;
+    }
+
     public String getCategoria() {
         return categoria;
     }
@@ -0,0 +1,68 @@
+package com.metamapa.entities.criterioDePertenencia;
+
+import com.metamapa.entities.hechos.Hecho;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conjunción de criterios compilada una vez: aplana compuestos anidados, descarta nulls y ordena por
+ * {@link Criterio#costo()} (categoría y fechas antes que búsquedas de texto y ubicación), así el primer
+ * criterio que falla corta la evaluación. Evaluar es un recorrido sobre un arreglo, sin crear objetos.
+ * Sin criterios acepta todos los hechos.
+ */
+public final class CriterioCompuesto implements Criterio {
+
+    private final Criterio[] criterios;
+    private final Collection<? extends Criterio> origen;
+    private final int tamanioOrigen;
+
+    private CriterioCompuesto(Criterio[] criterios, Collection<? extends Criterio> origen) {
+        this.criterios = criterios;
+        this.origen = origen;
+        this.tamanioOrigen = origen != null ? origen.size() : 0;
+    }
+
+    public static CriterioCompuesto de(Collection<? extends Criterio> criterios) {
+        List<Criterio> planos = new ArrayList<>();
+        if (criterios != null) {
+            for (Criterio c : criterios) {
+                if (c instanceof CriterioCompuesto) {
+                    for (Criterio interno : ((CriterioCompuesto) c).criterios) planos.add(interno);
+                } else if (c != null) {
+                    planos.add(c);
+                }
+            }
+        }
+        planos.sort(Comparator.comparingInt(Criterio::costo)); // estable: a igual costo se respeta el orden original
+        return new CriterioCompuesto(planos.toArray(new Criterio[0]), criterios);
+    }
+
+    @Override
+    public boolean cumpleCriterio(Hecho hecho) {
+        for (Criterio c : criterios) {
+            if (!c.cumpleCriterio(hecho)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int costo() {
+        int total = 0;
+        for (Criterio c : criterios) total += c.costo();
+        return total;
+    }
+
+    public boolean esVacio() {
+        return criterios.length == 0;
+    }
+
+    /**
+     * Si se compiló a partir de esta misma colección y no cambió de tamaño desde entonces.
+     */
+    public boolean compiladoDe(Collection<? extends Criterio> lista) {
+        return origen == lista && (lista == null || tamanioOrigen == lista.size());
+    }
+}
@@ -4,15 +4,23 @@ import com.metamapa.entities.hechos.Hecho;
 
 public class CriterioDescripcion implements Criterio {
     private String descripcion;
+    private String descripcionEnMinusculas;
 
     public CriterioDescripcion(String descripcion) {
         this.descripcion = descripcion;
+        this.descripcionEnMinusculas = CoincidenciaTexto.enMinusculas(descripcion);
     }
 
     @Override
     public boolean cumpleCriterio(Hecho hecho) {
         if (hecho.getDescripcion() == null) return false;
-        return hecho.getDescripcion().toLowerCase().contains(descripcion.toLowerCase());
+        return CoincidenciaTexto.contiene(hecho.getDescripcion(), descripcionEnMinusculas);
+    }
+
+    // Descripciones largas: después del título
+    @Override
+    public int costo() {
+        return 20;
     }
 
     public String getDescripcion() {
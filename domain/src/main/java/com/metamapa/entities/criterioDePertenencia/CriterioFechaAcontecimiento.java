@@ -16,8 +16,13 @@ public class CriterioFechaAcontecimiento implements Criterio {
     @Override
     public boolean cumpleCriterio(Hecho hecho) {
         LocalDateTime fecha = hecho.getFechaHecho();
-        return (fecha.isEqual(fechaInicial) || fecha.isAfter(fechaInicial)) &&
-                (fecha.isEqual(fechaFinal) || fecha.isBefore(fechaFinal));
+        if (fecha == null || fechaInicial == null || fechaFinal == null) return false;
+        return !fecha.isBefore(fechaInicial) && !fecha.isAfter(fechaFinal);
+    }
+
+    @Override
+    public int costo() {
+        return 2;
     }
 
     public LocalDateTime getFechaInicial() {
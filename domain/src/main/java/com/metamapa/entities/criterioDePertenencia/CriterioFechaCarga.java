@@ -16,8 +16,13 @@ public class CriterioFechaCarga implements Criterio {
     @Override
     public boolean cumpleCriterio(Hecho hecho) {
         LocalDateTime fecha = hecho.getFechaCarga();
-        return (fecha.isEqual(fechaCargaDesde) || fecha.isAfter(fechaCargaDesde)) &&
-                (fecha.isEqual(fechaCargaHasta) || fecha.isBefore(fechaCargaHasta));
+        if (fecha == null || fechaCargaDesde == null || fechaCargaHasta == null) return false;
+        return !fecha.isBefore(fechaCargaDesde) && !fecha.isAfter(fechaCargaHasta);
+    }
+
+    @Override
+    public int costo() {
+        return 2;
     }
 
     public LocalDateTime getFechaCargaDesde() {
@@ -6,13 +6,18 @@ public class CriterioTitulo implements Criterio {
     private String tituloContiene;
 
     public CriterioTitulo(String tituloContiene) {
-        this.tituloContiene = tituloContiene.toLowerCase(); // para comparación case-insensitive
+        this.tituloContiene = CoincidenciaTexto.enMinusculas(tituloContiene); // para comparación case-insensitive
     }
 
     @Override
     public boolean cumpleCriterio(Hecho hecho) {
         if (hecho.getTitulo() == null) return false;
-        return hecho.getTitulo().toLowerCase().contains(tituloContiene.toLowerCase());
+        return CoincidenciaTexto.contiene(hecho.getTitulo(), tituloContiene);
+    }
+
+    @Override
+    public int costo() {
+        return 10;
     }
 
     public String getTituloContiene() {
@@ -2,7 +2,9 @@ package com.metamapa.entities.criterioDePertenencia;
 
 
 import com.metamapa.entities.hechos.Hecho;
+import com.metamapa.entities.ubicaciones.GeocodificadorInverso;
 import com.metamapa.entities.ubicaciones.Lugar;
+import com.metamapa.entities.ubicaciones.Ubicacion;
 import lombok.AllArgsConstructor;
 
 @AllArgsConstructor
@@ -12,18 +14,16 @@ public class CriterioUbicacion implements Criterio {
 
     @Override
     public boolean cumpleCriterio(Hecho hecho) {
-        Lugar lugarHecho = hecho.getUbicacion().convertirALugar();
+        Ubicacion ubicacion = hecho.getUbicacion();
+        if (ubicacion == null || !ubicacion.esValida()) return false;
+        return GeocodificadorInverso.getInstancia().coincide(ubicacion.getLatitud(), ubicacion.getLongitud(),
+                lugar.getPais(), lugar.getProvincia(), lugar.getMunicipio());
+    }
 
-        if (lugar.getPais() != null && !lugar.getPais().equalsIgnoreCase(lugarHecho.getPais())) {
-            return false;
-        }
-        if (lugar.getProvincia() != null && !lugar.getProvincia().equalsIgnoreCase(lugarHecho.getProvincia())) {
-            return false;
-        }
-        if (lugar.getMunicipio() != null && !lugar.getMunicipio().equalsIgnoreCase(lugarHecho.getMunicipio())) {
-            return false;
-        }
-        return true;
+    // Geocodificación inversa: lo último en evaluarse
+    @Override
+    public int costo() {
+        return 50;
     }
 
     public Lugar getLugar() {
@@ -0,0 +1,254 @@
+package com.metamapa.entities.hechos;
+
+import com.metamapa.entities.ubicaciones.Ubicacion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Fingerprint canónico de un hecho: el único algoritmo de deduplicación de MetaMapa.
+ *
+ * Versión 1: SHA-256 en hexadecimal (64 caracteres) del texto
+ * titulo|descripcion|categoria|lat,lon|fechaHecho, con título y descripción en minúsculas y sin
+ * espacios en los extremos, y la fecha en ISO_LOCAL_DATE_TIME. Si el algoritmo cambia, se sube
+ * {@link #VERSION}: cada hecho guarda con qué versión se calculó su fingerprint y el backfill
+ * del agregador recalcula los que quedaron atrás.
+ *
+ * Los campos se vuelcan byte a byte a un digest reutilizado por hilo, sin armar el String intermedio;
+ * solo el texto no ASCII pasa por toLowerCase/getBytes.
+ */
+public final class FingerprintHecho {
+
+    public static final int VERSION = 1;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Acumulador> ACUMULADOR = ThreadLocal.withInitial(Acumulador::new);
+
+    private FingerprintHecho() {
+    }
+
+    /**
+     * Calcula el fingerprint y lo asigna al hecho junto con la versión del algoritmo.
+     */
+    public static String asignar(Hecho hecho) {
+        String fingerprint = calcular(hecho);
+        hecho.setFingerprint(fingerprint);
+        hecho.setVersionFingerprint(VERSION);
+        return fingerprint;
+    }
+
+    public static String calcular(Hecho hecho) {
+        if (hecho == null) {
+            return null;
+        }
+        Ubicacion ubicacion = hecho.getUbicacion();
+        return calcular(hecho.getTitulo(), hecho.getDescripcion(), hecho.getCategoria(),
+                ubicacion != null ? ubicacion.getLatitud() : null,
+                ubicacion != null ? ubicacion.getLongitud() : null,
+                hecho.getFechaHecho());
+    }
+
+    /**
+     * Mismo cálculo a partir de los campos sueltos (p. ej. filas leídas por JDBC en el backfill).
+     * La ubicación se incluye solo si vienen latitud y longitud.
+     */
+    public static String calcular(String titulo, String descripcion, String categoria,
+                                  Double latitud, Double longitud, LocalDateTime fechaHecho) {
+        Acumulador acc = digerir(titulo, descripcion, categoria, latitud, longitud, fechaHecho);
+        return aHex(acc.resultado);
+    }
+
+    /**
+     * Versión binaria compacta: los primeros 128 bits del mismo SHA-256.
+     * Sirve como clave en memoria (dos longs) sin pasar por el String hexadecimal.
+     */
+    public static Huella calcularHuella(Hecho hecho) {
+        if (hecho == null) {
+            return null;
+        }
+        Ubicacion ubicacion = hecho.getUbicacion();
+        Acumulador acc = digerir(hecho.getTitulo(), hecho.getDescripcion(), hecho.getCategoria(),
+                ubicacion != null ? ubicacion.getLatitud() : null,
+                ubicacion != null ? ubicacion.getLongitud() : null,
+                hecho.getFechaHecho());
+        return new Huella(leerLong(acc.resultado, 0), leerLong(acc.resultado, 8));
+    }
+
+    private static Acumulador digerir(String titulo, String descripcion, String categoria,
+                                      Double latitud, Double longitud, LocalDateTime fechaHecho) {
+        Acumulador acc = ACUMULADOR.get();
+        acc.reiniciar();
+
+        // Campos clave para identificar unicidad
+        acc.textoNormalizado(titulo);
+        acc.ascii('|');
+        acc.textoNormalizado(descripcion);
+        acc.ascii('|');
+        acc.texto(categoria);
+        acc.ascii('|');
+        if (latitud != null && longitud != null) {
+            acc.texto(Double.toString(latitud));
+            acc.ascii(',');
+            acc.texto(Double.toString(longitud));
+        }
+        acc.ascii('|');
+        acc.fecha(fechaHecho);
+
+        acc.terminar();
+        return acc;
+    }
+
+    /**
+     * Codifica bytes en hexadecimal en minúsculas con una tabla (un solo char[] por llamada).
+     */
+    private static String aHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            hex[j++] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[j++] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static long leerLong(byte[] bytes, int desde) {
+        long valor = 0;
+        for (int i = desde; i < desde + 8; i++) {
+            valor = (valor << 8) | (bytes[i] & 0xFF);
+        }
+        return valor;
+    }
+
+    /**
+     * Estado reutilizable por hilo: digest SHA-256, buffer de bytes y arreglo de salida.
+     */
+    private static final class Acumulador {
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[512];
+        private final byte[] resultado = new byte[32];
+        private int posicion;
+
+        Acumulador() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 no disponible", e);
+            }
+        }
+
+        void reiniciar() {
+            digest.reset();
+            posicion = 0;
+        }
+
+        void ascii(int c) {
+            if (posicion == buffer.length) {
+                volcar();
+            }
+            buffer[posicion++] = (byte) c;
+        }
+
+        /**
+         * Equivale a {@code s.toLowerCase().trim()} en UTF-8.
+         */
+        void textoNormalizado(String s) {
+            if (s == null) return;
+            if (!esAscii(s)) {
+                bytes(s.toLowerCase().trim().getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            int inicio = 0;
+            int fin = s.length();
+            while (inicio < fin && s.charAt(inicio) <= ' ') inicio++;
+            while (fin > inicio && s.charAt(fin - 1) <= ' ') fin--;
+            for (int i = inicio; i < fin; i++) {
+                char c = s.charAt(i);
+                ascii(c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            }
+        }
+
+        void texto(String s) {
+            if (s == null) return;
+            if (!esAscii(s)) {
+                bytes(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                ascii(s.charAt(i));
+            }
+        }
+
+        /**
+         * Mismo texto que ISO_LOCAL_DATE_TIME (yyyy-MM-ddTHH:mm:ss[.fracción sin ceros finales]).
+         */
+        void fecha(LocalDateTime f) {
+            if (f == null) return;
+            if (f.getYear() < 0 || f.getYear() > 9999) {
+                texto(f.format(FORMATTER));
+                return;
+            }
+            digitos(f.getYear(), 4);
+            ascii('-');
+            digitos(f.getMonthValue(), 2);
+            ascii('-');
+            digitos(f.getDayOfMonth(), 2);
+            ascii('T');
+            digitos(f.getHour(), 2);
+            ascii(':');
+            digitos(f.getMinute(), 2);
+            ascii(':');
+            digitos(f.getSecond(), 2);
+            int nano = f.getNano();
+            if (nano != 0) {
+                int cifras = 9;
+                while (nano % 10 == 0) {
+                    nano /= 10;
+                    cifras--;
+                }
+                ascii('.');
+                digitos(nano, cifras);
+            }
+        }
+
+        private void digitos(int valor, int ancho) {
+            int divisor = 1;
+            for (int i = 1; i < ancho; i++) divisor *= 10;
+            for (; divisor > 0; divisor /= 10) {
+                ascii('0' + (valor / divisor) % 10);
+            }
+        }
+
+        private void bytes(byte[] b) {
+            volcar();
+            digest.update(b);
+        }
+
+        private void volcar() {
+            if (posicion > 0) {
+                digest.update(buffer, 0, posicion);
+                posicion = 0;
+            }
+        }
+
+        void terminar() {
+            volcar();
+            try {
+                digest.digest(resultado, 0, resultado.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static boolean esAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) >= 0x80) return false;
+            }
+            return true;
+        }
+    }
+}
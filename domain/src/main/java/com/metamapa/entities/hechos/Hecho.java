@@ -13,7 +13,16 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "Hecho")
+@Table(name = "Hecho", indexes = {
+        @Index(name = "ux_hecho_fingerprint", columnList = "fingerprint", unique = true),
+        // Criterios de colección traducidos a SQL en la hidratación y keyset (fecha_hecho, id) del mapa
+        // (InnoDB agrega el id al final de cada índice secundario)
+        @Index(name = "idx_hecho_categoria_fecha", columnList = "categoria, fechaHecho"),
+        @Index(name = "idx_hecho_fecha_hecho", columnList = "fechaHecho"),
+        @Index(name = "idx_hecho_fecha_carga", columnList = "fechaCarga"),
+        // Cambios incrementales (invalidación de tiles del mapa, estadísticas)
+        @Index(name = "idx_hecho_ultima_actualizacion", columnList = "ultima_actualizacion")
+})
 public class Hecho {
     // ID asignado por IdGeneratorService del agregador
     @Id
@@ -68,10 +77,15 @@ public class Hecho {
 
     private boolean esAnonimo = false; // por default es false
     private int contador = 0;                         // cuantas fuentes lo reportaron
-    private String fingerprint;                       // clave canonical para detectar duplicados
+    @Column(length = 64)
+    private String fingerprint;                       // clave canonical para detectar duplicados (ver FingerprintHecho)
+
+    @Column(name = "version_fingerprint")
+    private Integer versionFingerprint;               // versión de FingerprintHecho con la que se calculó
     
     @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "hecho_fuentes", joinColumns = @JoinColumn(name = "hecho_id"))
+    @CollectionTable(name = "hecho_fuentes", joinColumns = @JoinColumn(name = "hecho_id"),
+            indexes = @Index(name = "idx_hecho_fuentes_fuente", columnList = "fuente, hecho_id"))
     @Column(name = "fuente")
     private List<String> fuentes = new ArrayList<>(); // fuentes que reportaron este hecho
 
@@ -131,6 +145,31 @@ public class Hecho {
         if (multimedias != null) this.multimedias = multimedias;
     }*/
 
+    /**
+     * Identidad del hecho: el ID si ambos están persistidos; si ninguno tiene ID, el fingerprint;
+     * si tampoco hay fingerprint, la instancia. No recorre etiquetas, multimedias, fuentes ni el
+     * contribuyente (lazy), así que usarlo como clave de HashMap/HashSet no dispara cargas.
+     * Ojo: el hash cambia al asignarse ID o fingerprint; no mutar hechos que ya están dentro de un Set/Map.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Hecho)) return false;
+        Hecho otro = (Hecho) o; // getters: el otro puede ser un proxy de Hibernate
+        Long otroId = otro.getId();
+        if (getId() != null || otroId != null) {
+            return getId() != null && getId().equals(otroId);
+        }
+        return getFingerprint() != null && getFingerprint().equals(otro.getFingerprint());
+    }
+
+    @Override
+    public int hashCode() {
+        if (getId() != null) return getId().hashCode();
+        if (getFingerprint() != null) return getFingerprint().hashCode();
+        return System.identityHashCode(this);
+    }
+
     public boolean tieneUbicacion() { return ubicacion != null && ubicacion.esValida(); }
     public boolean tieneContenidoMultimedia() { return !multimedias.isEmpty(); }
     public boolean esReciente() { return fechaHecho != null && fechaHecho.isAfter(LocalDateTime.now().minusDays(7)); }
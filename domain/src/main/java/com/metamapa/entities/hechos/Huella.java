@@ -0,0 +1,78 @@
+package com.metamapa.entities.hechos;
+
+/**
+ * Fingerprint binario de 128 bits (los primeros 16 bytes del SHA-256 de FingerprintHecho).
+ * Inmutable y comparable por valor; pensado como clave compacta de mapas/sets en memoria.
+ */
+public final class Huella {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long alto;
+    private final long bajo;
+
+    public Huella(long alto, long bajo) {
+        this.alto = alto;
+        this.bajo = bajo;
+    }
+
+    public long getAlto() { return alto; }
+    public long getBajo() { return bajo; }
+
+    /**
+     * 32 caracteres hexadecimales: coincide con el prefijo del fingerprint hexadecimal completo.
+     */
+    public String aHex() {
+        char[] hex = new char[32];
+        escribir(alto, hex, 0);
+        escribir(bajo, hex, 16);
+        return new String(hex);
+    }
+
+    /**
+     * Decodifica los primeros 32 caracteres hexadecimales (acepta el fingerprint SHA-256 completo).
+     */
+    public static Huella desdeHex(String hex) {
+        if (hex == null || hex.length() < 32) {
+            throw new IllegalArgumentException("Se esperaban al menos 32 caracteres hexadecimales");
+        }
+        return new Huella(leer(hex, 0), leer(hex, 16));
+    }
+
+    private static void escribir(long valor, char[] destino, int desde) {
+        for (int i = 15; i >= 0; i--) {
+            destino[desde + i] = HEX[(int) (valor & 0xF)];
+            valor >>>= 4;
+        }
+    }
+
+    private static long leer(String hex, int desde) {
+        long valor = 0;
+        for (int i = desde; i < desde + 16; i++) {
+            int digito = Character.digit(hex.charAt(i), 16);
+            if (digito < 0) {
+                throw new IllegalArgumentException("Carácter no hexadecimal: " + hex.charAt(i));
+            }
+            valor = (valor << 4) | digito;
+        }
+        return valor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Huella)) return false;
+        Huella otra = (Huella) o;
+        return alto == otra.alto && bajo == otra.bajo;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (bajo ^ (bajo >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return aHex();
+    }
+}
@@ -0,0 +1,231 @@
+package com.metamapa.entities.ubicaciones;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Geocodificación inversa offline: coordenadas → provincia y municipio.
+ *
+ * Lee polígonos GeoJSON (FeatureCollection de Polygon/MultiPolygon) de provincias y municipios,
+ * los indexa en un {@link IndiceEspacial} (STR-tree) y resuelve cada punto con una búsqueda en el
+ * árbol más la verificación punto-en-polígono de las candidatas. Los resultados se guardan en un LRU
+ * por coordenada redondeada a 4 decimales (~11 m): los hechos de un mismo lugar se resuelven una vez.
+ * El LRU está partido en {@value #SEGMENTOS_CACHE} segmentos con su propio lock, así los hilos de
+ * normalización no se serializan todos sobre el mismo mapa.
+ *
+ * Datos: por defecto los recursos geo/provincias.geojson y geo/municipios.geojson del classpath
+ * (se regeneran desde georef con domain/scripts/actualizar-poligonos.sh; los versionados traen contornos
+ * simplificados de las 24 jurisdicciones y ningún municipio). Los servicios con Spring
+ * llaman a {@link #configurar} con metamapa.geo.provincias, metamapa.geo.municipios y metamapa.geo.cache-size
+ * para usar otros archivos. Propiedades de cada feature: "nombre" y, en municipios, "provincia"
+ * (texto u objeto con "nombre", como en georef).
+ */
+@Slf4j
+public final class GeocodificadorInverso {
+
+    public static final String PAIS = "Argentina";
+    public static final String PROVINCIA_DESCONOCIDA = "Provincia Desconocida";
+    public static final String MUNICIPIO_DESCONOCIDO = "Municipio Desconocido";
+
+    private static final double PRECISION = 1e4;
+    private static final int CAPACIDAD_CACHE = 10_000;
+    private static final int SEGMENTOS_CACHE = 16; // potencia de 2: el segmento sale de los 4 bits altos del hash
+    private static final String RECURSO_PROVINCIAS = "geo/provincias.geojson";
+    private static final String RECURSO_MUNICIPIOS = "geo/municipios.geojson";
+
+    private static volatile GeocodificadorInverso instancia;
+
+    private final IndiceEspacial provincias;
+    private final IndiceEspacial municipios;
+    private final SegmentoCache[] cache;
+
+    GeocodificadorInverso(IndiceEspacial provincias, IndiceEspacial municipios, int capacidadCache) {
+        this.provincias = provincias;
+        this.municipios = municipios;
+        int capacidadSegmento = Math.max(1, (capacidadCache + SEGMENTOS_CACHE - 1) / SEGMENTOS_CACHE);
+        this.cache = new SegmentoCache[SEGMENTOS_CACHE];
+        for (int i = 0; i < SEGMENTOS_CACHE; i++) {
+            cache[i] = new SegmentoCache(capacidadSegmento);
+        }
+    }
+
+    /**
+     * Instancia compartida. Si nadie llamó a {@link #configurar}, carga los polígonos del classpath
+     * la primera vez que se usa.
+     */
+    public static GeocodificadorInverso getInstancia() {
+        GeocodificadorInverso g = instancia;
+        if (g == null) {
+            synchronized (GeocodificadorInverso.class) {
+                g = instancia;
+                if (g == null) {
+                    g = crear(null, null, CAPACIDAD_CACHE);
+                    instancia = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Carga los polígonos de los archivos dados (null o vacío = recurso del classpath) y reemplaza
+     * la instancia compartida. Lo llama la configuración de cada servicio al arrancar.
+     */
+    public static synchronized GeocodificadorInverso configurar(String rutaProvincias, String rutaMunicipios,
+                                                                int capacidadCache) {
+        GeocodificadorInverso g = crear(rutaProvincias, rutaMunicipios, capacidadCache > 0 ? capacidadCache : CAPACIDAD_CACHE);
+        instancia = g;
+        return g;
+    }
+
+    private static GeocodificadorInverso crear(String rutaProvincias, String rutaMunicipios, int capacidadCache) {
+        ObjectMapper mapper = new ObjectMapper();
+        GeocodificadorInverso g = new GeocodificadorInverso(
+                new IndiceEspacial(cargar(mapper, rutaProvincias, RECURSO_PROVINCIAS)),
+                new IndiceEspacial(cargar(mapper, rutaMunicipios, RECURSO_MUNICIPIOS)),
+                capacidadCache);
+        log.info("Geocodificador cargado: {} provincias, {} municipios",
+                g.provincias.tamanio(), g.municipios.tamanio());
+        return g;
+    }
+
+    /**
+     * Lugar (país, provincia, municipio) de una coordenada. Lo que no cae en ningún polígono queda
+     * como "Provincia Desconocida" / "Municipio Desconocido". Devuelve siempre una instancia nueva.
+     */
+    public Lugar resolver(double latitud, double longitud) {
+        String[] resultado = provinciaYMunicipio(latitud, longitud);
+        return new Lugar(PAIS, resultado[0], resultado[1]);
+    }
+
+    /**
+     * Lo mismo que comparar contra {@link #resolver} sin crear el Lugar (lo usan los criterios por cada hecho).
+     * Cada filtro en null no restringe; la comparación no distingue mayúsculas.
+     */
+    public boolean coincide(double latitud, double longitud, String pais, String provincia, String municipio) {
+        if (pais != null && !pais.equalsIgnoreCase(PAIS)) return false;
+        if (provincia == null && municipio == null) return true;
+        String[] resultado = provinciaYMunicipio(latitud, longitud);
+        return (provincia == null || provincia.equalsIgnoreCase(resultado[0]))
+                && (municipio == null || municipio.equalsIgnoreCase(resultado[1]));
+    }
+
+    private String[] provinciaYMunicipio(double latitud, double longitud) {
+        long latR = Math.round(latitud * PRECISION);
+        long lonR = Math.round(longitud * PRECISION);
+        long clave = (latR << 32) ^ (lonR & 0xffffffffL);
+        // Hash de Fibonacci: mezcla latitud y longitud antes de tomar los bits del segmento
+        SegmentoCache segmento = cache[(int) ((clave * 0x9E3779B97F4A7C15L) >>> 60)];
+
+        String[] resultado;
+        synchronized (segmento) {
+            resultado = segmento.get(clave);
+        }
+        if (resultado == null) {
+            // La búsqueda corre fuera del lock; si dos hilos resuelven el mismo punto, el resultado es el mismo
+            resultado = buscar(latR / PRECISION, lonR / PRECISION);
+            synchronized (segmento) {
+                segmento.put(clave, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    private String[] buscar(double latitud, double longitud) {
+        RegionGeografica municipio = municipios.buscar(latitud, longitud);
+        RegionGeografica provincia = provincias.buscar(latitud, longitud);
+
+        String nombreProvincia = provincia != null ? provincia.getNombre()
+                : municipio != null && municipio.getProvincia() != null ? municipio.getProvincia()
+                : PROVINCIA_DESCONOCIDA;
+        String nombreMunicipio = municipio != null ? municipio.getNombre() : MUNICIPIO_DESCONOCIDO;
+        return new String[]{nombreProvincia, nombreMunicipio};
+    }
+
+    private static List<RegionGeografica> cargar(ObjectMapper mapper, String ruta, String recurso) {
+        if (ruta != null && ruta.trim().isEmpty()) ruta = null;
+        try (InputStream in = ruta != null
+                ? Files.newInputStream(Paths.get(ruta))
+                : GeocodificadorInverso.class.getClassLoader().getResourceAsStream(recurso)) {
+            if (in == null) {
+                log.warn("No se encontró {}: sin polígonos para geocodificar", recurso);
+                return new ArrayList<>();
+            }
+            return leerRegiones(mapper.readTree(in));
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudieron leer los polígonos de {}: {}", ruta != null ? ruta : recurso, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    static List<RegionGeografica> leerRegiones(JsonNode coleccion) {
+        List<RegionGeografica> regiones = new ArrayList<>();
+        for (JsonNode feature : coleccion.path("features")) {
+            JsonNode propiedades = feature.path("properties");
+            String nombre = texto(propiedades, "nombre");
+            if (nombre == null) nombre = texto(propiedades, "name");
+            String provincia = texto(propiedades, "provincia");
+
+            JsonNode geometria = feature.path("geometry");
+            JsonNode coordenadas = geometria.path("coordinates");
+            List<double[][]> anillos = new ArrayList<>();
+            switch (geometria.path("type").asText()) {
+                case "Polygon":
+                    agregarAnillos(coordenadas, anillos);
+                    break;
+                case "MultiPolygon":
+                    for (JsonNode poligono : coordenadas) agregarAnillos(poligono, anillos);
+                    break;
+                default:
+                    continue;
+            }
+            if (nombre != null && !anillos.isEmpty()) {
+                regiones.add(new RegionGeografica(nombre, provincia, anillos));
+            }
+        }
+        return regiones;
+    }
+
+    private static void agregarAnillos(JsonNode poligono, List<double[][]> anillos) {
+        for (JsonNode anillo : poligono) {
+            double[][] puntos = new double[anillo.size()][];
+            for (int i = 0; i < anillo.size(); i++) {
+                puntos[i] = new double[]{anillo.get(i).get(0).asDouble(), anillo.get(i).get(1).asDouble()};
+            }
+            if (puntos.length >= 3) anillos.add(puntos);
+        }
+    }
+
+    // LRU de un segmento: LinkedHashMap en orden de acceso, se sincroniza sobre la propia instancia
+    private static final class SegmentoCache extends LinkedHashMap<Long, String[]> {
+        private final int capacidad;
+
+        SegmentoCache(int capacidad) {
+            super(Math.min(capacidad, 256), 0.75f, true);
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+            return size() > capacidad;
+        }
+    }
+
+    // Texto directo o, si es un objeto (formato georef), su campo "nombre"
+    private static String texto(JsonNode nodo, String campo) {
+        JsonNode valor = nodo.get(campo);
+        if (valor == null || valor.isNull()) return null;
+        if (valor.isObject()) valor = valor.get("nombre");
+        return valor != null && valor.isTextual() ? valor.asText() : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.metamapa.entities.ubicaciones;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * R-tree estático empaquetado con Sort-Tile-Recursive (STR): se arma una vez con todas las regiones
+ * y no admite altas. Buscar un punto baja solo por los nodos cuya caja lo contiene, O(log n) para
+ * regiones que no se superponen, y después verifica cada candidata con el polígono real.
+ */
+final class IndiceEspacial {
+
+    private static final int CAPACIDAD = 8;
+
+    private final Nodo raiz;
+    private final int tamanio;
+
+    IndiceEspacial(List<RegionGeografica> regiones) {
+        this.tamanio = regiones.size();
+        List<Nodo> nivel = new ArrayList<>(regiones.size());
+        for (RegionGeografica r : regiones) {
+            nivel.add(new Nodo(r));
+        }
+        while (nivel.size() > 1) {
+            nivel = empaquetar(nivel);
+        }
+        this.raiz = nivel.isEmpty() ? null : nivel.get(0);
+    }
+
+    /**
+     * Primera región que contiene el punto, o null.
+     */
+    RegionGeografica buscar(double latitud, double longitud) {
+        return raiz == null ? null : buscar(raiz, latitud, longitud);
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    private static RegionGeografica buscar(Nodo nodo, double latitud, double longitud) {
+        if (!nodo.cubre(latitud, longitud)) return null;
+        if (nodo.region != null) {
+            return nodo.region.contiene(latitud, longitud) ? nodo.region : null;
+        }
+        for (Nodo hijo : nodo.hijos) {
+            RegionGeografica encontrada = buscar(hijo, latitud, longitud);
+            if (encontrada != null) return encontrada;
+        }
+        return null;
+    }
+
+    // Un nivel de STR: franjas verticales por centro en x, y dentro de cada franja grupos por centro en y
+    private static List<Nodo> empaquetar(List<Nodo> nodos) {
+        int paginas = (nodos.size() + CAPACIDAD - 1) / CAPACIDAD;
+        int franjas = (int) Math.ceil(Math.sqrt(paginas));
+        int porFranja = franjas * CAPACIDAD;
+
+        List<Nodo> ordenados = new ArrayList<>(nodos);
+        ordenados.sort(Comparator.comparingDouble(Nodo::centroLon));
+
+        List<Nodo> padres = new ArrayList<>(paginas);
+        for (int desde = 0; desde < ordenados.size(); desde += porFranja) {
+            List<Nodo> franja = new ArrayList<>(ordenados.subList(desde, Math.min(desde + porFranja, ordenados.size())));
+            franja.sort(Comparator.comparingDouble(Nodo::centroLat));
+            for (int i = 0; i < franja.size(); i += CAPACIDAD) {
+                padres.add(new Nodo(franja.subList(i, Math.min(i + CAPACIDAD, franja.size()))));
+            }
+        }
+        return padres;
+    }
+
+    private static final class Nodo {
+        private final double minLon, minLat, maxLon, maxLat;
+        private final RegionGeografica region; // hojas
+        private final Nodo[] hijos;            // nodos internos
+
+        Nodo(RegionGeografica region) {
+            this.region = region;
+            this.hijos = null;
+            this.minLon = region.getMinLon();
+            this.minLat = region.getMinLat();
+            this.maxLon = region.getMaxLon();
+            this.maxLat = region.getMaxLat();
+        }
+
+        Nodo(List<Nodo> hijos) {
+            this.region = null;
+            this.hijos = hijos.toArray(new Nodo[0]);
+            double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+            for (Nodo h : hijos) {
+                x0 = Math.min(x0, h.minLon);
+                y0 = Math.min(y0, h.minLat);
+                x1 = Math.max(x1, h.maxLon);
+                y1 = Math.max(y1, h.maxLat);
+            }
+            this.minLon = x0;
+            this.minLat = y0;
+            this.maxLon = x1;
+            this.maxLat = y1;
+        }
+
+        boolean cubre(double latitud, double longitud) {
+            return latitud >= minLat && latitud <= maxLat && longitud >= minLon && longitud <= maxLon;
+        }
+
+        double centroLon() { return (minLon + maxLon) / 2; }
+        double centroLat() { return (minLat + maxLat) / 2; }
+    }
+}
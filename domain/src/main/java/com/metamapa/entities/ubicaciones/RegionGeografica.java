@@ -0,0 +1,68 @@
+package com.metamapa.entities.ubicaciones;
+
+import java.util.List;
+
+/**
+ * Polígono con nombre (provincia o municipio) cargado desde GeoJSON.
+ * Guarda todos los anillos (exteriores y agujeros, de uno o varios polígonos) y decide por
+ * regla par-impar, que cubre agujeros y MultiPolygon sin distinguir tipos de anillo.
+ */
+final class RegionGeografica {
+
+    private final String nombre;
+    private final String provincia;      // solo municipios: provincia a la que pertenece
+    private final double[][] longitudes; // anillo → x
+    private final double[][] latitudes;  // anillo → y
+    private final double minLon, minLat, maxLon, maxLat;
+
+    RegionGeografica(String nombre, String provincia, List<double[][]> anillos) {
+        this.nombre = nombre;
+        this.provincia = provincia;
+        this.longitudes = new double[anillos.size()][];
+        this.latitudes = new double[anillos.size()][];
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < anillos.size(); r++) {
+            double[][] anillo = anillos.get(r); // [punto][lon, lat]
+            longitudes[r] = new double[anillo.length];
+            latitudes[r] = new double[anillo.length];
+            for (int i = 0; i < anillo.length; i++) {
+                double x = anillo[i][0];
+                double y = anillo[i][1];
+                longitudes[r][i] = x;
+                latitudes[r][i] = y;
+                x0 = Math.min(x0, x);
+                y0 = Math.min(y0, y);
+                x1 = Math.max(x1, x);
+                y1 = Math.max(y1, y);
+            }
+        }
+        this.minLon = x0;
+        this.minLat = y0;
+        this.maxLon = x1;
+        this.maxLat = y1;
+    }
+
+    boolean contiene(double latitud, double longitud) {
+        if (latitud < minLat || latitud > maxLat || longitud < minLon || longitud > maxLon) return false;
+        boolean dentro = false;
+        for (int r = 0; r < longitudes.length; r++) {
+            double[] xs = longitudes[r];
+            double[] ys = latitudes[r];
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if ((ys[i] > latitud) != (ys[j] > latitud)
+                        && longitud < (xs[j] - xs[i]) * (latitud - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                    dentro = !dentro;
+                }
+            }
+        }
+        return dentro;
+    }
+
+    String getNombre() { return nombre; }
+    String getProvincia() { return provincia; }
+    double getMinLon() { return minLon; }
+    double getMinLat() { return minLat; }
+    double getMaxLon() { return maxLon; }
+    double getMaxLat() { return maxLat; }
+}
@@ -7,7 +7,8 @@ import javax.persistence.*;
 @Data
 
 @Entity
-@Table(name = "Ubicacion")
+// Rango por latitud (y longitud) para las consultas por viewport del mapa
+@Table(name = "Ubicacion", indexes = @Index(name = "idx_ubicacion_lat_lon", columnList = "latitud, longitud"))
 public class Ubicacion {
 
     @Id
@@ -26,10 +27,11 @@ public class Ubicacion {
 
     public boolean esValida() { return latitud >= -90 && latitud <= 90 && longitud >= -180 && longitud <= 180; }
 
+    /**
+     * Provincia y municipio de la coordenada según los polígonos del {@link GeocodificadorInverso}.
+     */
     public Lugar convertirALugar() {
         if (!esValida()) throw new IllegalArgumentException("Ubicación inválida");
-        if (latitud >= -35 && latitud <= -34 && longitud >= -59 && longitud <= -58) return new Lugar("Argentina", "Buenos Aires", "CABA");
-        if (latitud >= -40 && latitud <= -38 && longitud >= -64 && longitud <= -62) return new Lugar("Argentina", "Río Negro", "General Roca");
-        return new Lugar("Argentina", "Provincia Desconocida", "Municipio Desconocido");
+        return GeocodificadorInverso.getInstancia().resolver(latitud, longitud);
     }
 }
\ No newline at end of file
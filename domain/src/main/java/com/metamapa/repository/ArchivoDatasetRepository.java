@@ -14,4 +14,6 @@ public interface ArchivoDatasetRepository extends JpaRepository<ArchivoDataset,
     Optional<ArchivoDataset> findByHash(String hash);
     
     List<ArchivoDataset> findByEstado(EstadoArchivo estado);
+
+    List<ArchivoDataset> findByEstadoOrderByIdAsc(EstadoArchivo estado);
 }
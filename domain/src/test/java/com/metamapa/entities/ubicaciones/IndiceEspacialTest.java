@@ -0,0 +1,71 @@
+package com.metamapa.entities.ubicaciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.metamapa.entities.ubicaciones.RegionGeograficaTest.anillo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceEspacialTest {
+
+    @DisplayName("Un índice vacío no encuentra nada")
+    @Test
+    void buscar_IndiceVacio() {
+        IndiceEspacial indice = new IndiceEspacial(new ArrayList<>());
+
+        assertEquals(0, indice.tamanio());
+        assertNull(indice.buscar(-34.6, -58.4));
+    }
+
+    @DisplayName("Cada punto de una grilla de 400 celdas cae en su celda (árbol de varios niveles)")
+    @Test
+    void buscar_GrillaDeRegiones() {
+        List<RegionGeografica> regiones = new ArrayList<>();
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                regiones.add(new RegionGeografica(x + "_" + y, null, Collections.singletonList(anillo(x, y, x + 1, y + 1))));
+            }
+        }
+        IndiceEspacial indice = new IndiceEspacial(regiones);
+
+        assertEquals(400, indice.tamanio());
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                RegionGeografica encontrada = indice.buscar(y + 0.5, x + 0.5);
+                assertNotNull(encontrada);
+                assertEquals(x + "_" + y, encontrada.getNombre());
+            }
+        }
+        assertNull(indice.buscar(-0.5, 5), "Fuera de la grilla");
+        assertNull(indice.buscar(5, 20.5), "Fuera de la grilla");
+    }
+
+    @DisplayName("Con cajas superpuestas decide el polígono real de cada candidata")
+    @Test
+    void buscar_CajasSuperpuestas() {
+        // Dos triángulos que comparten la misma caja [0,2]x[0,2]
+        double[][] inferior = {{0, 0}, {2, 0}, {0, 2}, {0, 0}};
+        double[][] superior = {{2, 0}, {2, 2}, {0, 2}, {2, 0}};
+        List<RegionGeografica> regiones = new ArrayList<>();
+        regiones.add(new RegionGeografica("inferior", null, Collections.singletonList(inferior)));
+        regiones.add(new RegionGeografica("superior", null, Collections.singletonList(superior)));
+        IndiceEspacial indice = new IndiceEspacial(regiones);
+
+        assertEquals("inferior", indice.buscar(0.5, 0.5).getNombre());
+        assertEquals("superior", indice.buscar(1.5, 1.5).getNombre());
+    }
+
+    @DisplayName("Un índice de una sola región la encuentra")
+    @Test
+    void buscar_UnaRegion() {
+        IndiceEspacial indice = new IndiceEspacial(Collections.singletonList(
+                new RegionGeografica("Río Negro", null, Collections.singletonList(anillo(-64, -40, -62, -38)))));
+
+        assertEquals("Río Negro", indice.buscar(-39, -63).getNombre());
+        assertNull(indice.buscar(-34.6, -58.4));
+    }
+}
@@ -0,0 +1,75 @@
+package com.metamapa.entities.ubicaciones;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionGeograficaTest {
+
+    @DisplayName("Un cuadrado contiene los puntos interiores y no los de afuera")
+    @Test
+    void contiene_Cuadrado() {
+        RegionGeografica region = new RegionGeografica("Cuadrado", null,
+                Collections.singletonList(anillo(-59, -35, -58, -34)));
+
+        assertTrue(region.contiene(-34.5, -58.5));
+        assertFalse(region.contiene(-34.5, -57.9));
+        assertFalse(region.contiene(-35.1, -58.5));
+    }
+
+    @DisplayName("La caja envolvente sale de todos los anillos")
+    @Test
+    void cajaEnvolvente() {
+        RegionGeografica region = new RegionGeografica("Dos partes", "Provincia",
+                Arrays.asList(anillo(-64, -40, -62, -38), anillo(-60, -37, -59, -36)));
+
+        assertEquals(-64, region.getMinLon());
+        assertEquals(-40, region.getMinLat());
+        assertEquals(-59, region.getMaxLon());
+        assertEquals(-36, region.getMaxLat());
+        assertEquals("Dos partes", region.getNombre());
+        assertEquals("Provincia", region.getProvincia());
+    }
+
+    @DisplayName("Un punto en el agujero de un polígono queda afuera (regla par-impar)")
+    @Test
+    void contiene_PoligonoConAgujero() {
+        RegionGeografica region = new RegionGeografica("Anillo", null,
+                Arrays.asList(anillo(0, 0, 10, 10), anillo(4, 4, 6, 6)));
+
+        assertTrue(region.contiene(2, 2));
+        assertFalse(region.contiene(5, 5), "El agujero no pertenece a la región");
+    }
+
+    @DisplayName("Un MultiPolygon contiene los puntos de cada una de sus partes, no los del medio")
+    @Test
+    void contiene_MultiPolygon() {
+        RegionGeografica region = new RegionGeografica("Islas", null,
+                Arrays.asList(anillo(0, 0, 1, 1), anillo(5, 5, 6, 6)));
+
+        assertTrue(region.contiene(0.5, 0.5));
+        assertTrue(region.contiene(5.5, 5.5));
+        assertFalse(region.contiene(3, 3), "Dentro de la caja envolvente pero fuera de ambas partes");
+    }
+
+    @DisplayName("En un polígono cóncavo la entrada queda afuera aunque esté dentro de la caja")
+    @Test
+    void contiene_PoligonoConcavo() {
+        // "L": el cuadrante superior derecho [1,2]x[1,2] no pertenece
+        double[][] ele = {{0, 0}, {2, 0}, {2, 1}, {1, 1}, {1, 2}, {0, 2}, {0, 0}};
+        RegionGeografica region = new RegionGeografica("Ele", null, Collections.singletonList(ele));
+
+        assertTrue(region.contiene(0.5, 1.5));
+        assertTrue(region.contiene(0.5, 0.5));
+        assertFalse(region.contiene(1.5, 1.5));
+    }
+
+    // Anillo cerrado [lon, lat] del rectángulo dado
+    static double[][] anillo(double oeste, double sur, double este, double norte) {
+        return new double[][]{{oeste, sur}, {este, sur}, {este, norte}, {oeste, norte}, {oeste, sur}};
+    }
+}
@@ -1,6 +1,6 @@
-import { MapContainer, TileLayer, Marker, Popup } from "react-leaflet";
+import { MapContainer, TileLayer, Marker, Popup, useMap, useMapEvents } from "react-leaflet";
 import L from "leaflet";
-import { useEffect, useMemo, useState } from "react";
+import { useCallback, useEffect, useMemo, useRef, useState } from "react";
 import axios from "axios";
 import "leaflet/dist/leaflet.css";
 import "./MapaHechos.css";
@@ -22,41 +22,118 @@ const ICONS = {
     rojo: iconFactory("rojo"),
 };
 
+// Cluster armado por el servidor: muestra cuántos hechos hay en la celda
+const iconCluster = (cantidad) =>
+    L.divIcon({
+        className: "pin",
+        html: `<span class="cluster">${cantidad}</span>`,
+        iconSize: [34, 34],
+        iconAnchor: [17, 17],
+    });
+
+// Longitud llevada a [-180, 180) (el mapa permite dar vueltas al mundo)
+const normalizarLongitud = (lng) => ((((lng + 180) % 360) + 360) % 360) - 180;
+
+// Informa el viewport (rectángulo y zoom) al montar el mapa y al terminar cada movimiento
+function SeguirViewport({ onCambio }) {
+    const map = useMap();
+
+    const informar = useCallback(() => {
+        const b = map.getBounds();
+        const completo = b.getEast() - b.getWest() >= 360;
+        onCambio({
+            sur: Math.max(-90, b.getSouth()),
+            norte: Math.min(90, b.getNorth()),
+            oeste: completo ? -180 : normalizarLongitud(b.getWest()),
+            este: completo ? 180 : normalizarLongitud(b.getEast()),
+            zoom: map.getZoom(),
+        });
+    }, [map, onCambio]);
+
+    useMapEvents({ moveend: informar });
+    useEffect(() => informar(), [informar]);
+    return null;
+}
+
 export default function MapaHechos({ filtros }) {
     const [hechos, setHechos] = useState([]);
+    const [clusters, setClusters] = useState([]);
+    const [vista, setVista] = useState(null);
+    const [cursor, setCursor] = useState(null);
     const [ultimaActualizacion, setUltimaActualizacion] = useState(null);
+    const consulta = useRef(0);
     const navigate = useNavigate();
 
-    const API_URL = "http://localhost:8080/api/interna/hechos";
+    const API_URL = "http://localhost:8080/api/interna";
 
     const capitalizar = (texto) => {
         if (!texto) return "";
         return texto.charAt(0).toUpperCase() + texto.slice(1);
     };
 
-    useEffect(() => {
-        const fetchHechos = async () => {
-            try {
-                const res = await axios.get(API_URL, {
-                    params: {
-                        categoria: filtros.categoria || undefined,
-                        desde: filtros.desde || undefined,
-                        hasta: filtros.hasta || undefined,
-                        ubicacion: filtros.ubicacion || undefined,
-                        modo: filtros.modo || undefined,
-                    },
-                });
-                setHechos(res.data || []);
-                setUltimaActualizacion(new Date());
-            } catch (e) {
-                console.error("Error obteniendo hechos", e);
-            }
+    // Búsqueda por texto: la API de viewport no la soporta, así que se listan los hechos paginados
+    // y las páginas siguientes se piden recién cuando el usuario las quiere ver (botón "Cargar más")
+    const buscarPagina = useCallback(async (desdeCursor) => {
+        const id = ++consulta.current;
+        const res = await axios.get(`${API_URL}/hechos`, {
+            params: {
+                categoria: filtros.categoria || undefined,
+                desde: filtros.desde || undefined,
+                hasta: filtros.hasta || undefined,
+                ubicacion: filtros.ubicacion,
+                cursor: desdeCursor || undefined,
+            },
+        });
+        if (id !== consulta.current) return;
+        const pagina = res.data || [];
+        setHechos((previos) => (desdeCursor ? [...previos, ...pagina] : pagina));
+        setClusters([]);
+        setCursor(res.headers["x-siguiente-cursor"] || null);
+        setUltimaActualizacion(new Date());
+    }, [API_URL, filtros]);
+
+    // Sin búsqueda por texto: solo lo que entra en el viewport, agrupado por el servidor si son muchos
+    const consultarViewport = useCallback(async () => {
+        if (!vista) return;
+        const id = ++consulta.current;
+        const res = await axios.get(`${API_URL}/mapa`, {
+            params: {
+                ...vista,
+                categoria: filtros.categoria || undefined,
+                desde: filtros.desde || undefined,
+                hasta: filtros.hasta || undefined,
+            },
+        });
+        if (id !== consulta.current) return;
+        const contenido = res.data || {};
+        setHechos(contenido.agrupado ? [] : contenido.hechos || []);
+        setClusters(contenido.agrupado ? contenido.clusters || [] : []);
+        setCursor(null);
+        setUltimaActualizacion(new Date());
+    }, [API_URL, vista, filtros]);
+
+    // Refresco periódico de lo que se está mostrando (la primera página o el viewport actual)
+    const refrescar = (consultar) => {
+        const actualizar = () => consultar().catch((e) => console.error("Error obteniendo hechos", e));
+        actualizar();
+        const id = setInterval(actualizar, 60_000);
+        return () => {
+            consulta.current++; // descarta respuestas en vuelo
+            clearInterval(id);
         };
+    };
 
-        fetchHechos();
-        const id = setInterval(fetchHechos, 60_000);
-        return () => clearInterval(id);
-    }, [API_URL, filtros]);
+    useEffect(() => {
+        if (!filtros.ubicacion) return undefined;
+        return refrescar(() => buscarPagina(null));
+    }, [filtros.ubicacion, buscarPagina]);
+
+    useEffect(() => {
+        if (filtros.ubicacion) return undefined;
+        return refrescar(consultarViewport);
+    }, [filtros.ubicacion, consultarViewport]);
+
+    const cargarMas = () => buscarPagina(cursor).catch((e) => console.error("Error obteniendo hechos", e));
 
     // Helper para normalizar coordenadas (porque a veces vienen sueltas o en objeto)
     const getCoords = (h) => {
@@ -127,6 +204,18 @@ export default function MapaHechos({ filtros }) {
                     attribution='&copy; OpenStreetMap contributors'
                 />
 
+                <SeguirViewport onCambio={setVista} />
+
+                {clusters.map((c) => (
+                    <Marker
+                        key={`${c.latitud},${c.longitud}`}
+                        position={[c.latitud, c.longitud]}
+                        icon={iconCluster(c.cantidad)}
+                    >
+                        <Popup>{c.cantidad} hechos en esta zona. Acercá el mapa para verlos.</Popup>
+                    </Marker>
+                ))}
+
                 {/* 4. Mapeamos los GRUPOS, no los hechos individuales */}
                 {gruposDeHechos.map((grupo, index) => {
                     const hechoPrincipal = grupo[0]; // Usamos el primero para sacar pos y color
@@ -184,7 +273,16 @@ export default function MapaHechos({ filtros }) {
             </MapContainer>
 
             <div className="map-meta">
-                <div>{hechos.length} hechos visibles</div>
+                <div>
+                    {clusters.length > 0
+                        ? clusters.reduce((total, c) => total + c.cantidad, 0)
+                        : hechos.length} hechos visibles
+                    {cursor && (
+                        <button className="btn-popup" style={{ marginLeft: 8 }} onClick={cargarMas}>
+                            Cargar más
+                        </button>
+                    )}
+                </div>
                 <div className="update">
                     Última actualización: {formatHace(ultimaActualizacion)}
                 </div>
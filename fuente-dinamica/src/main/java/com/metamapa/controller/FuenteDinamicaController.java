@@ -13,6 +13,7 @@ import com.metamapa.service.ContribuyenteDinamicoService;
 import com.metamapa.service.HechoDinamicoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,10 +45,18 @@ public class FuenteDinamicaController {
     @Value("${app.upload.dir:uploads}")
     private String uploadRoot;
 
+    /**
+     * Hechos ACEPTADOS. Con {@code since} devuelve solo los modificados estrictamente después
+     * de esa marca (cursor de sincronización incremental del agregador).
+     */
     @GetMapping("/hechos")
-    public ResponseEntity<List<HechoDinamicoDTO>> obtenerHechos() {
+    public ResponseEntity<List<HechoDinamicoDTO>> obtenerHechos(
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
         // Solo devolver hechos ACEPTADOS (no los que tienen sugerencias)
-        List<HechoDinamico> hechos = hechoService.obtenerHechosPorEstado(EstadoRevision.ACEPTADO);
+        List<HechoDinamico> hechos = since != null
+                ? hechoService.obtenerHechosPorEstadoDesde(EstadoRevision.ACEPTADO, since)
+                : hechoService.obtenerHechosPorEstado(EstadoRevision.ACEPTADO);
         return ResponseEntity.ok(HechoDinamicoMapper.toDTOList(hechos));
     }
 
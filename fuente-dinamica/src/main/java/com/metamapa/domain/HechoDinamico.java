@@ -44,6 +44,10 @@ public class HechoDinamico {
     @Field("fechaCarga")
     private LocalDateTime fechaCarga;
     
+    // Se actualiza en cada escritura; el agregador lo usa como cursor de sincronización
+    @Field("ultimaActualizacion")
+    private LocalDateTime ultimaActualizacion;
+    
     @Field("origen")
     private OrigenHecho origen;
     
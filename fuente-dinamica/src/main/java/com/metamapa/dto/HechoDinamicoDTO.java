@@ -21,6 +21,7 @@ public class HechoDinamicoDTO {
     private ContribuyenteDTO contribuyente;
     private LocalDateTime fechaHecho;
     private LocalDateTime fechaCarga;
+    private LocalDateTime ultimaActualizacion;
     private EstadoRevision estadoRevision; // PENDIENTE, ACEPTADO, RECHAZADO
     private String sugerenciaDeCambio;
     private boolean esAnonimo;
@@ -42,6 +42,7 @@ public class HechoDinamicoMapper {
         dto.setEtiquetas(hecho.getEtiquetas());
         dto.setFechaHecho(hecho.getFechaHecho());
         dto.setFechaCarga(hecho.getFechaCarga());
+        dto.setUltimaActualizacion(hecho.getUltimaActualizacion());
         dto.setEstadoRevision(hecho.getEstadoRevision()); // Usar el enum directamente
         dto.setSugerenciaDeCambio(hecho.getSugerenciaDeCambio());
         dto.setEsAnonimo(hecho.isEsAnonimo());
@@ -18,6 +18,9 @@ public interface HechoDinamicoRepository extends MongoRepository<HechoDinamico,
     // Buscar por estado de revisión
     List<HechoDinamico> findByEstadoRevision(EstadoRevision estadoRevision);
     
+    // Buscar por estado modificados después de una fecha (sincronización incremental)
+    List<HechoDinamico> findByEstadoRevisionAndUltimaActualizacionAfter(EstadoRevision estadoRevision, LocalDateTime desde);
+    
     // Buscar hechos no eliminados
     List<HechoDinamico> findByEliminadoFalse();
     
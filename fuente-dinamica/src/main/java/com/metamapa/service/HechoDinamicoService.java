@@ -48,7 +48,7 @@ public class HechoDinamicoService {
         hecho.setOrigen(OrigenHecho.CONTRIBUYENTE);
         hecho.setEliminado(false);
         
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
     
     /**
@@ -120,7 +120,7 @@ public class HechoDinamicoService {
         HechoDinamico hecho = hechoOpt.get();
         hecho.aceptarRevision();
         
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
     
     /**
@@ -137,7 +137,7 @@ public class HechoDinamicoService {
         HechoDinamico hecho = hechoOpt.get();
         hecho.rechazarRevision(motivo);
         
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
     
     /**
@@ -154,7 +154,7 @@ public class HechoDinamicoService {
         HechoDinamico hecho = hechoOpt.get();
         hecho.aceptarRevisionConSugerencia(sugerencias);
         
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
     
     /**
@@ -192,7 +192,7 @@ public class HechoDinamicoService {
         
         HechoDinamico hecho = hechoOpt.get();
         hecho.marcarComoEliminado();
-        hechoRepository.save(hecho);
+        guardar(hecho);
     }
     
     /**
@@ -209,7 +209,7 @@ public class HechoDinamicoService {
         HechoDinamico hecho = hechoOpt.get();
         hecho.setUbicacion(ubicacion);
         
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
 
     /**
@@ -225,14 +225,29 @@ public class HechoDinamicoService {
             hecho.setMultimedias(new ArrayList<>());
         }
         hecho.getMultimedias().addAll(nuevosArchivos);
-        return hechoRepository.save(hecho);
+        return guardar(hecho);
     }
 
 
+    /**
+     * Obtener hechos por estado modificados después de una marca (sincronización incremental)
+     */
+    public List<HechoDinamico> obtenerHechosPorEstadoDesde(EstadoRevision estado, LocalDateTime desde) {
+        return hechoRepository.findByEstadoRevisionAndUltimaActualizacionAfter(estado, desde);
+    }
+
     /**
      * Contar hechos por estado
      */
     public long contarHechosPorEstado(EstadoRevision estado) {
         return hechoRepository.countByEstadoRevision(estado);
     }
+
+    /**
+     * Persiste el hecho marcando ultimaActualizacion, usada como cursor por el agregador.
+     */
+    private HechoDinamico guardar(HechoDinamico hecho) {
+        hecho.setUltimaActualizacion(LocalDateTime.now());
+        return hechoRepository.save(hecho);
+    }
 }
\ No newline at end of file
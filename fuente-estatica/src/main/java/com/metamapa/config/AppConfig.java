@@ -0,0 +1,29 @@
+package com.metamapa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AppConfig {
+
+    /**
+     * Pool que parsea en paralelo los tramos del archivo que se entrega por lotes (ver LecturaAdelantada).
+     * Por defecto un hilo por núcleo; con la cola llena, el hilo que encola parsea el tramo él mismo.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ingestaExecutor(@Value("${fuente.estatica.workers:0}") int workers) {
+        int hilos = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos * 16);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ingesta-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,12 +1,13 @@
 package com.metamapa.controller;
 
+import com.metamapa.dto.AckLoteDTO;
 import com.metamapa.dto.CargaCsvResultado;
-import com.metamapa.dto.HechoDTO;
+import com.metamapa.dto.LoteHechosDTO;
 import com.metamapa.entities.archivosDataset.ArchivoDataset;
-import com.metamapa.entities.hechos.Hecho;
-import com.metamapa.mapper.HechoMapper;
 import com.metamapa.service.FuenteEstaticaService;
+import com.metamapa.service.ProgresoArchivo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -34,14 +35,30 @@ public class FuenteEstaticaController {
     }*/
 
     /**
-     * Este endpoint es llamado por el agregador cuando ejecuta su proceso de consolidación.
-     * Procesa los archivos PENDIENTES y retorna los hechos con origenArchivoId seteado.
+     * Próximo lote de hechos para el agregador, desde el checkpoint del primer archivo pendiente.
+     * Devuelve 204 si no hay nada pendiente. El lote se repite hasta que llegue su ack.
      */
-    @GetMapping("/hechos")
-    public ResponseEntity<List<HechoDTO>> obtenerHechos() {
-        List<Hecho> hechos = fuenteEstaticaService.procesarArchivosPendientes();
-        List<HechoDTO> dtos = HechoMapper.toDTOList(hechos);
-        return ResponseEntity.ok(dtos);
+    @GetMapping("/lotes/siguiente")
+    public ResponseEntity<LoteHechosDTO> siguienteLote(
+            @RequestParam(value = "tamanio", defaultValue = "1000") int tamanio) {
+        LoteHechosDTO lote = fuenteEstaticaService.siguienteLote(Math.max(1, tamanio));
+        if (lote == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(lote);
+    }
+
+    /**
+     * El agregador confirma que el lote quedó persistido; el checkpoint del archivo avanza.
+     * 409 si el lote no empieza en el checkpoint actual (ack fuera de orden).
+     */
+    @PostMapping("/lotes/ack")
+    public ResponseEntity<Void> confirmarLote(@RequestBody AckLoteDTO ack) {
+        if (ack.getArchivoId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean aplicado = fuenteEstaticaService.confirmarLote(ack);
+        return aplicado ? ResponseEntity.ok().build() : ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 
     // ===========  Endpoints de carga de CSV  =========== //
@@ -71,6 +88,20 @@ public class FuenteEstaticaController {
         return ResponseEntity.ok(archivos);
     }
 
+    /**
+     * Avance del parseo de cada archivo procesado desde que arrancó el servicio.
+     */
+    @GetMapping("/archivos/progreso")
+    public ResponseEntity<List<ProgresoArchivo>> listarProgresos() {
+        return ResponseEntity.ok(fuenteEstaticaService.obtenerProgresos());
+    }
+
+    @GetMapping("/archivos/{id}/progreso")
+    public ResponseEntity<ProgresoArchivo> obtenerProgreso(@PathVariable Long id) {
+        ProgresoArchivo progreso = fuenteEstaticaService.obtenerProgreso(id);
+        return progreso != null ? ResponseEntity.ok(progreso) : ResponseEntity.notFound().build();
+    }
+
     @GetMapping("/archivos/{id}")
     public ResponseEntity<ArchivoDataset> obtenerArchivo(@PathVariable Long id) {
         ArchivoDataset archivo = fuenteEstaticaService.obtenerTodosLosArchivos()
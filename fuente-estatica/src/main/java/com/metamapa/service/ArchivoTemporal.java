@@ -0,0 +1,18 @@
+package com.metamapa.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Upload ya copiado a un temporal dentro del directorio de almacenamiento, con su SHA-256.
+ */
+@Getter
+@AllArgsConstructor
+public class ArchivoTemporal {
+    private final Path ruta;
+    private final String hash;
+    private final long tamanio;
+    private final String extension;
+}
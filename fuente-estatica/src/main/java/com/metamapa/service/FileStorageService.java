@@ -5,12 +5,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Servicio para gestión de archivos CSV en el file system.
@@ -19,6 +24,9 @@ import java.nio.file.StandardCopyOption;
 @Slf4j
 public class FileStorageService {
     
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
     private final Path directorioBase;
     
     public FileStorageService(@Value("${file.storage.location:uploads/csv}") String ubicacion) {
@@ -32,28 +40,66 @@ public class FileStorageService {
     }
     
     /**
-     * Guarda un archivo en el file system con un nombre único basado en el hash.
+     * Copia el upload a un archivo temporal dentro del directorio de almacenamiento calculando
+     * el SHA-256 en la misma pasada (sin cargar el archivo en memoria).
+     * Después hay que confirmarlo con {@link #confirmarArchivo} o descartarlo con {@link #descartarTemporal}.
      * 
-     * @param file Archivo a guardar
-     * @param hash Hash SHA-256 del archivo
-     * @return Ruta relativa del archivo guardado
+     * @param file Archivo subido
+     * @return Temporal con su hash y tamaño
      */
-    public String guardarArchivo(MultipartFile file, String hash) throws IOException {
-        // Generar nombre único: hash + extensión original
-        String extension = obtenerExtension(file.getOriginalFilename());
-        String nombreArchivo = hash.substring(0, 12) + extension; // Primeros 12 chars del hash
+    public ArchivoTemporal guardarTemporal(MultipartFile file) throws IOException {
+        Path temporal = Files.createTempFile(this.directorioBase, ".subida-", ".tmp");
+        MessageDigest digest = nuevoDigest();
         
+        try (InputStream entrada = new DigestInputStream(file.getInputStream(), digest);
+             OutputStream salida = Files.newOutputStream(temporal)) {
+            byte[] buffer = new byte[TAMANIO_BUFFER];
+            long tamanio = 0;
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                salida.write(buffer, 0, leidos);
+                tamanio += leidos;
+            }
+            return new ArchivoTemporal(temporal, aHex(digest.digest()), tamanio, obtenerExtension(file.getOriginalFilename()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+    
+    /**
+     * Mueve el temporal a su nombre definitivo (hash + extensión) con un rename atómico:
+     * nunca queda visible un CSV a medio escribir en el directorio.
+     * 
+     * @return Ruta relativa del archivo guardado
+     */
+    public String confirmarArchivo(ArchivoTemporal temporal) throws IOException {
+        String nombreArchivo = temporal.getHash().substring(0, 12) + temporal.getExtension(); // Primeros 12 chars del hash
         Path rutaDestino = this.directorioBase.resolve(nombreArchivo);
         
-        // Copiar archivo
-        Files.copy(file.getInputStream(), rutaDestino, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            Files.move(temporal.getRuta(), rutaDestino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal.getRuta(), rutaDestino, StandardCopyOption.REPLACE_EXISTING);
+        }
         
-        log.info("Archivo guardado: {}", rutaDestino);
+        log.info("Archivo guardado: {} ({} bytes)", rutaDestino, temporal.getTamanio());
         
         // Retornar ruta relativa
         return nombreArchivo;
     }
     
+    /**
+     * Borra un temporal que no se va a confirmar (p. ej. archivo duplicado).
+     */
+    public void descartarTemporal(ArchivoTemporal temporal) {
+        try {
+            Files.deleteIfExists(temporal.getRuta());
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el temporal {}: {}", temporal.getRuta(), e.getMessage());
+        }
+    }
+    
     /**
      * Lee el contenido de un archivo desde el file system.
      * 
@@ -70,6 +116,22 @@ public class FileStorageService {
         return Files.readAllBytes(rutaCompleta);
     }
     
+    /**
+     * Ruta absoluta de un archivo guardado, para leerlo por streaming sin cargarlo en memoria.
+     * 
+     * @param rutaRelativa Ruta relativa del archivo
+     * @return Path absoluto del archivo
+     */
+    public Path obtenerRutaExistente(String rutaRelativa) throws IOException {
+        Path rutaCompleta = this.directorioBase.resolve(rutaRelativa);
+        
+        if (!Files.exists(rutaCompleta)) {
+            throw new IOException("Archivo no encontrado: " + rutaRelativa);
+        }
+        
+        return rutaCompleta;
+    }
+    
     /**
      * Elimina un archivo del file system.
      * 
@@ -91,6 +153,23 @@ public class FileStorageService {
         return this.directorioBase.resolve(rutaRelativa);
     }
     
+    private static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    private static String aHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+    
     private String obtenerExtension(String nombreArchivo) {
         if (nombreArchivo == null || !nombreArchivo.contains(".")) {
             return ".csv";
@@ -1,31 +1,34 @@
 package com.metamapa.service;
 
+import com.metamapa.dto.AckLoteDTO;
 import com.metamapa.dto.CargaCsvResultado;
+import com.metamapa.dto.HechoDTO;
+import com.metamapa.dto.LoteHechosDTO;
 import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.entities.hechos.OrigenHecho;
 import com.metamapa.entities.ubicaciones.Ubicacion;
 import com.metamapa.entities.archivosDataset.ArchivoDataset;
 import com.metamapa.entities.archivosDataset.EstadoArchivo;
+import com.metamapa.mapper.HechoMapper;
 import com.metamapa.repository.ArchivoDatasetRepository;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -37,9 +40,28 @@ public class FuenteEstaticaService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    // Tamaño aproximado de cada tramo que se parsea en paralelo dentro de un archivo grande
+    @Value("${fuente.estatica.segmento-bytes:2097152}")
+    private long tamanioSegmento;
+
+    // Tramos parseados por delante del checkpoint (0 = uno por hilo del pool de ingesta)
+    @Value("${fuente.estatica.tramos-adelantados:0}")
+    private int tramosAdelantados;
+
+    @Autowired
+    private ThreadPoolTaskExecutor ingestaExecutor;
+
+    private final Map<Long, ProgresoArchivo> progresos = new ConcurrentHashMap<>();
+
+    // Lectura del archivo que se está entregando por lotes (los lotes se sirven de a un archivo por vez)
+    private final Object lecturaLock = new Object();
+    private LecturaAdelantada lectura;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     /**
      * Guarda el archivo CSV en el file system y registra metadata en MySQL con estado PENDIENTE.
-     * El procesamiento real ocurre cuando el agregador llama a procesarArchivosPendientes().
+     * El procesamiento real ocurre cuando el agregador pide lotes con siguienteLote().
      */
     public CargaCsvResultado cargarHechos(MultipartFile file) {
         try {
@@ -49,12 +71,14 @@ public class FuenteEstaticaService {
                 return new CargaCsvResultado(false, "El archivo debe ser CSV", 0, null);
             }
 
-            // Calcular hash para detectar duplicados
-            String hash = calcularSha256(file.getBytes());
+            // Una sola pasada: el upload se copia a un temporal mientras se calcula el hash
+            ArchivoTemporal temporal = fileStorageService.guardarTemporal(file);
+            String hash = temporal.getHash();
 
             // Verificar si ya existe
             ArchivoDataset existe = archivoRepository.findByHash(hash).orElse(null);
             if (existe != null) {
+                fileStorageService.descartarTemporal(temporal);
                 return new CargaCsvResultado(
                     false, 
                     "Archivo duplicado. Ya fue cargado el " + existe.getFechaCarga() + 
@@ -64,8 +88,14 @@ public class FuenteEstaticaService {
                 );
             }
 
-            // Guardar archivo en file system
-            String rutaRelativa = fileStorageService.guardarArchivo(file, hash);
+            // Rename atómico a uploads/csv con el nombre definitivo
+            String rutaRelativa;
+            try {
+                rutaRelativa = fileStorageService.confirmarArchivo(temporal);
+            } catch (IOException e) {
+                fileStorageService.descartarTemporal(temporal);
+                throw e;
+            }
 
             // Guardar metadata en MySQL con estado PENDIENTE
             ArchivoDataset archivo = new ArchivoDataset(
@@ -90,147 +120,215 @@ public class FuenteEstaticaService {
     }
 
     /**
-     * Procesa todos los archivos con estado PENDIENTE.
-     * Este método es llamado por el agregador cuando ejecuta su proceso de consolidación.
-     * Retorna hechos con origenArchivoId seteado para que el agregador guarde la relación N-N.
+     * Progreso de parseo de un archivo (null si nunca se procesó desde que arrancó el servicio).
      */
-    public List<Hecho> procesarArchivosPendientes() {
-        List<Hecho> todosLosHechos = new ArrayList<>();
-
-        List<ArchivoDataset> pendientes = archivoRepository.findByEstado(EstadoArchivo.PENDIENTE);
+    public ProgresoArchivo obtenerProgreso(Long archivoId) {
+        return progresos.get(archivoId);
+    }
 
-        for (ArchivoDataset archivo : pendientes) {
-            try {
-                // Leer archivo desde file system
-                byte[] contenido = fileStorageService.leerArchivo(archivo.getRutaArchivo());
+    public List<ProgresoArchivo> obtenerProgresos() {
+        return new ArrayList<>(progresos.values());
+    }
 
-                // Parsear CSV
-                List<Hecho> hechos = parsearCSV(contenido);
+    /**
+     * Arma el próximo lote de hasta {@code tamanio} hechos a partir del checkpoint del primer archivo PENDIENTE.
+     * No avanza el checkpoint: mientras el agregador no confirme con {@link #confirmarLote(AckLoteDTO)},
+     * cada llamada vuelve a servir el mismo tramo (si el agregador se cae, retoma donde se quedó).
+     * Los tramos siguientes del archivo se van parseando en paralelo en el pool de ingesta.
+     *
+     * @return el lote, o null si no quedan archivos pendientes
+     */
+    public LoteHechosDTO siguienteLote(int tamanio) {
+        synchronized (lecturaLock) {
+            for (ArchivoDataset archivo : archivoRepository.findByEstadoOrderByIdAsc(EstadoArchivo.PENDIENTE)) {
+                try {
+                    if (archivo.getFechaProcesamiento() == null) {
+                        archivo.setFechaProcesamiento(LocalDateTime.now());
+                        archivo = archivoRepository.save(archivo);
+                    }
+                    LoteHechosDTO lote = lecturaDe(archivo).armarLote(tamanio);
 
-                // Si no se parseó ningún hecho, marcar como FALLIDO
-                if (hechos.isEmpty()) {
-                    log.warn("Archivo {} no generó ningún hecho válido", archivo.getNombreArchivo());
+                    if (lote.isUltimo() && lote.getHechos().isEmpty()) {
+                        // No queda nada por entregar de este archivo: se cierra sin esperar ack
+                        descartarLectura();
+                        cerrarArchivo(archivo, lote.getOffsetFin(), lote.getFilaFin(), lote.getFilasSalteadas());
+                        continue;
+                    }
+                    log.info("Lote de archivo {}: bytes [{}, {}), {} hechos{}", archivo.getNombreArchivo(),
+                            lote.getOffsetInicio(), lote.getOffsetFin(), lote.getHechos().size(), lote.isUltimo() ? " (último)" : "");
+                    return lote;
+                } catch (Exception e) {
+                    log.error("Error leyendo lote de archivo {}: {}", archivo.getNombreArchivo(), e.getMessage(), e);
+                    descartarLectura();
                     archivo.setEstado(EstadoArchivo.FALLIDO);
-                    archivo.setErrores("No se pudo parsear ningún hecho válido del CSV");
+                    archivo.setErrores("Error al procesar: " + e.getMessage());
                     archivoRepository.save(archivo);
-                    continue;
-                }
-
-                // CRÍTICO: Setear origenArchivoId para trazabilidad
-                for (Hecho hecho : hechos) {
-                    hecho.setOrigenArchivoId(archivo.getId());
                 }
+            }
+            return null;
+        }
+    }
 
-                todosLosHechos.addAll(hechos);
+    /**
+     * Confirmación del agregador: avanza el checkpoint del archivo al final del lote.
+     * Solo se acepta si el lote empieza exactamente en el checkpoint actual; un ack repetido
+     * (el checkpoint ya está en offsetFin) se considera aplicado.
+     *
+     * @return true si el checkpoint quedó en offsetFin
+     */
+    @Transactional
+    public boolean confirmarLote(AckLoteDTO ack) {
+        ArchivoDataset archivo = archivoRepository.findById(ack.getArchivoId()).orElse(null);
+        if (archivo == null) {
+            return false;
+        }
+        long checkpoint = archivo.getOffsetCheckpoint() != null ? archivo.getOffsetCheckpoint() : 0L;
+        if (checkpoint == ack.getOffsetFin()) {
+            return true;
+        }
+        if (archivo.getEstado() != EstadoArchivo.PENDIENTE || checkpoint != ack.getOffsetInicio()) {
+            log.warn("Ack fuera de orden para archivo {}: checkpoint={}, lote=[{}, {})",
+                    archivo.getId(), checkpoint, ack.getOffsetInicio(), ack.getOffsetFin());
+            return false;
+        }
 
-                // Actualizar estado a PROCESADO
-                log.info("Archivo {} procesado exitosamente: {} hechos", archivo.getNombreArchivo(), hechos.size());
-                archivo.setEstado(EstadoArchivo.PROCESADO);
-                archivo.setFilasProcesadas(hechos.size());
-                archivoRepository.save(archivo);
+        archivo.setFilasProcesadas(valor(archivo.getFilasProcesadas()) + ack.getCantidadHechos());
+        if (ack.isUltimo()) {
+            cerrarArchivo(archivo, ack.getOffsetFin(), ack.getFilaFin(), ack.getFilasSalteadas());
+        } else {
+            archivo.setOffsetCheckpoint(ack.getOffsetFin());
+            archivo.setFilaCheckpoint(ack.getFilaFin());
+            archivo.setFilasSalteadas(valor(archivo.getFilasSalteadas()) + ack.getFilasSalteadas());
+            archivoRepository.save(archivo);
+        }
 
-            } catch (Exception e) {
-                log.error("Error procesando archivo {}: {}", archivo.getNombreArchivo(), e.getMessage(), e);
-                // Marcar como FALLIDO
-                archivo.setEstado(EstadoArchivo.FALLIDO);
-                archivo.setErrores("Error al procesar: " + e.getMessage());
-                archivoRepository.save(archivo);
+        synchronized (lecturaLock) {
+            if (lectura != null && lectura.getArchivoId().equals(archivo.getId())
+                    && (ack.isUltimo() || !lectura.confirmar(ack.getOffsetFin(), ack.getFilaFin()))) {
+                // Archivo cerrado, o lectura desfasada: el próximo pedido la vuelve a abrir desde el checkpoint
+                descartarLectura();
             }
         }
+        return true;
+    }
 
-        return todosLosHechos;
+    private void cerrarArchivo(ArchivoDataset archivo, long offsetFin, long filaFin, int filasSalteadas) {
+        archivo.setOffsetCheckpoint(offsetFin);
+        archivo.setFilaCheckpoint(filaFin);
+        archivo.setFilasSalteadas(valor(archivo.getFilasSalteadas()) + filasSalteadas);
+        if (valor(archivo.getFilasProcesadas()) == 0) {
+            log.warn("Archivo {} no generó ningún hecho válido", archivo.getNombreArchivo());
+            archivo.setEstado(EstadoArchivo.FALLIDO);
+            archivo.setErrores("No se pudo parsear ningún hecho válido del CSV");
+        } else {
+            log.info("Archivo {} procesado exitosamente: {} hechos", archivo.getNombreArchivo(), archivo.getFilasProcesadas());
+            archivo.setEstado(EstadoArchivo.PROCESADO);
+            archivo.setFechaProcesamiento(LocalDateTime.now());
+        }
+        archivoRepository.save(archivo);
     }
 
     /**
-     * Parsea el contenido del CSV y retorna una lista de hechos.
-     * Formato CSV esperado: Titulo,Descripción,Categoría,Latitud,Longitud,Fecha del hecho
+     * Lectura adelantada del archivo posicionada en su checkpoint. Se reutiliza entre lotes;
+     * si el archivo cambió o el checkpoint no coincide (p. ej. después de reiniciar) se abre de nuevo.
      */
-    private List<Hecho> parsearCSV(byte[] contenido) throws Exception {
-        List<Hecho> hechos = new ArrayList<>();
-        
-        String csvContent = new String(contenido, StandardCharsets.UTF_8);
-        CSVReader csvReader = new CSVReader(new StringReader(csvContent));
-        
-        List<String[]> allRows = csvReader.readAll();
-        csvReader.close();
-        
-        if (allRows.isEmpty()) {
-            log.warn("CSV vacío");
-            return hechos;
+    private LecturaAdelantada lecturaDe(ArchivoDataset archivo) throws IOException {
+        long checkpoint = valor(archivo.getOffsetCheckpoint());
+        if (lectura != null && lectura.getArchivoId().equals(archivo.getId()) && lectura.getCheckpoint() == checkpoint) {
+            return lectura;
         }
-        
-        // Primera fila es el header
-        String[] header = allRows.get(0);
-        log.info("Header CSV: {}", String.join(", ", header));
-        
-        int lineaNumero = 1;
-        for (int i = 1; i < allRows.size(); i++) {
-            lineaNumero = i + 1;
-            String[] campos = allRows.get(i);
-            
-            if (campos.length < 6) {
-                log.warn("Línea {} malformada (tiene {} campos)", lineaNumero, campos.length);
-                continue;
-            }
+        descartarLectura();
 
-            try {
-                Hecho hecho = new Hecho();
-                
-                // Campos básicos (A: Titulo, B: Descripción, C: Categoría)
-                hecho.setTitulo(campos[0].trim());
-                hecho.setDescripcion(campos[1].trim());
-                hecho.setCategoria(campos[2].trim());
-                
-                // Ubicación (D: Latitud, E: Longitud)
-                Ubicacion ubicacion = new Ubicacion();
-                ubicacion.setLatitud(Double.parseDouble(campos[3].trim()));
-                ubicacion.setLongitud(Double.parseDouble(campos[4].trim()));
-                hecho.setUbicacion(ubicacion);
-                
-                // Fecha del hecho: parsear campos[5] en formato DD/MM/YYYY
-                try {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                    LocalDate fecha = LocalDate.parse(campos[5].trim(), formatter);
-                    hecho.setFechaHecho(fecha.atStartOfDay()); // Convertir a LocalDateTime a medianoche
-                } catch (DateTimeParseException e) {
-                    // Si falla el parseo, usar fecha fija para mantener consistencia en fingerprint
-                    log.warn("Error parseando fecha '{}' en línea {}, usando fecha por defecto", campos[5], lineaNumero);
-                    hecho.setFechaHecho(LocalDateTime.of(2025, 1, 1, 0, 0));
-                }
-                hecho.setFechaCarga(LocalDateTime.now());
-                
-                // Metadata
-                hecho.setOrigen(OrigenHecho.DATASET);
-                
-                // Fuente para depuración
-                List<String> fuentes = new ArrayList<>();
-                fuentes.add("fuente-estatica");
-                hecho.setFuentes(fuentes);
-                
-                hechos.add(hecho);
-            } catch (NumberFormatException e) {
-                log.warn("Error parseando coordenadas en línea {}: {}", lineaNumero, e.getMessage());
-                continue;
-            }
+        Long archivoId = archivo.getId();
+        LocalDateTime fechaProcesamiento = archivo.getFechaProcesamiento();
+        Path ruta = fileStorageService.obtenerRutaExistente(archivo.getRutaArchivo());
+        int ventana = tramosAdelantados > 0 ? tramosAdelantados : ingestaExecutor.getMaxPoolSize();
+
+        lectura = LecturaAdelantada.abrir(archivoId, archivo.getNombreArchivo(), ruta, checkpoint,
+                valor(archivo.getFilaCheckpoint()), tamanioSegmento,
+                (campos, fila) -> aDTO(parsearFila(campos, fila), archivoId, fechaProcesamiento),
+                ingestaExecutor, ventana);
+        progresos.put(archivoId, lectura.getProgreso());
+        log.info("Archivo {}: {} bytes en {} tramos desde el byte {}", archivo.getNombreArchivo(),
+                lectura.getProgreso().getBytesTotales(), lectura.getProgreso().getSegmentosTotales(), checkpoint);
+        return lectura;
+    }
+
+    private void descartarLectura() {
+        if (lectura != null) {
+            lectura.cerrar();
+            lectura = null;
         }
+    }
+
+    /**
+     * Setea origenArchivoId (trazabilidad) y ultimaActualizacion en un hecho parseado y lo pasa a DTO.
+     */
+    private static HechoDTO aDTO(Hecho hecho, Long archivoId, LocalDateTime fechaProcesamiento) {
+        if (hecho == null) {
+            return null;
+        }
+        hecho.setOrigenArchivoId(archivoId);
+        hecho.setUltimaActualizacion(fechaProcesamiento);
+        return HechoMapper.toDTO(hecho);
+    }
 
-        log.info("Total de hechos parseados del CSV: {}", hechos.size());
-        return hechos;
+    private static long valor(Long numero) {
+        return numero != null ? numero : 0L;
+    }
+
+    private static int valor(Integer numero) {
+        return numero != null ? numero : 0;
     }
 
     /**
-     * Calcula hash SHA-256 del archivo para detección de duplicados.
+     * Convierte una fila del CSV en un hecho, o null si la fila es inválida.
+     * Formato CSV esperado: Titulo,Descripción,Categoría,Latitud,Longitud,Fecha del hecho
      */
-    private String calcularSha256(byte[] contenido) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(contenido);
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
+    private Hecho parsearFila(String[] campos, long lineaNumero) {
+        if (campos.length < 6) {
+            log.warn("Línea {} malformada (tiene {} campos)", lineaNumero, campos.length);
+            return null;
+        }
+
+        try {
+            Hecho hecho = new Hecho();
+            
+            // Campos básicos (A: Titulo, B: Descripción, C: Categoría)
+            hecho.setTitulo(campos[0].trim());
+            hecho.setDescripcion(campos[1].trim());
+            hecho.setCategoria(campos[2].trim());
+            
+            // Ubicación (D: Latitud, E: Longitud)
+            Ubicacion ubicacion = new Ubicacion();
+            ubicacion.setLatitud(Double.parseDouble(campos[3].trim()));
+            ubicacion.setLongitud(Double.parseDouble(campos[4].trim()));
+            hecho.setUbicacion(ubicacion);
+            
+            // Fecha del hecho: parsear campos[5] en formato DD/MM/YYYY
+            try {
+                LocalDate fecha = LocalDate.parse(campos[5].trim(), FORMATO_FECHA);
+                hecho.setFechaHecho(fecha.atStartOfDay()); // Convertir a LocalDateTime a medianoche
+            } catch (DateTimeParseException e) {
+                // Si falla el parseo, usar fecha fija para mantener consistencia en fingerprint
+                log.warn("Error parseando fecha '{}' en línea {}, usando fecha por defecto", campos[5], lineaNumero);
+                hecho.setFechaHecho(LocalDateTime.of(2025, 1, 1, 0, 0));
+            }
+            hecho.setFechaCarga(LocalDateTime.now());
+            
+            // Metadata
+            hecho.setOrigen(OrigenHecho.DATASET);
+            
+            // Fuente para depuración
+            List<String> fuentes = new ArrayList<>();
+            fuentes.add("fuente-estatica");
+            hecho.setFuentes(fuentes);
+            
+            return hecho;
+        } catch (NumberFormatException e) {
+            log.warn("Error parseando coordenadas en línea {}: {}", lineaNumero, e.getMessage());
+            return null;
         }
-        return hexString.toString();
     }
 
     /**
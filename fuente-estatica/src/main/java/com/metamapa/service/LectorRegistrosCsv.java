@@ -0,0 +1,191 @@
+package com.metamapa.service;
+
+import com.opencsv.CSVParser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV por streaming: lee el archivo registro por registro desde un FileChannel con buffer,
+ * sin cargarlo entero en memoria.
+ *
+ * Corta los registros a nivel de bytes (respetando saltos de línea dentro de comillas) y lleva
+ * la cuenta del offset en bytes y del número de fila, así se puede retomar la lectura desde
+ * cualquier límite de registro.
+ */
+public class LectorRegistrosCsv implements Closeable {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final InputStream entrada;
+    private final CSVParser parser = new CSVParser();
+    private final ByteArrayOutputStream registro = new ByteArrayOutputStream(256);
+
+    private final long limite;
+    private long offset;
+    private long fila;
+
+    /**
+     * @param archivo        archivo CSV
+     * @param offsetInicial  byte donde empieza a leer (debe ser inicio de registro)
+     * @param filaInicial    número de fila que corresponde a ese offset
+     * @param limite         byte donde deja de leer (debe ser inicio de registro o el tamaño del archivo)
+     */
+    public LectorRegistrosCsv(Path archivo, long offsetInicial, long filaInicial, long limite) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        this.canal.position(offsetInicial);
+        this.entrada = new BufferedInputStream(Channels.newInputStream(canal), TAMANIO_BUFFER);
+        this.offset = offsetInicial;
+        this.fila = filaInicial;
+        this.limite = limite;
+    }
+
+    public LectorRegistrosCsv(Path archivo, long offsetInicial, long filaInicial) throws IOException {
+        this(archivo, offsetInicial, filaInicial, Long.MAX_VALUE);
+    }
+
+    public LectorRegistrosCsv(Path archivo) throws IOException {
+        this(archivo, 0L, 0L);
+    }
+
+    /**
+     * Lee el próximo registro.
+     *
+     * @return los campos del registro, o null si se llegó al final del archivo
+     */
+    public String[] leerRegistro() throws IOException {
+        if (offset >= limite) {
+            return null;
+        }
+        registro.reset();
+        boolean entreComillas = false;
+        boolean leyoAlgo = false;
+        int b;
+        while ((b = entrada.read()) != -1) {
+            offset++;
+            leyoAlgo = true;
+            if (b == '"') {
+                entreComillas = !entreComillas;
+            } else if (b == '\n' && !entreComillas) {
+                break;
+            }
+            registro.write(b);
+        }
+        if (!leyoAlgo) {
+            return null;
+        }
+        fila++;
+
+        byte[] bytes = registro.toByteArray();
+        int inicio = 0;
+        int fin = bytes.length;
+        if (fin > 0 && bytes[fin - 1] == '\r') fin--;
+        // BOM UTF-8 al comienzo del archivo
+        if (fila == 1 && fin >= 3 && (bytes[0] & 0xff) == 0xEF && (bytes[1] & 0xff) == 0xBB && (bytes[2] & 0xff) == 0xBF) {
+            inicio = 3;
+        }
+        return parser.parseLine(new String(bytes, inicio, fin - inicio, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Bytes consumidos hasta el final del último registro leído (siempre un límite de registro).
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Número de fila del último registro leído (la cabecera es la fila 1).
+     */
+    public long getFila() {
+        return fila;
+    }
+
+    /**
+     * Divide el archivo, desde {@code desde}, en tramos de aproximadamente {@code tamanioSegmento} bytes
+     * que empiezan y terminan en límite de registro, para parsearlos en paralelo.
+     * Es una pasada secuencial que solo mira comillas y saltos de línea (no parsea campos) y de paso
+     * cuenta filas, así cada tramo sabe en qué fila arranca.
+     *
+     * @param filaDesde número de fila que corresponde a {@code desde}
+     */
+    public static List<Segmento> dividirEnSegmentos(Path archivo, long desde, long filaDesde,
+                                                    long tamanioSegmento) throws IOException {
+        List<Segmento> segmentos = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            canal.position(desde);
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BUFFER);
+            long posicion = desde;
+            long fila = filaDesde;
+            long inicio = desde;
+            long filaInicio = filaDesde;
+            long objetivo = desde + tamanioSegmento;
+            boolean entreComillas = false;
+
+            while (canal.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    posicion++;
+                    if (b == '"') {
+                        entreComillas = !entreComillas;
+                    } else if (b == '\n' && !entreComillas) {
+                        fila++;
+                        if (posicion >= objetivo) {
+                            segmentos.add(new Segmento(inicio, posicion, filaInicio));
+                            inicio = posicion;
+                            filaInicio = fila;
+                            objetivo = posicion + tamanioSegmento;
+                        }
+                    }
+                }
+                buffer.clear();
+            }
+            if (posicion > inicio) {
+                segmentos.add(new Segmento(inicio, posicion, filaInicio));
+            }
+        }
+        return segmentos;
+    }
+
+    /**
+     * Tramo [inicio, fin) de un CSV alineado a límites de registro.
+     */
+    public static final class Segmento {
+        private final long inicio;
+        private final long fin;
+        private final long filaInicial;
+
+        Segmento(long inicio, long fin, long filaInicial) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.filaInicial = filaInicial;
+        }
+
+        public long getInicio() { return inicio; }
+        public long getFin() { return fin; }
+        public long getFilaInicial() { return filaInicial; }
+        public long getTamanio() { return fin - inicio; }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            entrada.close();
+        } finally {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.HechoDTO;
+import com.metamapa.dto.LoteHechosDTO;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Lectura de un archivo para el protocolo de lotes con el parseo adelantado en el pool de ingesta.
+ *
+ * El archivo se divide en tramos alineados a registros y hasta {@code ventana} tramos por delante
+ * del checkpoint se parsean en paralelo mientras el agregador depura el lote anterior. Los lotes se
+ * arman en orden con los registros ya parseados y solo se descartan cuando llega su ack, así un lote
+ * sin confirmar se vuelve a servir igual. No es thread-safe: la usa el servicio bajo su lock.
+ */
+class LecturaAdelantada {
+
+    /**
+     * Convierte los campos de un registro en un hecho, o null si el registro es inválido.
+     */
+    interface ParserRegistro {
+        HechoDTO parsear(String[] campos, long fila);
+    }
+
+    private final Long archivoId;
+    private final Path ruta;
+    private final List<LectorRegistrosCsv.Segmento> segmentos;
+    private final ParserRegistro parser;
+    private final Executor executor;
+    private final int ventana;
+    private final ProgresoArchivo progreso;
+
+    // Tramos encolados y todavía no confirmados; el primero contiene el checkpoint
+    private final List<Tramo> tramos = new ArrayList<>();
+    private int siguienteSegmento;
+    private int consumidosCabeza;
+
+    // Checkpoint del archivo que corresponde a la posición actual, y dónde arranca el próximo registro
+    private long checkpoint;
+    private long offset;
+    private long fila;
+
+    private LecturaAdelantada(Long archivoId, Path ruta, List<LectorRegistrosCsv.Segmento> segmentos,
+                              ParserRegistro parser, Executor executor, int ventana, ProgresoArchivo progreso,
+                              long checkpoint, long offset, long fila) {
+        this.archivoId = archivoId;
+        this.ruta = ruta;
+        this.segmentos = segmentos;
+        this.parser = parser;
+        this.executor = executor;
+        this.ventana = Math.max(1, ventana);
+        this.progreso = progreso;
+        this.checkpoint = checkpoint;
+        this.offset = offset;
+        this.fila = fila;
+    }
+
+    /**
+     * Abre el archivo en el checkpoint: saltea la cabecera si se lee desde el principio, lo divide
+     * en tramos y encola el parseo de los primeros.
+     */
+    static LecturaAdelantada abrir(Long archivoId, String nombreArchivo, Path ruta, long checkpoint, long filaCheckpoint,
+                                   long tamanioSegmento, ParserRegistro parser, Executor executor, int ventana)
+            throws IOException {
+        long offset = checkpoint;
+        long fila = filaCheckpoint;
+        List<LectorRegistrosCsv.Segmento> segmentos = new ArrayList<>();
+        boolean vacio = false;
+        if (checkpoint == 0) {
+            try (LectorRegistrosCsv lector = new LectorRegistrosCsv(ruta)) {
+                vacio = lector.leerRegistro() == null;
+                offset = lector.getOffset();
+                fila = lector.getFila();
+            }
+        }
+        if (!vacio) {
+            segmentos = LectorRegistrosCsv.dividirEnSegmentos(ruta, offset, fila, tamanioSegmento);
+        }
+        long bytes = segmentos.stream().mapToLong(LectorRegistrosCsv.Segmento::getTamanio).sum();
+        ProgresoArchivo progreso = new ProgresoArchivo(archivoId, nombreArchivo, bytes, segmentos.size());
+
+        LecturaAdelantada lectura = new LecturaAdelantada(archivoId, ruta, segmentos, parser, executor, ventana,
+                progreso, checkpoint, offset, fila);
+        lectura.completarVentana();
+        return lectura;
+    }
+
+    Long getArchivoId() {
+        return archivoId;
+    }
+
+    long getCheckpoint() {
+        return checkpoint;
+    }
+
+    ProgresoArchivo getProgreso() {
+        return progreso;
+    }
+
+    /**
+     * Arma el lote de hasta {@code tamanio} hechos válidos que empieza en el checkpoint, sin consumirlo.
+     * Si el lote se llena justo al final del archivo, el próximo pedido devuelve un lote vacío y último.
+     */
+    LoteHechosDTO armarLote(int tamanio) {
+        List<HechoDTO> hechos = new ArrayList<>(Math.min(tamanio, 1024));
+        int salteadas = 0;
+        long offsetFin = offset;
+        long filaFin = fila;
+        boolean fin = false;
+
+        int tramo = 0;
+        int indice = consumidosCabeza;
+        while (hechos.size() < tamanio) {
+            if (tramo == tramos.size() && !encolarSiguiente()) {
+                fin = true;
+                break;
+            }
+            List<Registro> registros = tramos.get(tramo).obtener();
+            if (indice >= registros.size()) {
+                tramo++;
+                indice = 0;
+                continue;
+            }
+            Registro registro = registros.get(indice++);
+            offsetFin = registro.offsetFin;
+            filaFin = registro.filaFin;
+            if (registro.hecho == null) {
+                salteadas++;
+            } else {
+                hechos.add(registro.hecho);
+            }
+        }
+
+        LoteHechosDTO lote = new LoteHechosDTO();
+        lote.setArchivoId(archivoId);
+        lote.setOffsetInicio(checkpoint);
+        lote.setOffsetFin(offsetFin);
+        lote.setFilaFin(filaFin);
+        lote.setFilasSalteadas(salteadas);
+        lote.setUltimo(fin);
+        lote.setHechos(hechos);
+        return lote;
+    }
+
+    /**
+     * El agregador confirmó el lote que termina en {@code offsetFin}: descarta sus registros
+     * y encola más tramos para mantener la ventana llena.
+     *
+     * @return false si {@code offsetFin} no coincide con un límite de registro ya parseado
+     */
+    boolean confirmar(long offsetFin, long filaFin) {
+        while (offset < offsetFin && !tramos.isEmpty()) {
+            List<Registro> registros = tramos.get(0).obtener();
+            if (consumidosCabeza >= registros.size()) {
+                tramos.remove(0);
+                consumidosCabeza = 0;
+                continue;
+            }
+            Registro registro = registros.get(consumidosCabeza++);
+            offset = registro.offsetFin;
+            fila = registro.filaFin;
+        }
+        if (offset != offsetFin) {
+            return false;
+        }
+        if (!tramos.isEmpty() && consumidosCabeza >= tramos.get(0).obtener().size()) {
+            tramos.remove(0);
+            consumidosCabeza = 0;
+        }
+        checkpoint = offsetFin;
+        fila = filaFin;
+        completarVentana();
+        return true;
+    }
+
+    /**
+     * Deja de adelantar tramos (el archivo se cerró o la lectura quedó desfasada del checkpoint).
+     */
+    void cerrar() {
+        for (Tramo tramo : tramos) {
+            tramo.registros.cancel(false);
+        }
+        tramos.clear();
+        siguienteSegmento = segmentos.size();
+    }
+
+    private void completarVentana() {
+        while (tramos.size() < ventana && encolarSiguiente()) {
+            // encola hasta llenar la ventana o terminar el archivo
+        }
+    }
+
+    private boolean encolarSiguiente() {
+        if (siguienteSegmento >= segmentos.size()) {
+            return false;
+        }
+        LectorRegistrosCsv.Segmento segmento = segmentos.get(siguienteSegmento++);
+        tramos.add(new Tramo(CompletableFuture.supplyAsync(() -> parsear(segmento), executor)));
+        return true;
+    }
+
+    private List<Registro> parsear(LectorRegistrosCsv.Segmento segmento) {
+        List<Registro> registros = new ArrayList<>();
+        int validos = 0;
+        try (LectorRegistrosCsv lector = new LectorRegistrosCsv(ruta, segmento.getInicio(),
+                segmento.getFilaInicial(), segmento.getFin())) {
+            String[] campos;
+            while ((campos = lector.leerRegistro()) != null) {
+                HechoDTO hecho = parser.parsear(campos, lector.getFila());
+                if (hecho != null) {
+                    validos++;
+                }
+                registros.add(new Registro(hecho, lector.getOffset(), lector.getFila()));
+            }
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        progreso.avanzar(segmento.getTamanio(), validos);
+        progreso.terminarSegmento();
+        return registros;
+    }
+
+    private static final class Tramo {
+        private final CompletableFuture<List<Registro>> registros;
+
+        Tramo(CompletableFuture<List<Registro>> registros) {
+            this.registros = registros;
+        }
+
+        List<Registro> obtener() {
+            try {
+                return registros.join();
+            } catch (CompletionException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                throw new IllegalStateException(causa.getMessage(), causa);
+            }
+        }
+    }
+
+    /**
+     * Registro parseado: el hecho (null si la fila es inválida) y dónde termina.
+     */
+    private static final class Registro {
+        private final HechoDTO hecho;
+        private final long offsetFin;
+        private final long filaFin;
+
+        Registro(HechoDTO hecho, long offsetFin, long filaFin) {
+            this.hecho = hecho;
+            this.offsetFin = offsetFin;
+            this.filaFin = filaFin;
+        }
+    }
+}
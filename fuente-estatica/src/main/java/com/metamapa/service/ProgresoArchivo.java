@@ -0,0 +1,55 @@
+package com.metamapa.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Avance del parseo de un archivo: bytes leídos, hechos entregados y tramos terminados.
+ * Lo actualizan los workers de ingesta en paralelo; se expone por GET /archivos/{id}/progreso.
+ */
+public class ProgresoArchivo {
+
+    private final Long archivoId;
+    private final String nombreArchivo;
+    private final long bytesTotales;
+    private final int segmentosTotales;
+    private final LocalDateTime inicio = LocalDateTime.now();
+
+    private final AtomicLong bytesProcesados = new AtomicLong();
+    private final AtomicInteger hechosEntregados = new AtomicInteger();
+    private final AtomicInteger segmentosTerminados = new AtomicInteger();
+
+    public ProgresoArchivo(Long archivoId, String nombreArchivo, long bytesTotales, int segmentosTotales) {
+        this.archivoId = archivoId;
+        this.nombreArchivo = nombreArchivo;
+        this.bytesTotales = bytesTotales;
+        this.segmentosTotales = segmentosTotales;
+    }
+
+    void avanzar(long bytes, int hechos) {
+        bytesProcesados.addAndGet(bytes);
+        hechosEntregados.addAndGet(hechos);
+    }
+
+    void terminarSegmento() {
+        segmentosTerminados.incrementAndGet();
+    }
+
+    public Long getArchivoId() { return archivoId; }
+    public String getNombreArchivo() { return nombreArchivo; }
+    public long getBytesTotales() { return bytesTotales; }
+    public int getSegmentosTotales() { return segmentosTotales; }
+    public LocalDateTime getInicio() { return inicio; }
+    public long getBytesProcesados() { return bytesProcesados.get(); }
+    public int getHechosEntregados() { return hechosEntregados.get(); }
+    public int getSegmentosTerminados() { return segmentosTerminados.get(); }
+
+    public double getPorcentaje() {
+        return bytesTotales == 0 ? 100.0 : Math.min(100.0, bytesProcesados.get() * 100.0 / bytesTotales);
+    }
+
+    public boolean isTerminado() {
+        return segmentosTerminados.get() >= segmentosTotales;
+    }
+}
@@ -0,0 +1,148 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.HechoDTO;
+import com.metamapa.dto.LoteHechosDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LecturaAdelantadaTest {
+
+    // Tramos chicos para que casi todos los registros queden en un tramo distinto
+    private static final long TAMANIO_SEGMENTO = 16;
+    private static final Executor MISMO_HILO = Runnable::run;
+
+    // Titulo vacío = registro inválido
+    private static final LecturaAdelantada.ParserRegistro PARSER = (campos, fila) -> {
+        if (campos.length < 2 || campos[0].isEmpty()) return null;
+        HechoDTO hecho = new HechoDTO();
+        hecho.setTitulo(campos[0]);
+        hecho.setDescripcion(campos[1]);
+        return hecho;
+    };
+
+    @TempDir
+    Path directorio;
+
+    private Path escribirCsv(String contenido) throws IOException {
+        Path ruta = directorio.resolve("hechos.csv");
+        Files.write(ruta, contenido.getBytes(StandardCharsets.UTF_8));
+        return ruta;
+    }
+
+    private LecturaAdelantada abrir(Path ruta) throws IOException {
+        return LecturaAdelantada.abrir(1L, "hechos.csv", ruta, 0L, 0L, TAMANIO_SEGMENTO, PARSER, MISMO_HILO, 2);
+    }
+
+    private static List<String> titulos(LoteHechosDTO lote) {
+        List<String> titulos = new ArrayList<>();
+        for (HechoDTO hecho : lote.getHechos()) titulos.add(hecho.getTitulo());
+        return titulos;
+    }
+
+    @DisplayName("Un registro entre comillas con saltos de línea más largo que un tramo se entrega entero y en orden")
+    @Test
+    void armarLote_RegistroMultilineaEntreTramos() throws IOException {
+        String descripcion = "primera linea del relato\nsegunda linea, con coma\ntercera linea";
+        Path ruta = escribirCsv("titulo,descripcion\n"
+                + "A,corta\n"
+                + "B,\"" + descripcion + "\"\n"
+                + ",sin titulo\n"
+                + "C,\"otra \"\"cita\"\"\ncon salto\"\n"
+                + "D,final\n");
+        LecturaAdelantada lectura = abrir(ruta);
+
+        List<HechoDTO> leidos = new ArrayList<>();
+        int salteadas = 0;
+        LoteHechosDTO lote;
+        do {
+            lote = lectura.armarLote(2);
+            leidos.addAll(lote.getHechos());
+            salteadas += lote.getFilasSalteadas();
+            assertTrue(lectura.confirmar(lote.getOffsetFin(), lote.getFilaFin()), "Cada lote termina en límite de registro");
+        } while (!lote.isUltimo());
+
+        assertEquals(4, leidos.size(), "Debe leer los cuatro registros válidos");
+        assertEquals("A", leidos.get(0).getTitulo());
+        assertEquals("B", leidos.get(1).getTitulo());
+        assertEquals(descripcion, leidos.get(1).getDescripcion(), "Los saltos de línea entre comillas son parte del campo");
+        assertEquals("C", leidos.get(2).getTitulo());
+        assertEquals("otra \"cita\"\ncon salto", leidos.get(2).getDescripcion());
+        assertEquals("D", leidos.get(3).getTitulo());
+        assertEquals(1, salteadas, "La fila sin título se cuenta como salteada");
+        assertEquals(Files.size(ruta), lectura.getCheckpoint(), "El checkpoint termina al final del archivo");
+        assertEquals(6, lote.getFilaFin(), "Cada registro cuenta como una fila aunque ocupe varias líneas");
+    }
+
+    @DisplayName("Si el lote se llena justo al final del archivo, el siguiente es vacío y último")
+    @Test
+    void armarLote_LoteLlenoJustoAlFinal() throws IOException {
+        Path ruta = escribirCsv("titulo,descripcion\nA,1\nB,2\nC,3\nD,4\n");
+        LecturaAdelantada lectura = abrir(ruta);
+
+        LoteHechosDTO primero = lectura.armarLote(2);
+        assertEquals(2, primero.getHechos().size());
+        assertFalse(primero.isUltimo());
+        assertTrue(lectura.confirmar(primero.getOffsetFin(), primero.getFilaFin()));
+
+        LoteHechosDTO segundo = lectura.armarLote(2);
+        assertEquals(2, segundo.getHechos().size());
+        assertEquals(Files.size(ruta), segundo.getOffsetFin(), "El segundo lote llega hasta el último byte");
+        assertFalse(segundo.isUltimo(), "Todavía no sabe que no queda nada");
+        assertTrue(lectura.confirmar(segundo.getOffsetFin(), segundo.getFilaFin()));
+
+        LoteHechosDTO ultimo = lectura.armarLote(2);
+        assertTrue(ultimo.getHechos().isEmpty(), "No quedan hechos");
+        assertTrue(ultimo.isUltimo(), "El lote vacío marca el fin del archivo");
+        assertEquals(Files.size(ruta), ultimo.getOffsetInicio());
+        assertEquals(Files.size(ruta), ultimo.getOffsetFin());
+        assertEquals(5, ultimo.getFilaFin());
+    }
+
+    @DisplayName("Un lote sin confirmar se vuelve a servir igual")
+    @Test
+    void armarLote_SinAckDevuelveElMismoLote() throws IOException {
+        Path ruta = escribirCsv("titulo,descripcion\nA,1\nB,\"dos\nlineas\"\nC,3\nD,4\nE,5\n");
+        LecturaAdelantada lectura = abrir(ruta);
+
+        LoteHechosDTO lote = lectura.armarLote(3);
+        LoteHechosDTO repetido = lectura.armarLote(3);
+
+        assertEquals(titulos(lote), titulos(repetido), "Sin ack se repiten los mismos hechos");
+        assertEquals(lote.getOffsetInicio(), repetido.getOffsetInicio());
+        assertEquals(lote.getOffsetFin(), repetido.getOffsetFin());
+        assertEquals(lote.getFilaFin(), repetido.getFilaFin());
+        assertEquals(0L, lectura.getCheckpoint(), "Armar un lote no mueve el checkpoint");
+
+        assertTrue(lectura.confirmar(lote.getOffsetFin(), lote.getFilaFin()));
+        LoteHechosDTO siguiente = lectura.armarLote(3);
+        assertEquals(lote.getOffsetFin(), siguiente.getOffsetInicio(), "Después del ack arranca donde terminó el anterior");
+        assertEquals(2, siguiente.getHechos().size());
+        assertEquals("D", siguiente.getHechos().get(0).getTitulo());
+        assertTrue(siguiente.isUltimo());
+    }
+
+    @DisplayName("Un ack que no cae en límite de registro se rechaza sin mover el checkpoint")
+    @Test
+    void confirmar_OffsetFueraDeLimiteDeRegistro() throws IOException {
+        Path ruta = escribirCsv("titulo,descripcion\nA,1\nB,\"dos\nlineas\"\nC,3\n");
+        LecturaAdelantada lectura = abrir(ruta);
+        LoteHechosDTO lote = lectura.armarLote(2);
+        long checkpoint = lectura.getCheckpoint();
+
+        // Cae en el medio del registro B, justo después del salto de línea entre comillas
+        long enMedio = lote.getOffsetFin() - "lineas\"\n".length();
+        assertFalse(lectura.confirmar(enMedio, lote.getFilaFin()), "El offset no es fin de ningún registro");
+        assertEquals(checkpoint, lectura.getCheckpoint(), "El checkpoint no se mueve");
+    }
+}
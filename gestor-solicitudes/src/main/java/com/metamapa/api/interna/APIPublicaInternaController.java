@@ -6,6 +6,8 @@ import com.metamapa.dto.ActualizarPerfilDTO;
 import com.metamapa.dto.ColeccionResponseDTO;
 import com.metamapa.dto.ContribuyenteDTO;
 import com.metamapa.dto.CrearSolicitudDTO;
+import com.metamapa.dto.MapaViewportDTO;
+import com.metamapa.dto.PaginaHechosDTO;
 import com.metamapa.dto.ReportarHechoDTO;
 import com.metamapa.entities.MetodoDeNavegacion;
 import com.metamapa.entities.colecciones.Coleccion;
@@ -20,6 +22,8 @@ import com.metamapa.service.SolicitudService;
 import com.metamapa.service.FuenteService;
 import com.metamapa.service.ContribuyenteService;
 import com.metamapa.service.HechoService;
+import com.metamapa.service.MapaService;
+import com.metamapa.service.TileHechosService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +46,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class APIPublicaInternaController {
     
+    // Tamaño de página del mapa: por defecto y tope duro
+    private static final int TAMANIO_PAGINA_HECHOS = 500;
+    private static final int TAMANIO_PAGINA_HECHOS_MAXIMO = 1000;
+    
     private final ColeccionService coleccionService;
     private final SolicitudService solicitudService;
     private final FuenteDinamicaCrudClient fuenteDinamicaCrudClient;
@@ -50,6 +58,8 @@ public class APIPublicaInternaController {
     private final ContribuyenteService contribuyenteService;
     private final HechoRepository hechoRepository;
     private final HechoService hechoService;
+    private final MapaService mapaService;
+    private final TileHechosService tileHechosService;
 
     // Obtener todas las colecciones disponibles
     @GetMapping("/colecciones")
@@ -190,85 +200,109 @@ public class APIPublicaInternaController {
         }
     }
     
-    // Obtener todos los hechos disponibles (no eliminados) para mostrar en mapa
+    // Obtener los hechos disponibles (no eliminados) para mostrar en mapa, de a una página.
+    // Orden: fecha de hecho descendente. El cursor de la página siguiente viaja en el header
+    // X-Siguiente-Cursor (ausente en la última página); el cuerpo sigue siendo la lista de hechos.
     @GetMapping("/hechos")
     public ResponseEntity<List<Hecho>> obtenerTodosLosHechos(
             @RequestParam(required = false) String categoria,
             @RequestParam(required = false) String desde,
             @RequestParam(required = false) String hasta,
-            @RequestParam(required = false) String ubicacion) {
+            @RequestParam(required = false) String ubicacion,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TAMANIO_PAGINA_HECHOS) int limite) {
         
         try {
-            log.info("Consultando hechos con filtros -> Categoria: {}, Desde: {}, Hasta: {}, Ubicacion: {}",
-                    categoria, desde, hasta, ubicacion);
-            // Obtener hechos AGREGADOS desde la base de datos MySQL (no desde las fuentes)
-            List<Hecho> todosLosHechos = hechoRepository.findAll();
+            log.info("Consultando hechos con filtros -> Categoria: {}, Desde: {}, Hasta: {}, Ubicacion: {}, Cursor: {}",
+                    categoria, desde, hasta, ubicacion, cursor);
             
-            // Aplicar filtros
-            List<Hecho> hechosFiltrados = todosLosHechos.stream()
-                .filter(hecho -> !hecho.isEliminado()) // Excluir hechos eliminados
-                .collect(Collectors.toList());
-            
-            // Filtrar por categoría
-            if (categoria != null && !categoria.isEmpty()) {
-                hechosFiltrados = hechosFiltrados.stream()
-                    .filter(h -> h.getCategoria() != null && h.getCategoria().equalsIgnoreCase(categoria))
-                    .collect(Collectors.toList());
-            }
-            
-            // Filtrar por rango de fechas (fecha de hecho)
+            java.time.LocalDateTime fechaInicio = null;
             if (desde != null && !desde.isEmpty()) {
                 try {
                     // El front manda YYYY-MM-DD, lo convertimos al inicio del día
-                    java.time.LocalDateTime fechaInicio = java.time.LocalDate.parse(desde).atStartOfDay();
-                    hechosFiltrados = hechosFiltrados.stream()
-                            .filter(h -> h.getFechaHecho() != null && !h.getFechaHecho().isBefore(fechaInicio))
-                            .collect(Collectors.toList());
+                    fechaInicio = java.time.LocalDate.parse(desde).atStartOfDay();
                 } catch (Exception e) {
                     log.warn("Formato de fecha inválido para 'desde': {}", desde);
                 }
             }
-
+            
+            java.time.LocalDateTime fechaFin = null;
             if (hasta != null && !hasta.isEmpty()) {
                 try {
                     // El front manda YYYY-MM-DD, lo convertimos al final del día (23:59:59)
-                    java.time.LocalDateTime fechaFin = java.time.LocalDate.parse(hasta).atTime(23, 59, 59);
-                    hechosFiltrados = hechosFiltrados.stream()
-                            .filter(h -> h.getFechaHecho() != null && !h.getFechaHecho().isAfter(fechaFin))
-                            .collect(Collectors.toList());
+                    fechaFin = java.time.LocalDate.parse(hasta).atTime(23, 59, 59);
                 } catch (Exception e) {
                     log.warn("Formato de fecha inválido para 'hasta': {}", hasta);
                 }
             }
             
-            // Filtrar por ubicación (busca en país, provincia Y municipio)
-            if (ubicacion != null && !ubicacion.isEmpty()) {
-                String busqueda = ubicacion.toLowerCase();
-                hechosFiltrados = hechosFiltrados.stream()
-                        .filter(h -> {
-                            // Buscar en Título
-                            boolean coincideTitulo = h.getTitulo() != null && h.getTitulo().toLowerCase().contains(busqueda);
-
-                            // Buscar en Ubicación (País, Provincia, Municipio)
-                            boolean coincideLugar = h.getUbicacion() != null && h.getUbicacion().getLugar() != null && (
-                                    (h.getUbicacion().getLugar().getPais() != null && h.getUbicacion().getLugar().getPais().toLowerCase().contains(busqueda)) ||
-                                            (h.getUbicacion().getLugar().getProvincia() != null && h.getUbicacion().getLugar().getProvincia().toLowerCase().contains(busqueda)) ||
-                                            (h.getUbicacion().getLugar().getMunicipio() != null && h.getUbicacion().getLugar().getMunicipio().toLowerCase().contains(busqueda))
-                            );
-
-                            return coincideTitulo || coincideLugar;
-                        })
-                        .collect(Collectors.toList());
+            // Busca en título, país, provincia y municipio
+            PaginaHechosDTO pagina = hechoService.buscarPaginaMapa(
+                    categoria != null && !categoria.isEmpty() ? categoria : null,
+                    fechaInicio,
+                    fechaFin,
+                    ubicacion != null && !ubicacion.isEmpty() ? ubicacion : null,
+                    cursor != null && !cursor.isEmpty() ? cursor : null,
+                    Math.max(1, Math.min(limite, TAMANIO_PAGINA_HECHOS_MAXIMO)));
+            
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (pagina.getSiguienteCursor() != null) {
+                respuesta.header("X-Siguiente-Cursor", pagina.getSiguienteCursor());
             }
-
-            return ResponseEntity.ok(hechosFiltrados);
-
+            return respuesta.body(pagina.getHechos());
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Consulta de hechos inválida: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error al obtener hechos", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    // Hechos del rectángulo visible del mapa: clusters con zoom bajo, hechos sueltos con zoom alto
+    @GetMapping("/mapa")
+    public ResponseEntity<MapaViewportDTO> obtenerHechosEnViewport(
+            @RequestParam double sur,
+            @RequestParam double oeste,
+            @RequestParam double norte,
+            @RequestParam double este,
+            @RequestParam int zoom,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta) {
+        try {
+            java.time.LocalDateTime fechaInicio = desde != null && !desde.isEmpty()
+                    ? java.time.LocalDate.parse(desde).atStartOfDay() : null;
+            java.time.LocalDateTime fechaFin = hasta != null && !hasta.isEmpty()
+                    ? java.time.LocalDate.parse(hasta).atTime(23, 59, 59) : null;
+            
+            return ResponseEntity.ok(mapaService.consultar(sur, oeste, norte, este, zoom,
+                    categoria != null && !categoria.isEmpty() ? categoria : null, fechaInicio, fechaFin));
+            
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            log.warn("Consulta de mapa inválida: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error al consultar hechos del mapa", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    // Tile z/x/y del mapa de hechos en formato binario compacto (ver CodificadorTile), cacheado en memoria
+    @GetMapping(value = "/tiles/{z}/{x}/{y}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> obtenerTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        try {
+            return ResponseEntity.ok(tileHechosService.obtenerTile(z, x, y));
+        } catch (IllegalArgumentException e) {
+            log.warn("Tile inválido: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error al generar tile {}/{}/{}", z, x, y, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     // Obtener un hecho específico por ID
     @GetMapping("/hechos/{id}")
     public ResponseEntity<Hecho> obtenerHechoPorId(@PathVariable Long id) {
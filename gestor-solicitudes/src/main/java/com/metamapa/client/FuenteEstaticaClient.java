@@ -1,17 +1,12 @@
 package com.metamapa.client;
 
-import com.metamapa.dto.HechoDTO;
 import com.metamapa.entities.FuenteDeDatos;
 import com.metamapa.entities.hechos.Hecho;
-import com.metamapa.mapper.HechoMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.Objects;
 import java.util.Collections;
@@ -33,36 +28,10 @@ public class FuenteEstaticaClient implements FuenteDeDatos {
     
     @Override
     public List<Hecho> obtenerHechos() {
-        try {
-            // Usar UriComponentsBuilder para construir la URL de forma más robusta
-            String url = UriComponentsBuilder.fromHttpUrl(fuenteEstaticaUrl)
-                    .path("/api/fuente-estatica/hechos")
-                    .toUriString();
-            
-            log.debug("Intentando conectar a URL: {}", url);
-            
-            ResponseEntity<List<HechoDTO>> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                null, 
-                new ParameterizedTypeReference<List<HechoDTO>>() {}
-            );
-            
-            if (response.getStatusCode().is2xxSuccessful()) {
-                List<HechoDTO> hechosDTO = response.getBody();
-                if (hechosDTO != null) {
-                    List<Hecho> hechos = HechoMapper.toEntityList(hechosDTO);
-                    log.debug("Obtenidos {} hechos de fuente estática", hechos.size());
-                    return hechos;
-                }
-            }
-            log.error("Error al obtener hechos de fuente estática. Status: {}", response.getStatusCode());
-            return Collections.emptyList();
-            
-        } catch (Exception e) {
-            log.error("Error al comunicarse con fuente estática: {}", e.getMessage(), e);
-            return Collections.emptyList();
-        }
+        // La fuente estática entrega sus hechos solo al agregador, por lotes confirmados (/lotes/siguiente).
+        // El gestor los lee de la base central; pedirlos acá consumiría lotes sin confirmarlos.
+        log.warn("Lectura de hechos no soportada desde el gestor para fuente estática");
+        return Collections.emptyList();
     }
     
     @Override
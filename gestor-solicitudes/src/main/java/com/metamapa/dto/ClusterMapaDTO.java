@@ -0,0 +1,17 @@
+package com.metamapa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Grupo de hechos de una celda de la grilla del mapa, ubicado en el promedio de sus coordenadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterMapaDTO {
+    private double latitud;
+    private double longitud;
+    private long cantidad;
+}
@@ -0,0 +1,22 @@
+package com.metamapa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hecho individual del mapa: solo lo necesario para el pin y el popup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HechoMapaDTO {
+    private Long id;
+    private String titulo;
+    private String categoria;
+    private LocalDateTime fechaHecho;
+    private double latitud;
+    private double longitud;
+}
@@ -0,0 +1,18 @@
+package com.metamapa.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Respuesta de la consulta por viewport: clusters (zoom bajo o demasiados hechos) o hechos individuales.
+ */
+@Data
+public class MapaViewportDTO {
+    private int zoom;
+    private boolean agrupado;
+    private double tamanioCelda;                         // en grados; 0 si no está agrupado
+    private List<ClusterMapaDTO> clusters = new ArrayList<>();
+    private List<HechoMapaDTO> hechos = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.metamapa.dto;
+
+import com.metamapa.entities.hechos.Hecho;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de hechos del mapa y el cursor para pedir la siguiente (null si no hay más).
+ */
+@Data
+@AllArgsConstructor
+public class PaginaHechosDTO {
+    private List<Hecho> hechos;
+    private String siguienteCursor;
+}
@@ -0,0 +1,46 @@
+package com.metamapa.repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Posición de un hecho en el orden del mapa (fechaHecho DESC, id DESC), usada como cursor de keyset.
+ * Los hechos sin fecha van al final, ordenados solo por id.
+ *
+ * Formato de texto: "{fechaHecho ISO}_{id}", o "_{id}" si el hecho no tiene fecha.
+ */
+public final class CursorHechos {
+
+    private final LocalDateTime fechaHecho;
+    private final long id;
+
+    public CursorHechos(LocalDateTime fechaHecho, long id) {
+        this.fechaHecho = fechaHecho;
+        this.id = id;
+    }
+
+    public LocalDateTime getFechaHecho() { return fechaHecho; }
+    public long getId() { return id; }
+
+    /**
+     * @throws IllegalArgumentException si el texto no tiene el formato de {@link #toString()}
+     */
+    public static CursorHechos parsear(String texto) {
+        int separador = texto != null ? texto.lastIndexOf('_') : -1;
+        if (separador < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + texto);
+        }
+        try {
+            String fecha = texto.substring(0, separador);
+            return new CursorHechos(fecha.isEmpty() ? null : LocalDateTime.parse(fecha),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + texto);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (fechaHecho != null ? fechaHecho.toString() : "") + "_" + id;
+    }
+}
@@ -0,0 +1,195 @@
+package com.metamapa.repository;
+
+import com.metamapa.dto.ClusterMapaDTO;
+import com.metamapa.dto.HechoMapaDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consultas de hechos para el mapa.
+ *
+ * Paginada: keyset sobre (fecha_hecho, id) descendente. Solo trae posiciones (fecha_hecho, id);
+ * las entidades se cargan después por ID. Se recorre en dos tramos para que cada uno use un rango
+ * del índice de fecha_hecho: primero los hechos con fecha y después los que no tienen
+ * (solo si no se filtró por fecha).
+ *
+ * Por viewport: rango sobre el índice (latitud, longitud) de ubicacion, agrupando en SQL por celdas
+ * de una grilla regular o trayendo los hechos sueltos con un tope.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HechoMapaRepository {
+
+    private static final RowMapper<CursorHechos> POSICION = (rs, i) -> {
+        Timestamp fecha = rs.getTimestamp("fecha_hecho");
+        return new CursorHechos(fecha != null ? fecha.toLocalDateTime() : null, rs.getLong("id"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Posiciones de la página que sigue a {@code cursor} (null = primera página), como mucho {@code limite}.
+     *
+     * @param categoria categoría exacta (según la collation de la columna), o null
+     * @param desde     fecha de hecho mínima inclusive, o null
+     * @param hasta     fecha de hecho máxima inclusive, o null
+     * @param busqueda  texto buscado en el título o en país/provincia/municipio, o null
+     */
+    public List<CursorHechos> buscarPagina(String categoria, LocalDateTime desde, LocalDateTime hasta,
+                                           String busqueda, CursorHechos cursor, int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder filtros = filtrosHecho(categoria, desde, hasta, params);
+        if (busqueda != null) {
+            filtros.append(" AND (LOWER(h.titulo) LIKE :busqueda OR LOWER(l.pais) LIKE :busqueda" +
+                    " OR LOWER(l.provincia) LIKE :busqueda OR LOWER(l.municipio) LIKE :busqueda)");
+            params.addValue("busqueda", "%" + escaparLike(busqueda.toLowerCase()) + "%");
+        }
+        String from = "FROM hecho h " +
+                (busqueda != null
+                        ? "LEFT JOIN ubicacion u ON u.id = h.id_ubicacion LEFT JOIN lugar l ON l.id_lugar = u.id_lugar "
+                        : "") +
+                "WHERE h.eliminado = FALSE" + filtros;
+
+        NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<CursorHechos> pagina = new ArrayList<>(limite);
+
+        // Tramo 1: hechos con fecha
+        if (cursor == null || cursor.getFechaHecho() != null) {
+            MapSqlParameterSource tramo = new MapSqlParameterSource(params.getValues()).addValue("limite", limite);
+            String keyset = "";
+            if (cursor != null) {
+                // Sin row constructor: con (a, b) < (x, y) MySQL no arma el rango sobre idx_hecho_fecha_hecho
+                keyset = " AND (h.fecha_hecho < :cursorFecha" +
+                        " OR (h.fecha_hecho = :cursorFecha AND h.id < :cursorId))";
+                tramo.addValue("cursorFecha", Timestamp.valueOf(cursor.getFechaHecho()))
+                        .addValue("cursorId", cursor.getId());
+            }
+            pagina.addAll(template.query(
+                    "SELECT h.fecha_hecho, h.id " + from + " AND h.fecha_hecho IS NOT NULL" + keyset +
+                    " ORDER BY h.fecha_hecho DESC, h.id DESC LIMIT :limite",
+                    tramo, POSICION));
+        }
+
+        // Tramo 2: hechos sin fecha (quedan afuera si se filtró por fecha)
+        if (pagina.size() < limite && desde == null && hasta == null) {
+            MapSqlParameterSource tramo = new MapSqlParameterSource(params.getValues())
+                    .addValue("limite", limite - pagina.size());
+            String keyset = "";
+            if (cursor != null && cursor.getFechaHecho() == null) {
+                keyset = " AND h.id < :cursorId";
+                tramo.addValue("cursorId", cursor.getId());
+            }
+            pagina.addAll(template.query(
+                    "SELECT h.fecha_hecho, h.id " + from + " AND h.fecha_hecho IS NULL" + keyset +
+                    " ORDER BY h.id DESC LIMIT :limite",
+                    tramo, POSICION));
+        }
+        return pagina;
+    }
+
+    /**
+     * Cantidad de hechos por celda de {@code tamanioCelda} grados dentro del rectángulo.
+     * Si {@code oeste > este} el rectángulo cruza el antimeridiano.
+     */
+    public List<ClusterMapaDTO> agruparEnCeldas(double sur, double oeste, double norte, double este,
+                                                double tamanioCelda, String categoria,
+                                                LocalDateTime desde, LocalDateTime hasta) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("celda", tamanioCelda);
+        String sql = "SELECT COUNT(*) AS cantidad, AVG(u.latitud) AS latitud, AVG(u.longitud) AS longitud " +
+                desdeViewport(sur, oeste, norte, este, categoria, desde, hasta, params) +
+                " GROUP BY FLOOR(u.latitud / :celda), FLOOR(u.longitud / :celda)";
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, params, (rs, i) ->
+                new ClusterMapaDTO(rs.getDouble("latitud"), rs.getDouble("longitud"), rs.getLong("cantidad")));
+    }
+
+    /**
+     * Hechos sueltos dentro del rectángulo, como mucho {@code limite} (los de ID más alto).
+     */
+    public List<HechoMapaDTO> buscarEnViewport(double sur, double oeste, double norte, double este,
+                                               String categoria, LocalDateTime desde, LocalDateTime hasta,
+                                               int limite) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("limite", limite);
+        String sql = "SELECT h.id, h.titulo, h.categoria, h.fecha_hecho, u.latitud, u.longitud " +
+                desdeViewport(sur, oeste, norte, este, categoria, desde, hasta, params) +
+                " ORDER BY h.id DESC LIMIT :limite";
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, params, (rs, i) -> {
+            Timestamp fecha = rs.getTimestamp("fecha_hecho");
+            return new HechoMapaDTO(rs.getLong("id"), rs.getString("titulo"), rs.getString("categoria"),
+                    fecha != null ? fecha.toLocalDateTime() : null,
+                    rs.getDouble("latitud"), rs.getDouble("longitud"));
+        });
+    }
+
+    /**
+     * Ubicación de los hechos modificados después de la marca (ultima_actualizacion, id), en ese orden:
+     * filas [latitud, longitud, ultima_actualizacion (LocalDateTime), id], como mucho {@code limite}.
+     */
+    public List<Object[]> buscarUbicacionesActualizadas(LocalDateTime marca, long marcaId, int limite) {
+        Timestamp desde = Timestamp.valueOf(marca);
+        return jdbcTemplate.query(
+                "SELECT u.latitud, u.longitud, h.ultima_actualizacion, h.id " +
+                "FROM hecho h JOIN ubicacion u ON u.id = h.id_ubicacion " +
+                "WHERE h.ultima_actualizacion > ? OR (h.ultima_actualizacion = ? AND h.id > ?) " +
+                "ORDER BY h.ultima_actualizacion, h.id LIMIT ?",
+                (rs, i) -> new Object[]{
+                        rs.getDouble("latitud"),
+                        rs.getDouble("longitud"),
+                        rs.getTimestamp("ultima_actualizacion").toLocalDateTime(),
+                        rs.getLong("id")
+                },
+                desde, desde, marcaId, limite);
+    }
+
+    /**
+     * Marca [ultima_actualizacion (LocalDateTime), id] del último hecho modificado, o null si no hay hechos.
+     */
+    public Object[] buscarUltimaMarca() {
+        List<Object[]> ultima = jdbcTemplate.query(
+                "SELECT ultima_actualizacion, id FROM hecho WHERE ultima_actualizacion IS NOT NULL " +
+                "ORDER BY ultima_actualizacion DESC, id DESC LIMIT 1",
+                (rs, i) -> new Object[]{rs.getTimestamp("ultima_actualizacion").toLocalDateTime(), rs.getLong("id")});
+        return ultima.isEmpty() ? null : ultima.get(0);
+    }
+
+    private static String desdeViewport(double sur, double oeste, double norte, double este, String categoria,
+                                        LocalDateTime desde, LocalDateTime hasta, MapSqlParameterSource params) {
+        params.addValue("sur", sur).addValue("norte", norte).addValue("oeste", oeste).addValue("este", este);
+        String longitud = oeste <= este
+                ? "u.longitud BETWEEN :oeste AND :este"
+                : "(u.longitud >= :oeste OR u.longitud <= :este)";
+        return "FROM ubicacion u JOIN hecho h ON h.id_ubicacion = u.id " +
+                "WHERE u.latitud BETWEEN :sur AND :norte AND " + longitud +
+                " AND h.eliminado = FALSE" + filtrosHecho(categoria, desde, hasta, params);
+    }
+
+    private static StringBuilder filtrosHecho(String categoria, LocalDateTime desde, LocalDateTime hasta,
+                                              MapSqlParameterSource params) {
+        StringBuilder filtros = new StringBuilder();
+        if (categoria != null) {
+            filtros.append(" AND h.categoria = :categoria");
+            params.addValue("categoria", categoria);
+        }
+        if (desde != null) {
+            filtros.append(" AND h.fecha_hecho >= :desde");
+            params.addValue("desde", Timestamp.valueOf(desde));
+        }
+        if (hasta != null) {
+            filtros.append(" AND h.fecha_hecho <= :hasta");
+            params.addValue("hasta", Timestamp.valueOf(hasta));
+        }
+        return filtros;
+    }
+
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
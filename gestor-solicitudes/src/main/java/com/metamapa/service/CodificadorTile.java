@@ -0,0 +1,126 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.ClusterMapaDTO;
+import com.metamapa.dto.HechoMapaDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Codificación binaria compacta de un tile z/x/y (Web Mercator) del mapa de hechos.
+ *
+ * Formato (enteros como varint LEB128; los que pueden ser negativos, con zigzag):
+ * <pre>
+ *   byte    versión (1)
+ *   byte    tipo: 0 = hechos sueltos, 1 = clusters
+ *   varint  cantidad de puntos
+ *   por punto, ordenados por (y, x):
+ *     zigzag  dx, dy respecto del punto anterior, en coordenadas del tile (0..EXTENSION-1)
+ *     hechos:   zigzag delta del ID respecto del anterior
+ *     clusters: varint cantidad de hechos
+ * </pre>
+ * Las coordenadas se cuantizan a EXTENSION unidades por lado, como en Mapbox Vector Tile.
+ */
+final class CodificadorTile {
+
+    static final int VERSION = 1;
+    static final int TIPO_HECHOS = 0;
+    static final int TIPO_CLUSTERS = 1;
+    static final int EXTENSION = 4096;
+    static final int ZOOM_MAXIMO = 22;
+
+    private static final double LATITUD_MAXIMA = 85.05112878;
+
+    private CodificadorTile() {}
+
+    static byte[] codificarHechos(int z, int x, int y, List<HechoMapaDTO> hechos) {
+        long[][] puntos = new long[hechos.size()][];
+        for (int i = 0; i < puntos.length; i++) {
+            HechoMapaDTO h = hechos.get(i);
+            puntos[i] = punto(z, x, y, h.getLatitud(), h.getLongitud(), h.getId());
+        }
+        return codificar(TIPO_HECHOS, puntos);
+    }
+
+    static byte[] codificarClusters(int z, int x, int y, List<ClusterMapaDTO> clusters) {
+        long[][] puntos = new long[clusters.size()][];
+        for (int i = 0; i < puntos.length; i++) {
+            ClusterMapaDTO c = clusters.get(i);
+            puntos[i] = punto(z, x, y, c.getLatitud(), c.getLongitud(), c.getCantidad());
+        }
+        return codificar(TIPO_CLUSTERS, puntos);
+    }
+
+    private static byte[] codificar(int tipo, long[][] puntos) {
+        Arrays.sort(puntos, (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(8 + puntos.length * 6);
+        salida.write(VERSION);
+        salida.write(tipo);
+        escribirVarint(salida, puntos.length);
+        long px = 0, py = 0, dato = 0;
+        for (long[] p : puntos) {
+            escribirVarint(salida, zigzag(p[0] - px));
+            escribirVarint(salida, zigzag(p[1] - py));
+            if (tipo == TIPO_HECHOS) {
+                escribirVarint(salida, zigzag(p[2] - dato));
+                dato = p[2];
+            } else {
+                escribirVarint(salida, p[2]);
+            }
+            px = p[0];
+            py = p[1];
+        }
+        return salida.toByteArray();
+    }
+
+    /** [x, y, dato] en coordenadas del tile, recortadas a 0..EXTENSION-1. */
+    private static long[] punto(int z, int x, int y, double latitud, double longitud, long dato) {
+        double n = 1L << z;
+        double tx = (longitud + 180) / 360 * n - x;
+        double ty = mercatorY(latitud) * n - y;
+        return new long[]{recortar(tx), recortar(ty), dato};
+    }
+
+    private static long recortar(double coordenadaEnTile) {
+        long v = (long) Math.floor(coordenadaEnTile * EXTENSION);
+        return Math.max(0, Math.min(EXTENSION - 1, v));
+    }
+
+    /** Y de Web Mercator normalizada a [0, 1] (0 = norte). */
+    private static double mercatorY(double latitud) {
+        double lat = Math.toRadians(Math.max(-LATITUD_MAXIMA, Math.min(LATITUD_MAXIMA, latitud)));
+        return (1 - Math.log(Math.tan(lat) + 1 / Math.cos(lat)) / Math.PI) / 2;
+    }
+
+    static int tileX(double longitud, int z) {
+        int n = 1 << z;
+        return Math.max(0, Math.min(n - 1, (int) Math.floor((longitud + 180) / 360 * n)));
+    }
+
+    static int tileY(double latitud, int z) {
+        int n = 1 << z;
+        return Math.max(0, Math.min(n - 1, (int) Math.floor(mercatorY(latitud) * n)));
+    }
+
+    static double longitudOeste(int x, int z) {
+        return x / (double) (1L << z) * 360 - 180;
+    }
+
+    static double latitudNorte(int y, int z) {
+        double n = Math.PI * (1 - 2 * y / (double) (1L << z));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static void escribirVarint(ByteArrayOutputStream salida, long v) {
+        while ((v & ~0x7FL) != 0) {
+            salida.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        salida.write((int) v);
+    }
+}
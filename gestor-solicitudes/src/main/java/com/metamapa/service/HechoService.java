@@ -1,10 +1,13 @@
 package com.metamapa.service;
 
 import com.metamapa.dto.ActualizarHechoDTO;
+import com.metamapa.dto.PaginaHechosDTO;
 import com.metamapa.entities.hechos.Hecho;
 import com.metamapa.entities.rol.Contribuyente;
 import com.metamapa.entities.ubicaciones.Lugar;
 import com.metamapa.entities.ubicaciones.Ubicacion;
+import com.metamapa.repository.CursorHechos;
+import com.metamapa.repository.HechoMapaRepository;
 import com.metamapa.repository.HechoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +16,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para gestionar operaciones sobre hechos
@@ -25,6 +33,42 @@ public class HechoService {
     
     private final HechoRepository hechoRepository;
     private final ContribuyenteService contribuyenteService;
+    private final HechoMapaRepository hechoMapaRepository;
+    private final TileHechosService tileHechosService;
+    
+    /**
+     * Página de hechos no eliminados para el mapa, ordenados por fecha de hecho (más recientes primero).
+     * La consulta trae solo IDs por keyset y después carga como mucho {@code limite} entidades,
+     * así el costo depende del tamaño de página y no de la cantidad de hechos.
+     *
+     * @param cursor siguienteCursor de la página anterior, o null para la primera
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public PaginaHechosDTO buscarPaginaMapa(String categoria, LocalDateTime desde, LocalDateTime hasta,
+                                            String busqueda, String cursor, int limite) {
+        CursorHechos desdeCursor = cursor != null ? CursorHechos.parsear(cursor) : null;
+        List<CursorHechos> posiciones = hechoMapaRepository.buscarPagina(
+                categoria, desde, hasta, busqueda, desdeCursor, limite);
+        if (posiciones.isEmpty()) {
+            return new PaginaHechosDTO(new ArrayList<>(), null);
+        }
+        
+        List<Long> ids = posiciones.stream().map(CursorHechos::getId).collect(Collectors.toList());
+        Map<Long, Hecho> porId = new HashMap<>();
+        for (Hecho hecho : hechoRepository.findByIdsWithEtiquetas(ids)) {
+            porId.put(hecho.getId(), hecho);
+        }
+        // Respetar el orden del keyset
+        List<Hecho> hechos = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Hecho hecho = porId.get(id);
+            if (hecho != null) hechos.add(hecho);
+        }
+        
+        String siguiente = posiciones.size() == limite ? posiciones.get(posiciones.size() - 1).toString() : null;
+        return new PaginaHechosDTO(hechos, siguiente);
+    }
     
     /**
      * Actualiza un hecho existente
@@ -98,6 +142,8 @@ public class HechoService {
                 hecho.setUbicacion(ubicacion);
             }
             
+            // Los tiles de la ubicación anterior no se enteran por ultima_actualizacion (se descartan al commit)
+            tileHechosService.invalidarUbicacion(ubicacion.getLatitud(), ubicacion.getLongitud());
             ubicacion.setLatitud(dto.getLatitud());
             ubicacion.setLongitud(dto.getLongitud());
             
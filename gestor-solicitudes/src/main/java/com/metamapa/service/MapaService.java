@@ -0,0 +1,93 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.HechoMapaDTO;
+import com.metamapa.dto.MapaViewportDTO;
+import com.metamapa.repository.HechoMapaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consulta de hechos por viewport (rectángulo + zoom) para el mapa.
+ *
+ * Con zoom bajo agrupa en el servidor por celdas de una grilla regular en grados; con zoom alto
+ * devuelve los hechos sueltos, salvo que haya más de metamapa.mapa.max-hechos en el rectángulo,
+ * en cuyo caso también agrupa. La respuesta queda acotada sin importar cuántos hechos haya.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MapaService {
+
+    private static final int ZOOM_MAXIMO = 22;
+    private static final int CELDAS_POR_TILE = 4;   // celdas de ~64px en tiles de 256px
+    private static final int MAX_CELDAS_LADO = 32;  // tope de celdas por lado del viewport
+
+    private final HechoMapaRepository hechoMapaRepository;
+
+    @Value("${metamapa.mapa.zoom-individual:13}")
+    private int zoomIndividual;
+
+    @Value("${metamapa.mapa.max-hechos:500}")
+    private int maxHechos;
+
+    /**
+     * @throws IllegalArgumentException si el rectángulo o el zoom no son válidos
+     */
+    public MapaViewportDTO consultar(double sur, double oeste, double norte, double este, int zoom,
+                                     String categoria, LocalDateTime desde, LocalDateTime hasta) {
+        validar(sur, oeste, norte, este, zoom);
+        MapaViewportDTO respuesta = new MapaViewportDTO();
+        respuesta.setZoom(zoom);
+
+        if (zoom >= zoomIndividual) {
+            List<HechoMapaDTO> hechos = hechoMapaRepository.buscarEnViewport(
+                    sur, oeste, norte, este, categoria, desde, hasta, maxHechos + 1);
+            if (hechos.size() <= maxHechos) {
+                respuesta.setHechos(hechos);
+                return respuesta;
+            }
+        }
+
+        double celda = tamanioCelda(zoom, sur, oeste, norte, este);
+        respuesta.setAgrupado(true);
+        respuesta.setTamanioCelda(celda);
+        respuesta.setClusters(hechoMapaRepository.agruparEnCeldas(
+                sur, oeste, norte, este, celda, categoria, desde, hasta));
+        log.debug("Viewport [{}, {}, {}, {}] z{}: {} clusters de {}°",
+                sur, oeste, norte, este, zoom, respuesta.getClusters().size(), celda);
+        return respuesta;
+    }
+
+    /**
+     * Lado de celda en grados: 1/CELDAS_POR_TILE de un tile del zoom pedido, agrandado si el viewport
+     * tendría más de MAX_CELDAS_LADO celdas por lado. Siempre es 360 / 2^k, así la grilla no se
+     * corre al desplazar el mapa y los clusters quedan estables.
+     */
+    static double tamanioCelda(int zoom, double sur, double oeste, double norte, double este) {
+        double ancho = oeste <= este ? este - oeste : este + 360 - oeste;
+        double minimo = Math.max(360.0 / (1L << zoom) / CELDAS_POR_TILE,
+                Math.max(norte - sur, ancho) / MAX_CELDAS_LADO);
+        double celda = 360.0;
+        while (celda / 2 >= minimo) {
+            celda /= 2;
+        }
+        return celda;
+    }
+
+    private static void validar(double sur, double oeste, double norte, double este, int zoom) {
+        if (zoom < 0 || zoom > ZOOM_MAXIMO) {
+            throw new IllegalArgumentException("Zoom fuera de rango: " + zoom);
+        }
+        if (sur < -90 || norte > 90 || sur > norte) {
+            throw new IllegalArgumentException("Latitudes inválidas: sur=" + sur + ", norte=" + norte);
+        }
+        if (oeste < -180 || oeste > 180 || este < -180 || este > 180) {
+            throw new IllegalArgumentException("Longitudes inválidas: oeste=" + oeste + ", este=" + este);
+        }
+    }
+}
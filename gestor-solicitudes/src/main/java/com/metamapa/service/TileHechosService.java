@@ -0,0 +1,195 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.MapaViewportDTO;
+import com.metamapa.repository.HechoMapaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tiles z/x/y del mapa de hechos, codificados con {@link CodificadorTile} y cacheados en memoria (LRU).
+ *
+ * Cada tile se arma con la misma consulta que el viewport ({@link MapaService}): clusters con zoom bajo,
+ * hechos sueltos con zoom alto. Mientras un tile está en cache se sirve sin tocar la BD.
+ *
+ * Invalidación incremental: cada metamapa.tiles.invalidacion-ms se buscan los hechos posteriores a la
+ * marca (ultima_actualizacion, id) y se descartan solo los tiles que contienen su ubicación (uno por zoom);
+ * cada cambio se ve una sola vez y una pasada sin cambios no toca la cache. Si cambiaron demasiados
+ * hechos de una vez se vacía la cache entera. Cambios de ubicación hechos desde este módulo invalidan
+ * también la ubicación anterior ({@link #invalidarUbicacion}); para el resto (y para un cambio que se
+ * confirma con una ultima_actualizacion ya detrás de la marca), metamapa.tiles.ttl-ms acota cuánto
+ * puede durar un tile.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TileHechosService {
+
+    private static final LocalDateTime SIN_MARCA = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final MapaService mapaService;
+    private final HechoMapaRepository hechoMapaRepository;
+
+    @Value("${metamapa.tiles.max-en-memoria:5000}")
+    private int maxEnMemoria;
+
+    @Value("${metamapa.tiles.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${metamapa.tiles.lote-invalidacion:5000}")
+    private int loteInvalidacion;
+
+    private final Map<Long, TileCacheado> cache = new LinkedHashMap<Long, TileCacheado>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TileCacheado> masViejo) {
+            return size() > maxEnMemoria;
+        }
+    };
+
+    // Se incrementa en cada invalidación: un tile armado mientras cambió no se guarda
+    private final AtomicLong epoca = new AtomicLong();
+    private volatile LocalDateTime marca;
+    private volatile long marcaId;
+
+    /**
+     * Tile codificado, desde la cache o generado en el momento.
+     *
+     * @throws IllegalArgumentException si z/x/y no es un tile válido
+     */
+    public byte[] obtenerTile(int z, int x, int y) {
+        if (z < 0 || z > CodificadorTile.ZOOM_MAXIMO || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tile inválido: " + z + "/" + x + "/" + y);
+        }
+        long clave = clave(z, x, y);
+        long ahora = System.currentTimeMillis();
+        synchronized (cache) {
+            TileCacheado tile = cache.get(clave);
+            if (tile != null && ahora - tile.generado < ttlMs) {
+                return tile.datos;
+            }
+        }
+
+        long epocaInicial = epoca.get();
+        byte[] datos = generar(z, x, y);
+        synchronized (cache) {
+            if (epoca.get() == epocaInicial) {
+                cache.put(clave, new TileCacheado(datos, ahora));
+            }
+        }
+        return datos;
+    }
+
+    private byte[] generar(int z, int x, int y) {
+        double oeste = CodificadorTile.longitudOeste(x, z);
+        double este = CodificadorTile.longitudOeste(x + 1, z);
+        double norte = CodificadorTile.latitudNorte(y, z);
+        double sur = CodificadorTile.latitudNorte(y + 1, z);
+        MapaViewportDTO contenido = mapaService.consultar(sur, oeste, norte, este, z, null, null, null);
+        return contenido.isAgrupado()
+                ? CodificadorTile.codificarClusters(z, x, y, contenido.getClusters())
+                : CodificadorTile.codificarHechos(z, x, y, contenido.getHechos());
+    }
+
+    /**
+     * Descarta los tiles de los hechos modificados desde la última pasada.
+     */
+    @Scheduled(fixedDelayString = "${metamapa.tiles.invalidacion-ms:10000}")
+    public void invalidarCambios() {
+        if (marca == null) {
+            // Primera pasada: la cache está vacía, solo se toma la marca
+            tomarUltimaMarca();
+            return;
+        }
+
+        List<Object[]> cambios = hechoMapaRepository.buscarUbicacionesActualizadas(marca, marcaId, loteInvalidacion + 1);
+        if (cambios.isEmpty()) return;
+
+        if (cambios.size() > loteInvalidacion) {
+            // La marca se toma antes de vaciar: lo que cambie en el medio se ve en la próxima pasada
+            tomarUltimaMarca();
+            epoca.incrementAndGet();
+            synchronized (cache) {
+                cache.clear();
+            }
+            log.info("Tiles: más de {} hechos modificados, cache vaciada", loteInvalidacion);
+            return;
+        }
+
+        epoca.incrementAndGet();
+        int descartados = 0;
+        synchronized (cache) {
+            for (Object[] cambio : cambios) {
+                descartados += descartar((Double) cambio[0], (Double) cambio[1]);
+            }
+        }
+        Object[] ultimo = cambios.get(cambios.size() - 1);
+        marca = (LocalDateTime) ultimo[2];
+        marcaId = (Long) ultimo[3];
+        log.debug("Tiles: {} hechos modificados, {} tiles descartados", cambios.size(), descartados);
+    }
+
+    /**
+     * Descarta los tiles que contienen una ubicación (p. ej. la anterior de un hecho que se movió).
+     * Dentro de una transacción lo hace después del commit: antes, un tile regenerado en el medio
+     * volvería a la cache con el hecho todavía en la ubicación anterior.
+     */
+    public void invalidarUbicacion(double latitud, double longitud) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartarUbicacion(latitud, longitud);
+                }
+            });
+        } else {
+            descartarUbicacion(latitud, longitud);
+        }
+    }
+
+    private void descartarUbicacion(double latitud, double longitud) {
+        epoca.incrementAndGet();
+        synchronized (cache) {
+            descartar(latitud, longitud);
+        }
+    }
+
+    private void tomarUltimaMarca() {
+        Object[] ultima = hechoMapaRepository.buscarUltimaMarca();
+        marca = ultima != null ? (LocalDateTime) ultima[0] : SIN_MARCA;
+        marcaId = ultima != null ? (Long) ultima[1] : 0L;
+    }
+
+    private int descartar(double latitud, double longitud) {
+        int descartados = 0;
+        for (int z = 0; z <= CodificadorTile.ZOOM_MAXIMO; z++) {
+            if (cache.remove(clave(z, CodificadorTile.tileX(longitud, z), CodificadorTile.tileY(latitud, z))) != null) {
+                descartados++;
+            }
+        }
+        return descartados;
+    }
+
+    private static long clave(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+
+    private static final class TileCacheado {
+        private final byte[] datos;
+        private final long generado;
+
+        TileCacheado(byte[] datos, long generado) {
+            this.datos = datos;
+            this.generado = generado;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.metamapa.service;
+
+import com.metamapa.dto.ClusterMapaDTO;
+import com.metamapa.dto.HechoMapaDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodificadorTileTest {
+
+    @DisplayName("Un tile sin puntos es solo la cabecera")
+    @Test
+    void codificar_TileVacio() {
+        byte[] datos = CodificadorTile.codificarHechos(3, 2, 4, Collections.emptyList());
+
+        assertArrayEquals(new byte[]{CodificadorTile.VERSION, CodificadorTile.TIPO_HECHOS, 0}, datos);
+    }
+
+    @DisplayName("Los hechos salen ordenados por (y, x) y con sus IDs recuperables de los deltas")
+    @Test
+    void codificarHechos_IdaYVuelta() {
+        // Tile 0/0/0: todo el mundo; la mitad sur queda con y >= EXTENSION / 2
+        List<HechoMapaDTO> hechos = Arrays.asList(
+                hecho(300L, -34.60, -58.38),
+                hecho(7L, 40.42, -3.70),
+                hecho(1_000_000L, 35.68, 139.69));
+
+        List<long[]> puntos = decodificar(CodificadorTile.codificarHechos(0, 0, 0, hechos), CodificadorTile.TIPO_HECHOS);
+
+        assertEquals(3, puntos.size());
+        assertEquals(7L, puntos.get(0)[2], "Madrid está más al norte que Tokio");
+        assertEquals(1_000_000L, puntos.get(1)[2]);
+        assertEquals(300L, puntos.get(2)[2]);
+        assertTrue(puntos.get(2)[1] >= CodificadorTile.EXTENSION / 2, "Buenos Aires queda en la mitad sur");
+        assertTrue(puntos.get(1)[0] > puntos.get(0)[0], "Tokio está al este de Madrid");
+    }
+
+    @DisplayName("Los clusters guardan su cantidad de hechos")
+    @Test
+    void codificarClusters_Cantidades() {
+        List<ClusterMapaDTO> clusters = Arrays.asList(
+                new ClusterMapaDTO(-34.60, -58.38, 1500),
+                new ClusterMapaDTO(-31.42, -64.18, 3));
+
+        byte[] datos = CodificadorTile.codificarClusters(2, 1, 2, clusters);
+        List<long[]> puntos = decodificar(datos, CodificadorTile.TIPO_CLUSTERS);
+
+        assertEquals(CodificadorTile.TIPO_CLUSTERS, datos[1]);
+        assertEquals(3L, puntos.get(0)[2], "Córdoba está más al norte");
+        assertEquals(1500L, puntos.get(1)[2]);
+    }
+
+    @DisplayName("Un punto fuera del tile se recorta al borde")
+    @Test
+    void codificar_RecortaAlBorde() {
+        // Tile 1/0/0 (noroeste): un punto en el sudeste queda en la esquina (EXTENSION-1, EXTENSION-1)
+        List<long[]> puntos = decodificar(
+                CodificadorTile.codificarHechos(1, 0, 0, Collections.singletonList(hecho(1L, -45, 90))),
+                CodificadorTile.TIPO_HECHOS);
+
+        assertEquals(CodificadorTile.EXTENSION - 1, puntos.get(0)[0]);
+        assertEquals(CodificadorTile.EXTENSION - 1, puntos.get(0)[1]);
+    }
+
+    @DisplayName("tileX/tileY ubican un punto en el tile cuyos bordes lo contienen")
+    @Test
+    void tileXY_CoincidenConLosBordes() {
+        double latitud = -34.60;
+        double longitud = -58.38;
+        for (int z = 0; z <= CodificadorTile.ZOOM_MAXIMO; z++) {
+            int x = CodificadorTile.tileX(longitud, z);
+            int y = CodificadorTile.tileY(latitud, z);
+
+            assertTrue(CodificadorTile.longitudOeste(x, z) <= longitud && longitud < CodificadorTile.longitudOeste(x + 1, z));
+            assertTrue(CodificadorTile.latitudNorte(y, z) >= latitud && latitud > CodificadorTile.latitudNorte(y + 1, z));
+        }
+        assertEquals(345, CodificadorTile.tileX(longitud, 10));
+        assertEquals(617, CodificadorTile.tileY(latitud, 10));
+    }
+
+    @DisplayName("Las coordenadas extremas quedan dentro de la grilla")
+    @Test
+    void tileXY_Extremos() {
+        assertEquals(0, CodificadorTile.tileY(90, 5));
+        assertEquals(31, CodificadorTile.tileY(-90, 5));
+        assertEquals(0, CodificadorTile.tileX(-180, 5));
+        assertEquals(31, CodificadorTile.tileX(180, 5));
+        assertEquals(0, CodificadorTile.tileX(0, 0));
+    }
+
+    /** [x, y, dato] de cada punto, en el orden del tile. */
+    private static List<long[]> decodificar(byte[] datos, int tipo) {
+        assertEquals(CodificadorTile.VERSION, datos[0]);
+        assertEquals(tipo, datos[1]);
+        int[] pos = {2};
+        long cantidad = leerVarint(datos, pos);
+        List<long[]> puntos = new ArrayList<>();
+        long x = 0, y = 0, dato = 0;
+        for (long i = 0; i < cantidad; i++) {
+            x += deszigzag(leerVarint(datos, pos));
+            y += deszigzag(leerVarint(datos, pos));
+            if (tipo == CodificadorTile.TIPO_HECHOS) {
+                dato += deszigzag(leerVarint(datos, pos));
+                puntos.add(new long[]{x, y, dato});
+            } else {
+                puntos.add(new long[]{x, y, leerVarint(datos, pos)});
+            }
+        }
+        assertEquals(datos.length, pos[0], "No sobran bytes");
+        return puntos;
+    }
+
+    private static long leerVarint(byte[] datos, int[] pos) {
+        long v = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = datos[pos[0]++];
+            v |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0);
+        return v;
+    }
+
+    private static long deszigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static HechoMapaDTO hecho(Long id, double latitud, double longitud) {
+        return new HechoMapaDTO(id, "Hecho " + id, "Incendio", null, latitud, longitud);
+    }
+}